@@ -0,0 +1,68 @@
+package aggregation.bench;
+
+import aggregation.kemeny.AssignmentAlgorithm;
+import aggregation.kemeny.AssignmentSolver;
+import aggregation.kemeny.DistanceMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задача о назначениях на матрице d_{ik} синтетического профиля: каждая реализация
+ * {@link AssignmentSolver} повторно решает одну задачу на своём рабочем пространстве.
+ * Размер 5000×1000 — плоская матрица в 200 МБ, на которой видна разница асимптотик и кэша.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AssignmentBenchmark {
+
+    @Param({"10x1000", "100x1000", "1000x1000", "5000x1000"})
+    public String size;
+
+    @Param({"0.2", "0.9"})
+    public double consensus;
+
+    @Param({"HUNGARIAN", "JONKER_VOLGENANT", "AUCTION"})
+    public AssignmentAlgorithm algorithm;
+
+    private double[] cost;
+    private int m;
+    private int[] assignment;
+    private AssignmentSolver solver;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] mn = ProfileFixtures.parseSize(size);
+        m = mn[0];
+        DistanceMatrix matrix = DistanceMatrix.fromProfile(ProfileFixtures.mallows(m, mn[1], consensus, 42L));
+        cost = new double[m * m];
+        double[] row = new double[m];
+        for (int i = 0; i < m; i++) {
+            matrix.copyRow(i, row);
+            System.arraycopy(row, 0, cost, i * m, m);
+        }
+        assignment = new int[m];
+        solver = algorithm.newSolver();
+    }
+
+    @Benchmark
+    public int[] solve() {
+        solver.solve(cost, m, assignment);
+        return assignment;
+    }
+}
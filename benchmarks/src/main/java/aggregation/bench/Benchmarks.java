@@ -0,0 +1,38 @@
+package aggregation.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Точка входа benchmarks.jar: принимает обычные параметры JMH (маска бенчмарков, -p size=..., -rf json, -l)
+ * и всегда включает профилировщик GC, чтобы вместе с пропускной способностью отслеживать
+ * аллокации (gc.alloc.rate.norm — байт на операцию).
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Runner runner = new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build());
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+        } else if (commandLine.shouldList()) {
+            runner.list();
+        } else if (commandLine.shouldListWithParams()) {
+            runner.listWithParams(commandLine);
+        } else {
+            runner.run();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package aggregation.bench;
+
+import aggregation.kemeny.AdaptiveKemenyResult;
+import aggregation.kemeny.AdaptiveKemenySolver;
+import aggregation.kemeny.AdaptiveWeightMode;
+import aggregation.kemeny.KemenyMedianSolver;
+import aggregation.kemeny.KemenyResult;
+import aggregation.kemeny.KemenyTopKResult;
+import aggregation.kemeny.PositionWeightFunction;
+import aggregation.kemeny.PositionWeightSweep;
+import aggregation.kemeny.PositionWeightedKemenyResult;
+import aggregation.kemeny.PositionWeightedKemenySolver;
+import aggregation.model.PreferenceProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный путь решателей медианы от профиля до ранжировки: гистограмма, матрица и назначение.
+ * Кемени — Янг экспоненциален по m, поэтому его размеры вынесены в {@link KemenyYoungBenchmark}.
+ * Размер 100×1000000 нагружает построение гистограммы по таблице рангов, а не назначение.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class KemenySolverBenchmark {
+
+    @Param({"10x1000", "100x10000", "1000x1000", "100x1000000"})
+    public String size;
+
+    @Param({"0.2", "0.9"})
+    public double consensus;
+
+    private PreferenceProfile profile;
+    private final List<PositionWeightFunction> sweepFunctions = List.of(
+            PositionWeightFunction.hyperbolic(),
+            PositionWeightFunction.linear(),
+            PositionWeightFunction.exponential(0.5),
+            PositionWeightFunction.logarithmic(),
+            PositionWeightFunction.topK(2));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] mn = ProfileFixtures.parseSize(size);
+        profile = ProfileFixtures.mallows(mn[0], mn[1], consensus, 42L);
+    }
+
+    @Benchmark
+    public KemenyResult kemenyMedian() {
+        return new KemenyMedianSolver().solve(profile);
+    }
+
+    @Benchmark
+    public KemenyTopKResult kemenyTopTen() {
+        return new KemenyMedianSolver().solveTopK(profile, Math.min(10, profile.alternatives().size()));
+    }
+
+    @Benchmark
+    public PositionWeightedKemenyResult positionWeighted() {
+        return new PositionWeightedKemenySolver(PositionWeightFunction.hyperbolic()).solve(profile);
+    }
+
+    @Benchmark
+    public List<PositionWeightedKemenyResult> positionWeightSweep() {
+        return new PositionWeightSweep().run(profile, sweepFunctions);
+    }
+
+    @Benchmark
+    public AdaptiveKemenyResult adaptive() {
+        return new AdaptiveKemenySolver(AdaptiveWeightMode.CONFLICT_FOCUS).solve(profile);
+    }
+}
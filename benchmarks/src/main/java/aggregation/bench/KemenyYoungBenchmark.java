@@ -0,0 +1,51 @@
+package aggregation.bench;
+
+import aggregation.kemeny.KemenyYoungResult;
+import aggregation.kemeny.KemenyYoungSolver;
+import aggregation.model.PreferenceProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Точная медиана Кемени — Янга (ДП, ветви и границы, разбиение на компоненты) на небольшом числе
+ * альтернатив; при m > 64 решатель отказывает, поэтому размеры ограничены.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KemenyYoungBenchmark {
+
+    @Param({"10x1000", "16x1000", "20x1000"})
+    public String size;
+
+    @Param({"0.2", "0.9"})
+    public double consensus;
+
+    private PreferenceProfile profile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] mn = ProfileFixtures.parseSize(size);
+        profile = ProfileFixtures.mallows(mn[0], mn[1], consensus, 42L);
+    }
+
+    @Benchmark
+    public KemenyYoungResult kemenyYoung() {
+        return new KemenyYoungSolver().solve(profile);
+    }
+}
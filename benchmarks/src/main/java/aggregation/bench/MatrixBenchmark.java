@@ -0,0 +1,96 @@
+package aggregation.bench;
+
+import aggregation.algorithms.ParetoAnalyzer;
+import aggregation.kemeny.DistanceMatrix;
+import aggregation.kemeny.OffHeapCostMatrix;
+import aggregation.kemeny.PositionHistogram;
+import aggregation.kemeny.PositionEntropyAnalyzer;
+import aggregation.kemeny.PositionWeightFunction;
+import aggregation.kemeny.WeightedDistanceMatrix;
+import aggregation.model.PreferenceProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение матриц и анализ профиля без кэша {@link aggregation.kemeny.ProfileContext}:
+ * каждая операция заново строит гистограмму позиций по таблице рангов.
+ *
+ * Размер — пара "m x n"; по умолчанию выбраны сочетания, покрывающие m от 10 до 5000
+ * и n от 10 до 1M при разумном объёме памяти. Другие задаются через -p size=MxN.
+ * Матрицы строятся в пуле из threads потоков (1 — последовательно).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MatrixBenchmark {
+
+    @Param({"10x10", "10x1000000", "100x100000", "1000x1000", "5000x10"})
+    public String size;
+
+    @Param({"0.2", "0.9"})
+    public double consensus;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private PreferenceProfile profile;
+    private ForkJoinPool pool;
+    private final PositionWeightFunction hyperbolic = PositionWeightFunction.hyperbolic();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] mn = ProfileFixtures.parseSize(size);
+        profile = ProfileFixtures.mallows(mn[0], mn[1], consensus, 42L);
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public DistanceMatrix distanceMatrix() {
+        return DistanceMatrix.fromProfile(profile, pool);
+    }
+
+    @Benchmark
+    public OffHeapCostMatrix offHeapFloatMatrix() {
+        PositionHistogram histogram = PositionHistogram.fromTable(profile.rankTable(), pool);
+        return OffHeapCostMatrix.fromHistogram(histogram, OffHeapCostMatrix.Precision.FLOAT, pool);
+    }
+
+    @Benchmark
+    public WeightedDistanceMatrix weightedDistanceMatrix() {
+        return WeightedDistanceMatrix.fromProfile(profile, hyperbolic, pool);
+    }
+
+    @Benchmark
+    public PositionEntropyAnalyzer positionEntropy() {
+        return PositionEntropyAnalyzer.analyze(profile);
+    }
+
+    @Benchmark
+    public ParetoAnalyzer.ParetoResult pareto() {
+        return ParetoAnalyzer.analyze(profile);
+    }
+}
@@ -0,0 +1,33 @@
+package aggregation.bench;
+
+import aggregation.model.PreferenceProfile;
+import aggregation.model.ProfileGenerator;
+
+/**
+ * Синтетические профили для бенчмарков: {@link ProfileGenerator} с одним кластером и равномерным
+ * согласием. Уровень согласия c ∈ [0, 1]: при c = 1 все бюллетени совпадают, при c = 0 —
+ * равновероятные перестановки. Одинаковые бюллетени сливаются, как при загрузке файлов.
+ */
+final class ProfileFixtures {
+
+    private ProfileFixtures() {
+    }
+
+    /**
+     * Разбирает размер вида "m x n" (например, "100x10000").
+     */
+    static int[] parseSize(String size) {
+        String[] parts = size.toLowerCase().split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Size must look like MxN: " + size);
+        }
+        return new int[]{Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())};
+    }
+
+    /**
+     * Строит профиль из n бюллетеней над m альтернативами с уровнем согласия consensus.
+     */
+    static PreferenceProfile mallows(int m, int n, double consensus, long seed) {
+        return ProfileGenerator.builder(m).consensus(consensus).seed(seed).build().generate(n);
+    }
+}
@@ -1,13 +1,15 @@
 package aggregation;
 
 import aggregation.algorithms.ParetoAnalyzer;
-import aggregation.io.JsonProfileReader;
 import aggregation.io.ProfileDataset;
+import aggregation.io.ProfileFiles;
+import aggregation.io.ProfileSection;
 import aggregation.kemeny.*;
 import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
 
 import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.Map;
 
 /**
@@ -27,51 +29,53 @@ public final class AdaptiveKemenyDemo {
         
         ProfileDataset dataset;
         try {
-            dataset = new JsonProfileReader().read(datasetPath);
+            dataset = ProfileFiles.read(datasetPath, EnumSet.of(ProfileSection.METADATA));
         } catch (Exception e) {
             System.err.println("Failed to load dataset: " + e.getMessage());
             return;
         }
 
         PreferenceProfile profile = dataset.preferenceProfile();
+        // Один контекст на весь отчёт: энтропии и матрица d_{ik} считаются один раз для всех методов.
+        ProfileContext context = ProfileContext.fromProfile(profile);
         dataset.title().ifPresent(title -> System.out.println("Dataset: " + title));
         System.out.println();
 
         // Шаг 0: Парето-анализ
         printHeader("PARETO ANALYSIS");
-        ParetoAnalyzer.ParetoResult paretoResult = ParetoAnalyzer.analyze(profile);
+        ParetoAnalyzer.ParetoResult paretoResult = ParetoAnalyzer.analyze(context);
         paretoResult.print();
         System.out.println();
 
         // Шаг 1: Анализ энтропии
         printHeader("ENTROPY ANALYSIS");
-        PositionEntropyAnalyzer entropyAnalyzer = PositionEntropyAnalyzer.analyze(profile);
+        PositionEntropyAnalyzer entropyAnalyzer = context.entropyAnalyzer();
         entropyAnalyzer.printReport();
         System.out.println();
 
         // Шаг 2: Классический Кемени
         printHeader("CLASSIC KEMENY");
         KemenyMedianSolver classicSolver = new KemenyMedianSolver();
-        KemenyResult classicResult = classicSolver.solve(profile);
+        KemenyResult classicResult = classicSolver.solve(context);
         printRanking("Classic Kemeny (phi(k) = 1)", classicResult.ranking().sortedMap(), classicResult.totalDistance());
 
         // Шаг 3: Позиционно-взвешенный (гиперболический)
         printHeader("POSITION-WEIGHTED KEMENY (Hyperbolic)");
         PositionWeightedKemenySolver hyperbolicSolver = new PositionWeightedKemenySolver(PositionWeightFunction.hyperbolic());
-        PositionWeightedKemenyResult hyperbolicResult = hyperbolicSolver.solve(profile);
+        PositionWeightedKemenyResult hyperbolicResult = hyperbolicSolver.solve(context);
         printRanking("Hyperbolic (phi(k) = 1/k)", hyperbolicResult.ranking().sortedMap(), hyperbolicResult.totalDistance());
 
         // Шаг 4: Адаптивный — фокус на конфликтах
         printHeader("ADAPTIVE KEMENY (Conflict Focus)");
         AdaptiveKemenySolver conflictSolver = new AdaptiveKemenySolver(AdaptiveWeightMode.CONFLICT_FOCUS);
-        AdaptiveKemenyResult conflictResult = conflictSolver.solve(profile);
+        AdaptiveKemenyResult conflictResult = conflictSolver.solve(context);
         printRanking("Conflict Focus (phi(k) = H(k)/H_max)", conflictResult.ranking().sortedMap(), conflictResult.totalWeightedDistance());
         printAdaptiveWeights(entropyAnalyzer, AdaptiveWeightMode.CONFLICT_FOCUS);
 
         // Шаг 5: Адаптивный — фокус на консенсусе
         printHeader("ADAPTIVE KEMENY (Consensus Focus)");
         AdaptiveKemenySolver consensusSolver = new AdaptiveKemenySolver(AdaptiveWeightMode.CONSENSUS_FOCUS);
-        AdaptiveKemenyResult consensusResult = consensusSolver.solve(profile);
+        AdaptiveKemenyResult consensusResult = consensusSolver.solve(context);
         printRanking("Consensus Focus (phi(k) = 1 - H(k)/H_max)", consensusResult.ranking().sortedMap(), consensusResult.totalWeightedDistance());
         printAdaptiveWeights(entropyAnalyzer, AdaptiveWeightMode.CONSENSUS_FOCUS);
 
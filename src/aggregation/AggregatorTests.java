@@ -3,16 +3,68 @@ package aggregation;
 import aggregation.algorithms.RankSumAggregator;
 import aggregation.algorithms.UtilityAggregator;
 import aggregation.algorithms.WeightedRankSumAggregator;
+import aggregation.io.BinaryProfileReader;
+import aggregation.io.BinaryProfileWriter;
 import aggregation.io.JsonProfileReader;
+import aggregation.io.PrefLibReader;
 import aggregation.io.ProfileDataset;
+import aggregation.io.ProfileSection;
+import aggregation.kemeny.AdaptiveKemenyResult;
+import aggregation.kemeny.AdaptiveKemenySolver;
+import aggregation.kemeny.AdaptiveWeightMode;
+import aggregation.kemeny.AssignmentAlgorithm;
+import aggregation.kemeny.AssignmentSolver;
+import aggregation.kemeny.AuctionSolver;
+import aggregation.kemeny.DistanceMatrix;
+import aggregation.kemeny.HungarianSolver;
+import aggregation.kemeny.KemenyMedianSolver;
+import aggregation.kemeny.KemenyResult;
+import aggregation.kemeny.KemenyTopKResult;
+import aggregation.kemeny.KemenyYoungAlgorithm;
+import aggregation.kemeny.KemenyYoungResult;
+import aggregation.kemeny.KemenyYoungSolver;
+import aggregation.kemeny.OffHeapCostMatrix;
+import aggregation.kemeny.PairwiseMatrix;
+import aggregation.kemeny.PositionHistogram;
+import aggregation.kemeny.PositionEntropyAnalyzer;
+import aggregation.kemeny.PositionWeightFunction;
+import aggregation.kemeny.PositionWeightedKemenyResult;
+import aggregation.kemeny.PositionWeightSweep;
+import aggregation.kemeny.PositionWeightedKemenySolver;
+import aggregation.kemeny.ProfileContext;
+import aggregation.kemeny.ResultRetention;
+import aggregation.kemeny.WeightedDistanceMatrix;
 import aggregation.model.AggregatedRanking;
 import aggregation.model.Alternative;
+import aggregation.model.DeduplicationReport;
+import aggregation.model.AlternativeUniverse;
 import aggregation.model.PreferenceProfile;
+import aggregation.model.ProfileGenerator;
+import aggregation.model.RankTable;
+import aggregation.model.Ranking;
+import aggregation.model.RankingEntry;
 import aggregation.model.UtilityProfile;
 import aggregation.model.WeightMatrix;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * Тесты для проверки корректности агрегаторов.
@@ -38,16 +90,44 @@ public final class AggregatorTests {
             dataset = new JsonProfileReader().read(Path.of("data", "profile_example.json"));
         } catch (Exception e) {
             System.err.println("Ошибка загрузки данных: " + e.getMessage());
+            System.exit(1);
             return;
         }
 
         testRankSumAggregator(dataset.preferenceProfile());
         testWeightedRankSumAggregator(dataset);
         testUtilityAggregator(dataset);
+        testHungarianWorkspace(dataset.preferenceProfile());
+        testJonkerVolgenantBackend();
+        testAuctionBackend();
+        testKemenyYoungSolver(dataset.preferenceProfile());
+        testKemenyBranchAndBound();
+        testMajorityDecomposition();
+        testProfileContext(dataset.preferenceProfile());
+        testPositionWeightSweep();
+        testAlternativeUniverse(dataset.preferenceProfile());
+        testProfileBuilder();
+        testBallotDeduplication();
+        testStreamingReader(dataset.preferenceProfile());
+        testSectionSelection(dataset);
+        testBinaryProfile(dataset);
+        testPrefLibReader();
+        testBatchRunner();
+        testProfileGenerator();
+        testParallelMatrices();
+        testIntegerAssignment();
+        testOffHeapCostMatrix();
+        testResultRetention();
+        testTopKConsensus();
+        testDistanceMatrixDefinition();
 
         System.out.println("\n" + "=" .repeat(70));
         System.out.println("ИТОГО: " + passedTests + " тестов пройдено, " + failedTests + " провалено");
         System.out.println("=" .repeat(70));
+        // Ненулевой код завершения — чтобы сборка (mvn test) останавливалась на провале.
+        if (failedTests > 0) {
+            System.exit(1);
+        }
     }
 
     /**
@@ -232,10 +312,1619 @@ public final class AggregatorTests {
         printTestResult(passed);
     }
 
+    /**
+     * Тест переиспользуемого рабочего пространства венгерского алгоритма.
+     * 
+     * РУЧНОЙ РАСЧЁТ:
+     * ─────────────────────────────────────────────────────────────────────
+     * Матрица d_{ik} для data/profile_example.json:
+     *         k=1  k=2  k=3
+     *   A      62   48   58
+     *   B      51   29   69
+     *   C      67   43   53
+     * 
+     * Перебор 3! = 6 назначений даёт минимум A->1, B->2, C->3:
+     *   62 + 29 + 53 = 144
+     * 
+     * Кроме того, решение в цикле по 2000 случайным матрицам на одном
+     * экземпляре HungarianSolver должно совпадать со статическим solve()
+     * и не выделять память после прогрева.
+     * ─────────────────────────────────────────────────────────────────────
+     */
+    private static void testHungarianWorkspace(PreferenceProfile profile) {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 4: Рабочее пространство венгерского алгоритма (HungarianSolver)");
+        System.out.println("─".repeat(70));
+
+        System.out.println("\nРучной расчёт:");
+        System.out.println("  A->1, B->2, C->3: 62 + 29 + 53 = 144");
+
+        double[][] matrix = DistanceMatrix.fromProfile(profile).asArray();
+        int[] assignment = HungarianSolver.solve(matrix);
+        double total = 0.0;
+        for (int i = 0; i < assignment.length; i++) {
+            total += matrix[i][assignment[i]];
+        }
+        System.out.printf("%nРезультат программы: назначение %s, d* = %.0f%n", Arrays.toString(assignment), total);
+
+        boolean passed = Math.abs(total - 144.0) < 0.001;
+        passed &= Arrays.equals(assignment, new int[]{0, 1, 2});
+
+        // Набор случайных задач готовится заранее, чтобы не учитывать его в замере памяти.
+        int n = 30;
+        int problems = 2000;
+        Random random = new Random(42);
+        double[][] costs = new double[problems][n * n];
+        for (double[] cost : costs) {
+            for (int idx = 0; idx < cost.length; idx++) {
+                cost[idx] = random.nextInt(1000);
+            }
+        }
+
+        HungarianSolver solver = new HungarianSolver(n);
+        int[] buffer = new int[n];
+        for (int p = 0; p < 200; p++) {
+            solver.solve(costs[p], n, buffer);
+        }
+        // Накладные расходы самого замера вычитаются.
+        long overhead = -allocatedBytes() + allocatedBytes();
+        long before = allocatedBytes();
+        for (double[] cost : costs) {
+            solver.solve(cost, n, buffer);
+        }
+        long allocated = allocatedBytes() - before - overhead;
+
+        for (int p = 0; p < 20; p++) {
+            double[][] square = new double[n][];
+            for (int i = 0; i < n; i++) {
+                square[i] = Arrays.copyOfRange(costs[p], i * n, (i + 1) * n);
+            }
+            solver.solve(costs[p], n, buffer);
+            passed &= Arrays.equals(buffer, HungarianSolver.solve(square));
+        }
+
+        if (before >= 0) {
+            System.out.printf("  Выделено памяти за %d решений: %d байт%n", problems, allocated);
+            passed &= allocated == 0;
+        } else {
+            System.out.println("  Замер выделения памяти недоступен в этой JVM");
+        }
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест альтернативного решателя задачи о назначениях (LAPJV).
+     * 
+     * Для каждого набора из data/ классическая медиана Кемени (целочисленные
+     * стоимости) должна давать точно то же d*, что и венгерский алгоритм,
+     * а гиперболическая — совпадать с точностью до округления.
+     */
+    private static void testJonkerVolgenantBackend() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 5: Алгоритм Джонкера — Волгенанта (JonkerVolgenantSolver)");
+        System.out.println("─".repeat(70));
+
+        List<Path> files = listDataFiles();
+        boolean passed = !files.isEmpty();
+        for (Path file : files) {
+            PreferenceProfile profile = loadProfile(file);
+            if (profile == null) {
+                passed = false;
+                continue;
+            }
+
+            double hungarian = new KemenyMedianSolver(AssignmentAlgorithm.HUNGARIAN).solve(profile).totalDistance();
+            double lapjv = new KemenyMedianSolver(AssignmentAlgorithm.JONKER_VOLGENANT).solve(profile).totalDistance();
+            double hyperbolicHungarian = new PositionWeightedKemenySolver(
+                    PositionWeightFunction.hyperbolic(), AssignmentAlgorithm.HUNGARIAN).solve(profile).totalDistance();
+            double hyperbolicLapjv = new PositionWeightedKemenySolver(
+                    PositionWeightFunction.hyperbolic(), AssignmentAlgorithm.JONKER_VOLGENANT).solve(profile).totalDistance();
+
+            System.out.printf("  %-35s d* = %.0f / %.0f, hyperbolic = %.4f / %.4f%n",
+                    file.getFileName(), hungarian, lapjv, hyperbolicHungarian, hyperbolicLapjv);
+            passed &= hungarian == lapjv;
+            passed &= Math.abs(hyperbolicHungarian - hyperbolicLapjv) < 1e-9 * Math.max(1.0, hyperbolicHungarian);
+        }
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест аукционного алгоритма с ε-масштабированием.
+     * 
+     * Стоимости классической медианы Кемени целочисленны, поэтому при допуске 0.5
+     * аукцион обязан найти точный оптимум: d* совпадает с венгерским алгоритмом,
+     * а сообщённый разрыв не превышает допуска.
+     */
+    private static void testAuctionBackend() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 6: Аукционный алгоритм (AuctionSolver)");
+        System.out.println("─".repeat(70));
+
+        List<Path> files = listDataFiles();
+        boolean passed = !files.isEmpty();
+        for (Path file : files) {
+            PreferenceProfile profile = loadProfile(file);
+            if (profile == null) {
+                passed = false;
+                continue;
+            }
+
+            double hungarian = new KemenyMedianSolver().solve(profile).totalDistance();
+            KemenyResult auction = new KemenyMedianSolver(new AuctionSolver(0.5)).solve(profile);
+
+            System.out.printf("  %-35s d* = %.0f / %.0f, разрыв = %.4f%n",
+                    file.getFileName(), hungarian, auction.totalDistance(), auction.optimalityGap());
+            passed &= hungarian == auction.totalDistance();
+            passed &= auction.optimalityGap() <= 0.5;
+        }
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест точной медианы Кемени — Янга (расстояние Кендалла).
+     * 
+     * РУЧНОЙ РАСЧЁТ:
+     * ─────────────────────────────────────────────────────────────────────
+     * Парные предпочтения n_{ij} (60 голосов):
+     *   A > B: 23 + 10 = 33,       B > A: 17 + 2 + 8 = 27
+     *   C > A: 17 + 10 + 8 = 35,   A > C: 23 + 2 = 25
+     *   B > C: 23 + 17 + 2 = 42,   C > B: 10 + 8 = 18
+     * 
+     * Число несогласий для всех 6 порядков:
+     *   A>B>C: 27 + 35 + 18 = 80     B>A>C: 33 + 18 + 35 = 86
+     *   A>C>B: 35 + 27 + 42 = 104    C>A>B: 25 + 42 + 27 = 94
+     *   B>C>A: 18 + 33 + 25 = 76     C>B>A: 42 + 25 + 33 = 100
+     * 
+     * Оптимум: B > C > A, расстояние Кендалла 76.
+     * ─────────────────────────────────────────────────────────────────────
+     */
+    private static void testKemenyYoungSolver(PreferenceProfile profile) {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 7: Медиана Кемени — Янга (KemenyYoungSolver)");
+        System.out.println("─".repeat(70));
+
+        KemenyYoungResult result = new KemenyYoungSolver().solve(profile);
+        Map<Alternative, Double> ranks = result.ranking().scores();
+        PairwiseMatrix pairwise = result.pairwiseMatrix();
+
+        System.out.println("  Ранжировка:");
+        result.ranking().sortedEntries().forEach(entry ->
+                System.out.printf("    %s : место %.0f%n", entry.getKey().name(), entry.getValue()));
+        System.out.printf("  Расстояние Кендалла = %.0f%n", result.totalDistance());
+
+        boolean passed = checkScore("B", ranks, 1.0)
+                && checkScore("C", ranks, 2.0)
+                && checkScore("A", ranks, 3.0);
+        passed &= result.totalDistance() == 76.0;
+        passed &= pairwise.preferring(0, 1) == 33 && pairwise.preferring(1, 0) == 27;
+        passed &= pairwise.margin(1, 2) == 24;
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест метода ветвей и границ для задачи Кемени — Янга.
+     * 
+     * Для каждого набора из data/ (m ≤ 25) ветви и границы — последовательно и на пуле
+     * из 4 потоков — должны давать то же расстояние Кендалла, что и точное ДП по подмножествам.
+     * Для сезонов Формулы-1 из PrefLib (m = 32, 36, 41) ДП по всему профилю недоступно; эталон —
+     * автоматический режим, где все блоки графа большинства не больше 25 и решаются ДП. Кроме того,
+     * расстояние не меньше нижней границы Σ min(n_ij, n_ji) по парам.
+     */
+    private static void testKemenyBranchAndBound() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 8: Ветви и границы для Кемени — Янга (KemenyYoungAlgorithm.BRANCH_AND_BOUND)");
+        System.out.println("─".repeat(70));
+
+        List<Path> files = listDataFiles();
+        boolean passed = !files.isEmpty();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Path file : files) {
+                PreferenceProfile profile = loadProfile(file);
+                if (profile == null) {
+                    passed = false;
+                    continue;
+                }
+
+                double dp = new KemenyYoungSolver(KemenyYoungAlgorithm.SUBSET_DP, null)
+                        .solve(profile).totalDistance();
+                double sequential = new KemenyYoungSolver(KemenyYoungAlgorithm.BRANCH_AND_BOUND, null)
+                        .solve(profile).totalDistance();
+                double parallel = new KemenyYoungSolver(KemenyYoungAlgorithm.BRANCH_AND_BOUND, pool)
+                        .solve(profile).totalDistance();
+
+                System.out.printf("  %-35s Кендалл = %.0f / %.0f / %.0f%n",
+                        file.getFileName(), dp, sequential, parallel);
+                passed &= dp == sequential && dp == parallel;
+            }
+
+            for (String name : List.of("00052-00000040.soc", "00052-00000030.soi", "00052-00000015.soi")) {
+                PreferenceProfile profile = new PrefLibReader()
+                        .read(Path.of("preflib/00052_f1seasons", name)).preferenceProfile();
+                KemenyYoungResult decomposed = new KemenyYoungSolver().solve(profile);
+                double sequential = new KemenyYoungSolver(KemenyYoungAlgorithm.BRANCH_AND_BOUND, null)
+                        .solve(profile).totalDistance();
+                double parallel = new KemenyYoungSolver(KemenyYoungAlgorithm.BRANCH_AND_BOUND, pool)
+                        .solve(profile).totalDistance();
+                PairwiseMatrix pairwise = decomposed.pairwiseMatrix();
+                long lowerBound = 0;
+                for (int i = 0; i < pairwise.size(); i++) {
+                    for (int j = i + 1; j < pairwise.size(); j++) {
+                        lowerBound += Math.min(pairwise.preferring(i, j), pairwise.preferring(j, i));
+                    }
+                }
+
+                System.out.printf("  %-35s m = %d, блок ≤ %d: Кендалл = %.0f / %.0f / %.0f (граница %d)%n",
+                        name, pairwise.size(), decomposed.largestComponent(),
+                        decomposed.totalDistance(), sequential, parallel, lowerBound);
+                passed &= pairwise.size() > 25 && decomposed.largestComponent() <= 25
+                        && decomposed.totalDistance() == sequential && decomposed.totalDistance() == parallel
+                        && sequential >= lowerBound;
+            }
+        } catch (IOException e) {
+            System.out.println("  ОШИБКА: " + e.getMessage());
+            passed = false;
+        } finally {
+            pool.shutdown();
+        }
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест декомпозиции по компонентам сильной связности графа большинства.
+     * 
+     * Автоматический режим решает блоки независимо и склеивает их. Проверяется, что:
+     *   - расстояние Кендалла совпадает с ДП по всему профилю;
+     *   - блоки покрывают все альтернативы;
+     *   - каждая альтернатива более раннего блока строго побеждает по большинству
+     *     каждую альтернативу более позднего.
+     */
+    private static void testMajorityDecomposition() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 9: Декомпозиция по компонентам графа большинства");
+        System.out.println("─".repeat(70));
+
+        List<Path> files = listDataFiles();
+        boolean passed = !files.isEmpty();
+        for (Path file : files) {
+            PreferenceProfile profile = loadProfile(file);
+            if (profile == null) {
+                passed = false;
+                continue;
+            }
+
+            double dp = new KemenyYoungSolver(KemenyYoungAlgorithm.SUBSET_DP).solve(profile).totalDistance();
+            KemenyYoungResult decomposed = new KemenyYoungSolver().solve(profile);
+            List<List<Alternative>> blocks = decomposed.components();
+            PairwiseMatrix pairwise = decomposed.pairwiseMatrix();
+            List<Alternative> alternatives = pairwise.alternatives();
+
+            boolean ordered = true;
+            for (int upper = 0; upper < blocks.size(); upper++) {
+                for (int lower = upper + 1; lower < blocks.size(); lower++) {
+                    for (Alternative winner : blocks.get(upper)) {
+                        for (Alternative loser : blocks.get(lower)) {
+                            ordered &= pairwise.margin(alternatives.indexOf(winner), alternatives.indexOf(loser)) > 0;
+                        }
+                    }
+                }
+            }
+            int covered = blocks.stream().mapToInt(List::size).sum();
+
+            System.out.printf("  %-35s Кендалл = %.0f / %.0f, блоков = %d, наибольший = %d%n",
+                    file.getFileName(), dp, decomposed.totalDistance(), blocks.size(), decomposed.largestComponent());
+            passed &= dp == decomposed.totalDistance();
+            passed &= ordered && covered == alternatives.size();
+        }
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест общего контекста предвычислений.
+     * 
+     * Методы, запущенные через один ProfileContext, должны:
+     *   - получать одни и те же экземпляры гистограммы, энтропий и матриц (вычисляются один раз);
+     *   - давать те же результаты, что и при запуске по профилю.
+     */
+    private static void testProfileContext(PreferenceProfile profile) {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 10: Общий контекст профиля (ProfileContext)");
+        System.out.println("─".repeat(70));
+
+        ProfileContext context = ProfileContext.fromProfile(profile);
+        AggregatedRanking rankSum = new RankSumAggregator().aggregate(context);
+        KemenyResult classic = new KemenyMedianSolver().solve(context);
+        PositionWeightedKemenyResult hyperbolic =
+                new PositionWeightedKemenySolver(PositionWeightFunction.hyperbolic()).solve(context);
+        AdaptiveKemenyResult adaptive = new AdaptiveKemenySolver(AdaptiveWeightMode.CONFLICT_FOCUS).solve(context);
+        KemenyYoungResult kendall = new KemenyYoungSolver().solve(context);
+
+        boolean shared = context.histogram() == context.histogram()
+                && classic.distanceMatrix() == context.distanceMatrix()
+                && adaptive.entropyAnalyzer() == context.entropyAnalyzer()
+                && PositionEntropyAnalyzer.analyze(context) == context.entropyAnalyzer()
+                && kendall.pairwiseMatrix() == context.pairwiseMatrix();
+        System.out.println("  Общие экземпляры предвычислений: " + (shared ? "да" : "нет"));
+
+        boolean same = rankSum.scores().equals(new RankSumAggregator().aggregate(profile).scores())
+                && classic.totalDistance() == new KemenyMedianSolver().solve(profile).totalDistance()
+                && hyperbolic.totalDistance() == new PositionWeightedKemenySolver(
+                        PositionWeightFunction.hyperbolic()).solve(profile).totalDistance()
+                && adaptive.totalWeightedDistance() == new AdaptiveKemenySolver(
+                        AdaptiveWeightMode.CONFLICT_FOCUS).solve(profile).totalWeightedDistance()
+                && kendall.totalDistance() == new KemenyYoungSolver().solve(profile).totalDistance();
+        System.out.println("  Результаты совпадают с расчётом по профилю: " + (same ? "да" : "нет"));
+
+        printTestResult(shared && same);
+    }
+
+    /**
+     * Тест перебора весовых функций с тёплым стартом.
+     * 
+     * Для каждого набора из data/ перебираются 20 функций (экспоненциальные с шагом 0.05
+     * и стандартные), то есть несколько блоков с тёплым стартом. Проверяется, что:
+     *   - значение целевой функции совпадает с отдельным решением PositionWeightedKemenySolver;
+     *   - результат на пуле из 4 потоков совпадает с последовательным.
+     */
+    private static void testPositionWeightSweep() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 11: Перебор весовых функций (PositionWeightSweep)");
+        System.out.println("─".repeat(70));
+
+        List<PositionWeightFunction> functions = new ArrayList<>();
+        for (int step = 0; step < 16; step++) {
+            functions.add(PositionWeightFunction.exponential(0.05 * step));
+        }
+        functions.add(PositionWeightFunction.hyperbolic());
+        functions.add(PositionWeightFunction.linear());
+        functions.add(PositionWeightFunction.logarithmic());
+        functions.add(PositionWeightFunction.topK(2));
+
+        List<Path> files = listDataFiles();
+        boolean passed = !files.isEmpty();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Path file : files) {
+                PreferenceProfile profile = loadProfile(file);
+                if (profile == null) {
+                    passed = false;
+                    continue;
+                }
+
+                ProfileContext context = ProfileContext.fromProfile(profile);
+                List<PositionWeightedKemenyResult> sequential = new PositionWeightSweep(null).run(context, functions);
+                List<PositionWeightedKemenyResult> parallel = new PositionWeightSweep(pool).run(context, functions);
+
+                double maxDifference = 0.0;
+                boolean deterministic = true;
+                for (int f = 0; f < functions.size(); f++) {
+                    double single = new PositionWeightedKemenySolver(functions.get(f)).solve(context).totalDistance();
+                    double swept = sequential.get(f).totalDistance();
+                    maxDifference = Math.max(maxDifference, Math.abs(single - swept) / Math.max(1.0, single));
+                    deterministic &= sequential.get(f).ranking().scores().equals(parallel.get(f).ranking().scores());
+                }
+
+                System.out.printf("  %-35s функций = %d, макс. отклонение = %.1e, детерминизм: %s%n",
+                        file.getFileName(), functions.size(), maxDifference, deterministic ? "да" : "нет");
+                passed &= maxDifference < 1e-9 && deterministic;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест реестра альтернатив (AlternativeUniverse).
+     * 
+     * Проверяется, что:
+     *   - имена, различающиеся регистром и пробелами, интернируются в один объект с плотным id;
+     *   - повторная регистрация имени отклоняется;
+     *   - профиль из JSON построен на общем реестре, а ранги по интернированной альтернативе
+     *     и по равной ей альтернативе вне реестра совпадают;
+     *   - профиль из альтернатив вне реестра даёт те же суммы рангов.
+     */
+    private static void testAlternativeUniverse(PreferenceProfile profile) {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 12: Реестр альтернатив (AlternativeUniverse)");
+        System.out.println("─".repeat(70));
+
+        AlternativeUniverse universe = new AlternativeUniverse();
+        Alternative first = universe.intern("Alpha");
+        Alternative second = universe.intern("beta");
+        boolean interned = universe.intern(" ALPHA ") == first
+                && first.id() == 0 && second.id() == 1 && universe.size() == 2
+                && universe.find("BETA") == second
+                && first.equals(new Alternative("alpha")) && new Alternative("alpha").equals(first)
+                && first.hashCode() == new Alternative("ALPHA").hashCode();
+        boolean duplicateRejected;
+        try {
+            universe.register("Beta");
+            duplicateRejected = false;
+        } catch (IllegalArgumentException e) {
+            duplicateRejected = true;
+        }
+        System.out.println("  Интернирование и плотные id: " + (interned ? "да" : "нет"));
+        System.out.println("  Повторная регистрация отклонена: " + (duplicateRejected ? "да" : "нет"));
+
+        boolean lookups = profile.universe() != null;
+        List<RankingEntry> detached = new ArrayList<>();
+        for (RankingEntry entry : profile.entries()) {
+            List<Alternative> order = new ArrayList<>(entry.ranking().alternatives());
+            order.sort((a, b) -> Integer.compare(entry.ranking().getRank(a), entry.ranking().getRank(b)));
+            List<Alternative> copies = order.stream().map(a -> new Alternative(a.name())).toList();
+            for (Alternative alternative : order) {
+                lookups &= entry.ranking().getRank(alternative)
+                        == entry.ranking().getRank(new Alternative(alternative.name().toLowerCase()));
+            }
+            detached.add(new RankingEntry(Ranking.fromOrder(copies), entry.voters()));
+        }
+        PreferenceProfile plain = new PreferenceProfile(detached);
+        boolean same = plain.universe() == null
+                && new RankSumAggregator().aggregate(plain).scores()
+                        .equals(new RankSumAggregator().aggregate(profile).scores());
+        System.out.println("  Поиск рангов по id и по имени совпадает: " + (lookups ? "да" : "нет"));
+        System.out.println("  Профиль вне реестра даёт те же суммы рангов: " + (same ? "да" : "нет"));
+
+        printTestResult(interned && duplicateRejected && lookups && same);
+    }
+
+    /**
+     * Тест билдера профиля (PreferenceProfile.Builder).
+     * 
+     * 3000 случайных бюллетеней по 40 альтернатив (несколько блоков таблицы, часть — с
+     * совпадающими рангами) добавляются через билдер и через конструктор профиля. Проверяется, что:
+     *   - таблицы рангов и восстановленные записи совпадают;
+     *   - бюллетени с повтором или чужой альтернативой отклоняются, не портя уже добавленные;
+     *   - после build() билдер закрыт.
+     */
+    private static void testProfileBuilder() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 13: Билдер профиля (PreferenceProfile.Builder)");
+        System.out.println("─".repeat(70));
+
+        int m = 40;
+        int ballots = 3000;
+        AlternativeUniverse universe = new AlternativeUniverse();
+        for (int i = 0; i < m; i++) {
+            universe.register("A" + i);
+        }
+        Alternative outsider = universe.register("Outsider");
+        Random random = new Random(13);
+        PreferenceProfile.Builder builder = PreferenceProfile.builder(universe);
+        List<RankingEntry> entries = new ArrayList<>();
+        int rejected = 0;
+        for (int b = 0; b < ballots; b++) {
+            List<Alternative> order = new ArrayList<>(universe.alternatives().subList(0, m));
+            Collections.shuffle(order, random);
+            int voters = 1 + random.nextInt(5);
+            Ranking ranking;
+            if (b % 7 == 3) {
+                // Ранжировка с совпадающими рангами: пары соседей делят место.
+                Map<Alternative, Integer> ranks = new LinkedHashMap<>();
+                for (int k = 0; k < m; k++) {
+                    ranks.put(order.get(k), k / 2 + 1);
+                }
+                ranking = new Ranking(ranks);
+                builder.add(ranking, voters);
+            } else {
+                ranking = Ranking.fromOrder(order);
+                builder.addOrder(order, voters);
+            }
+            entries.add(new RankingEntry(ranking, voters));
+
+            if (b % 500 == 1) {
+                List<Alternative> duplicate = new ArrayList<>(order);
+                duplicate.set(m - 1, duplicate.get(0));
+                List<Alternative> foreign = new ArrayList<>(order);
+                foreign.set(m - 1, outsider);
+                for (List<Alternative> invalid : List.of(duplicate, foreign)) {
+                    try {
+                        builder.addOrder(invalid, 1);
+                    } catch (IllegalArgumentException e) {
+                        rejected++;
+                    }
+                }
+            }
+        }
+        PreferenceProfile built = builder.build();
+        PreferenceProfile reference = new PreferenceProfile(entries);
+
+        RankTable a = built.rankTable();
+        RankTable b = reference.rankTable();
+        boolean sameTable = built.alternatives().equals(reference.alternatives())
+                && a.entryCount() == b.entryCount() && a.maxRank() == b.maxRank()
+                && a.totalVoters() == b.totalVoters();
+        boolean sameEntries = built.entries().size() == ballots;
+        for (int e = 0; e < ballots && sameTable; e++) {
+            sameTable = a.voters(e) == b.voters(e);
+            for (int i = 0; i < m; i++) {
+                sameTable &= a.rank(e, i) == b.rank(e, i) && a.alternativeAt(e, i + 1) == b.alternativeAt(e, i + 1);
+            }
+            sameEntries &= built.entries().get(e).ranking().asMap().equals(entries.get(e).ranking().asMap());
+        }
+        boolean closed;
+        try {
+            builder.addOrder(entries.get(0).ranking().alternatives().stream().toList(), 1);
+            closed = false;
+        } catch (IllegalStateException e) {
+            closed = true;
+        }
+
+        System.out.println("  Бюллетеней: " + ballots + ", отклонено некорректных: " + rejected);
+        System.out.println("  Таблица рангов совпадает с конструктором: " + (sameTable ? "да" : "нет"));
+        System.out.println("  Записи восстанавливаются без потерь: " + (sameEntries ? "да" : "нет"));
+        System.out.println("  Билдер закрыт после build(): " + (closed ? "да" : "нет"));
+
+        printTestResult(sameTable && sameEntries && closed && rejected == 12);
+    }
+
+    /**
+     * Тест слияния одинаковых бюллетеней (PreferenceProfile.Builder.deduplicate).
+     * 
+     * Бюллетени выбираются из небольшого пула ранжировок, поэтому многие повторяются.
+     * Варианты: m = 6 (ключ — код Лемера), m = 6 с совпадающими рангами и m = 30 (128-битный хеш).
+     * Проверяется, что:
+     *   - записей столько же, сколько различных ранжировок, голоса сохраняются;
+     *   - суммы рангов и расстояние медианы Кемени совпадают с профилем без слияния.
+     */
+    private static void testBallotDeduplication() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 14: Слияние одинаковых бюллетеней");
+        System.out.println("─".repeat(70));
+
+        boolean passed = true;
+        int[][] variants = {{6, 0}, {6, 1}, {30, 0}};
+        for (int[] variant : variants) {
+            int m = variant[0];
+            boolean ties = variant[1] == 1;
+            AlternativeUniverse universe = new AlternativeUniverse();
+            for (int i = 0; i < m; i++) {
+                universe.register("A" + i);
+            }
+            Random random = new Random(14 + m);
+            List<Ranking> pool = new ArrayList<>();
+            for (int p = 0; p < 40; p++) {
+                List<Alternative> order = new ArrayList<>(universe.alternatives());
+                Collections.shuffle(order, random);
+                Map<Alternative, Integer> ranks = new LinkedHashMap<>();
+                for (int k = 0; k < m; k++) {
+                    ranks.put(order.get(k), ties ? k / 2 + 1 : k + 1);
+                }
+                pool.add(new Ranking(ranks));
+            }
+
+            PreferenceProfile.Builder merged = PreferenceProfile.builder(universe).deduplicate();
+            PreferenceProfile.Builder plain = PreferenceProfile.builder(universe);
+            Set<Map<Alternative, Integer>> distinct = new HashSet<>();
+            for (int b = 0; b < 2000; b++) {
+                Ranking ranking = pool.get(random.nextInt(pool.size()));
+                int voters = 1 + random.nextInt(3);
+                merged.add(ranking, voters);
+                plain.add(ranking, voters);
+                distinct.add(ranking.asMap());
+            }
+            PreferenceProfile compact = merged.build();
+            PreferenceProfile full = plain.build();
+            DeduplicationReport report = merged.report();
+
+            boolean sameCounts = report.ballots() == 2000
+                    && report.distinctRankings() == distinct.size()
+                    && compact.entries().size() == distinct.size()
+                    && compact.totalVoters() == full.totalVoters();
+            boolean sameResults = new RankSumAggregator().aggregate(compact).scores()
+                    .equals(new RankSumAggregator().aggregate(full).scores())
+                    && new KemenyMedianSolver().solve(compact).totalDistance()
+                    == new KemenyMedianSolver().solve(full).totalDistance();
+            System.out.printf("  m = %2d%s: %s, результаты совпадают: %s%n", m, ties ? " (ничьи)" : "",
+                    report, sameCounts && sameResults ? "да" : "нет");
+            passed &= sameCounts && sameResults;
+        }
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест потокового чтения JSON.
+     * 
+     * Пример 21.1 записан иначе: ранжировки идут раньше списка альтернатив, есть лишний
+     * вложенный раздел и escape-последовательности в именах. Проверяется, что:
+     *   - суммы рангов совпадают с загрузкой data/profile_example.json;
+     *   - синтаксическая ошибка сообщается с позицией.
+     */
+    private static void testStreamingReader(PreferenceProfile reference) {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 15: Потоковое чтение JSON");
+        System.out.println("─".repeat(70));
+
+        String json = """
+                {
+                  "rankings": [
+                    {"voters": 23, "order": ["A", "B", "C"]},
+                    {"order": ["\\u0042", "C", "A"], "voters": 17, "note": {"x": [1, 2.5e1, true, null]}},
+                    {"order": ["B", "A", "C"], "voters": 2},
+                    {"order": ["C", "A", "B"], "voters": 10},
+                    {"order": ["C", "B", "A"], "voters": 8}
+                  ],
+                  "notes": {"text": "\\"quoted\\" \\n", "list": [[], {}, [{"a": false}]]},
+                  "alternatives": ["A", "B", "C"]
+                }
+                """;
+        boolean same;
+        try {
+            PreferenceProfile streamed = new JsonProfileReader().read(new StringReader(json)).preferenceProfile();
+            same = new RankSumAggregator().aggregate(streamed).scores()
+                    .equals(new RankSumAggregator().aggregate(reference).scores());
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("  ОШИБКА: " + e.getMessage());
+            same = false;
+        }
+        System.out.println("  Суммы рангов совпадают с загрузкой файла: " + (same ? "да" : "нет"));
+
+        String message;
+        try {
+            new JsonProfileReader().read(new StringReader("{\"alternatives\": [\"A\" \"B\"]}"));
+            message = "";
+        } catch (IOException | IllegalArgumentException e) {
+            message = e.getMessage();
+        }
+        boolean positioned = message.contains("position 22");
+        System.out.println("  Сообщение об ошибке: " + message);
+
+        printTestResult(same && positioned);
+    }
+
+    /**
+     * Тест однопроходной загрузки разделов и выбора разделов.
+     * 
+     * Пример 21.1 записан так, что веса стоят раньше порядка, а полезности — раньше списка
+     * альтернатив (часть строк разрешается в конце). Проверяется, что:
+     *   - взвешенная сумма мест и правило Харшаньи дают те же оценки, что по файлу;
+     *   - при загрузке без необязательных разделов они не читаются, а ранжировки сливаются.
+     */
+    private static void testSectionSelection(ProfileDataset reference) {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 16: Однопроходная загрузка и выбор разделов");
+        System.out.println("─".repeat(70));
+
+        String json = """
+                {
+                  "utilityProfiles": [
+                    {"utilities": {"A": 0.90, "B": 0.70, "C": 0.40}, "weight": 0.5},
+                    {"weight": 0.3, "utilities": {"C": 0.60, "B": 0.80, "A": 0.40}},
+                    {"weight": 0.2, "utilities": {"A": 0.60, "B": 0.50, "C": 0.90, "D": 1.0}}
+                  ],
+                  "alternatives": ["A", "B", "C"],
+                  "rankings": [
+                    {"weights": {"A": 2, "B": 4, "C": 5}, "order": ["A", "B", "C"], "voters": 23},
+                    {"weights": {"A": 6, "B": 1, "C": 3}, "order": ["B", "C", "A"], "voters": 17},
+                    {"order": ["B", "A", "C"], "voters": 2, "weights": {"C": 7, "A": 4, "B": 2}},
+                    {"order": ["C", "A", "B"], "weights": {"A": 2, "B": 3, "C": 1}, "voters": 10},
+                    {"order": ["C", "B", "A"], "voters": 8, "weights": {"A": 7, "B": 5, "C": 3}},
+                    {"order": ["C", "B", "A"], "voters": 1, "weights": {"A": 1, "B": 1, "C": 1}}
+                  ]
+                }
+                """;
+        boolean same;
+        boolean skipped;
+        try {
+            ProfileDataset full = new JsonProfileReader().read(new StringReader(json));
+            ProfileDataset minimal = new JsonProfileReader(EnumSet.noneOf(ProfileSection.class))
+                    .read(new StringReader(json));
+            // Лишняя шестая ранжировка добавляет по одному голосу с весом 1 каждой альтернативе.
+            Map<Alternative, Double> weighted = new WeightedRankSumAggregator()
+                    .aggregate(full.preferenceProfile(), full.weightMatrix().orElseThrow()).scores();
+            Map<Alternative, Double> expected = new WeightedRankSumAggregator().aggregate(
+                    reference.preferenceProfile(), reference.weightMatrix().orElseThrow()).scores();
+            same = full.preferenceProfile().entries().size() == 6;
+            for (Alternative alternative : expected.keySet()) {
+                same &= Math.abs(weighted.get(alternative) - expected.get(alternative) - 1.0) < 1e-9;
+            }
+            same &= new UtilityAggregator().aggregate(full.utilityProfile().orElseThrow()).scores()
+                    .equals(new UtilityAggregator().aggregate(reference.utilityProfile().orElseThrow()).scores());
+            skipped = minimal.weightMatrix().isEmpty() && minimal.utilityProfile().isEmpty()
+                    && minimal.preferenceProfile().entries().size() == 5
+                    && minimal.preferenceProfile().totalVoters() == 61;
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("  ОШИБКА: " + e.getMessage());
+            same = false;
+            skipped = false;
+        }
+        System.out.println("  Веса и полезности совпадают с загрузкой файла: " + (same ? "да" : "нет"));
+        System.out.println("  Невыбранные разделы пропущены, ранжировки слиты: " + (skipped ? "да" : "нет"));
+
+        printTestResult(same && skipped);
+    }
+
+    /**
+     * Тест бинарного формата профиля: запись и чтение через отображение в память.
+     *
+     * Набор profile_example сохраняется в .agpf и читается обратно: ранги, голоса, веса
+     * и полезности должны дать те же результаты агрегаторов. Профиль на 200 альтернатив
+     * проверяет хранение рангов шириной short; обрезанный файл должен отвергаться.
+     */
+    private static void testBinaryProfile(ProfileDataset reference) {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 17: Бинарный профиль с отображением в память");
+        System.out.println("─".repeat(70));
+
+        boolean same;
+        boolean wide;
+        boolean rejected;
+        Path file = null;
+        Path wideFile = null;
+        try {
+            file = Files.createTempFile("profile", ".agpf");
+            new BinaryProfileWriter().write(reference, file);
+            ProfileDataset loaded = new BinaryProfileReader().read(file);
+            PreferenceProfile profile = loaded.preferenceProfile();
+            same = BinaryProfileReader.isBinaryProfile(file)
+                    && !BinaryProfileReader.isBinaryProfile(Path.of("data", "profile_example.json"))
+                    && profile.entries().size() == reference.preferenceProfile().entries().size()
+                    && profile.totalVoters() == reference.preferenceProfile().totalVoters()
+                    && loaded.title().equals(reference.title());
+            for (int e = 0; e < profile.entries().size(); e++) {
+                RankingEntry expectedEntry = reference.preferenceProfile().entries().get(e);
+                RankingEntry loadedEntry = profile.entries().get(e);
+                same &= loadedEntry.voters() == expectedEntry.voters();
+                for (Alternative alternative : reference.preferenceProfile().alternatives()) {
+                    same &= loadedEntry.ranking().getRank(alternative) == expectedEntry.ranking().getRank(alternative);
+                }
+            }
+            same &= new RankSumAggregator().aggregate(profile).scores()
+                    .equals(new RankSumAggregator().aggregate(reference.preferenceProfile()).scores());
+            same &= new WeightedRankSumAggregator().aggregate(profile, loaded.weightMatrix().orElseThrow()).scores()
+                    .equals(new WeightedRankSumAggregator().aggregate(reference.preferenceProfile(),
+                            reference.weightMatrix().orElseThrow()).scores());
+            same &= new UtilityAggregator().aggregate(loaded.utilityProfile().orElseThrow()).scores()
+                    .equals(new UtilityAggregator().aggregate(reference.utilityProfile().orElseThrow()).scores());
+            same &= new KemenyMedianSolver().solve(profile).totalDistance()
+                    == new KemenyMedianSolver().solve(reference.preferenceProfile()).totalDistance();
+
+            // 200 альтернатив не помещаются в байт — ранги хранятся как short.
+            int m = 200;
+            AlternativeUniverse universe = new AlternativeUniverse();
+            for (int i = 0; i < m; i++) {
+                universe.register("X" + i);
+            }
+            PreferenceProfile.Builder builder = PreferenceProfile.builder(universe);
+            Random random = new Random(16);
+            int[] ids = new int[m];
+            for (int i = 0; i < m; i++) {
+                ids[i] = i;
+            }
+            for (int e = 0; e < 50; e++) {
+                for (int i = m - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int tmp = ids[i];
+                    ids[i] = ids[j];
+                    ids[j] = tmp;
+                }
+                builder.addOrder(ids, 1 + random.nextInt(5));
+            }
+            PreferenceProfile original = builder.build();
+            wideFile = Files.createTempFile("wide", ".agpf");
+            new BinaryProfileWriter().write(new ProfileDataset(original, null, null, null, null), wideFile);
+            RankTable expected = original.rankTable();
+            RankTable actual = new BinaryProfileReader().read(wideFile).preferenceProfile().rankTable();
+            wide = actual.entryCount() == expected.entryCount() && actual.totalVoters() == expected.totalVoters();
+            int[] row = new int[m];
+            for (int e = 0; wide && e < expected.entryCount(); e++) {
+                actual.copyRanks(e, row);
+                wide = actual.voters(e) == expected.voters(e);
+                for (int i = 0; i < m; i++) {
+                    wide &= row[i] == expected.rank(e, i) && actual.alternativeAt(e, i + 1) == expected.alternativeAt(e, i + 1);
+                }
+            }
+            System.out.println("  Размер файла: " + Files.size(wideFile) + " байт на " + expected.entryCount()
+                    + " ранжировок по " + m + " альтернатив");
+
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+            try {
+                new BinaryProfileReader().read(file);
+                rejected = false;
+            } catch (IllegalArgumentException e) {
+                rejected = e.getMessage().startsWith("Truncated binary profile");
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("  ОШИБКА: " + e.getMessage());
+            same = false;
+            wide = false;
+            rejected = false;
+        } finally {
+            deleteQuietly(file);
+            deleteQuietly(wideFile);
+        }
+        System.out.println("  Результаты агрегаторов совпадают с JSON: " + (same ? "да" : "нет"));
+        System.out.println("  Ранги шириной short прочитаны без искажений: " + (wide ? "да" : "нет"));
+        System.out.println("  Обрезанный файл отвергнут: " + (rejected ? "да" : "нет"));
+
+        printTestResult(same && wide && rejected);
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Отображённый файл на некоторых ОС удаляется только после сборки мусора.
+        }
+    }
+
+    /**
+     * Тест прямого чтения PrefLib (SOC/SOI/TOC/TOI).
+     *
+     * SOC-файл 00006-00000021 должен дать тот же профиль, что и его JSON-конвертация
+     * data/skate_conflict.json. Для строки TOI "2: 3,{1,4}" при m = 5: C — 1, A и D — 2,
+     * B и E не упомянуты и делят место 4.
+     */
+    private static void testPrefLibReader() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 18: Чтение файлов PrefLib без конвертации");
+        System.out.println("─".repeat(70));
+
+        boolean same;
+        boolean ties;
+        boolean directory;
+        try {
+            PrefLibReader reader = new PrefLibReader();
+            ProfileDataset direct = reader.read(Path.of("preflib", "00006_skate", "00006-00000021.soc"));
+            ProfileDataset converted = new JsonProfileReader().read(Path.of("data", "skate_conflict.json"));
+            PreferenceProfile expected = converted.preferenceProfile();
+            PreferenceProfile actual = direct.preferenceProfile();
+            same = direct.title().equals(converted.title()) && direct.source().equals(converted.source())
+                    && actual.entries().size() == expected.entries().size()
+                    && actual.totalVoters() == expected.totalVoters();
+            for (int e = 0; same && e < expected.entries().size(); e++) {
+                same = actual.entries().get(e).voters() == expected.entries().get(e).voters();
+                for (int i = 0; i < expected.alternatives().size(); i++) {
+                    same &= actual.alternatives().get(i).name().equals(expected.alternatives().get(i).name())
+                            && actual.rankTable().rank(e, i) == expected.rankTable().rank(e, i);
+                }
+            }
+
+            String toi = """
+                    # TITLE: Ties
+                    # DATA TYPE: toi
+                    # NUMBER ALTERNATIVES: 5
+                    # ALTERNATIVE NAME 1: A
+                    # ALTERNATIVE NAME 2: B
+                    # ALTERNATIVE NAME 3: C
+                    # ALTERNATIVE NAME 4: D
+                    # ALTERNATIVE NAME 5: E
+                    2: 3,{1,4}
+                    1: 1,2,3,4,5
+                    1: 3, {4,1}
+                    """;
+            ProfileDataset tied = reader.read(new StringReader(toi), "ties.toi");
+            Ranking first = tied.preferenceProfile().entries().get(0).ranking();
+            Map<String, Integer> ranks = new LinkedHashMap<>();
+            first.asMap().forEach((alternative, rank) -> ranks.put(alternative.name(), rank));
+            ties = ranks.equals(Map.of("C", 1, "A", 2, "D", 2, "B", 4, "E", 4))
+                    && tied.preferenceProfile().entries().size() == 2
+                    && tied.preferenceProfile().entries().get(0).voters() == 3
+                    && new PrefLibReader(true, ForkJoinPool.commonPool()).read(new StringReader(toi), "ties.toi")
+                            .preferenceProfile().entries().size() == 1;
+            try {
+                reader.read(new StringReader("# NUMBER ALTERNATIVES: 2\n1: 1,{2\n"), "bad.toc");
+                ties = false;
+            } catch (IllegalArgumentException e) {
+                ties &= e.getMessage().equals("Unterminated tie group at line 2");
+            }
+
+            Map<Path, ProfileDataset> all = reader.readDirectory(Path.of("preflib", "00006_skate"));
+            directory = all.size() == 48
+                    && all.get(Path.of("preflib", "00006_skate", "00006-00000021.soc"))
+                            .preferenceProfile().totalVoters() == expected.totalVoters();
+            System.out.println("  Файлов в каталоге 00006_skate: " + all.size());
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("  ОШИБКА: " + e.getMessage());
+            same = false;
+            ties = false;
+            directory = false;
+        }
+        System.out.println("  SOC совпадает с JSON-конвертацией: " + (same ? "да" : "нет"));
+        System.out.println("  Группы равноценных и неполные ранжировки: " + (ties ? "да" : "нет"));
+        System.out.println("  Каталог прочитан параллельно: " + (directory ? "да" : "нет"));
+
+        printTestResult(same && ties && directory);
+    }
+
+    /**
+     * Тест пакетного прогона: два файла (PrefLib и JSON) обрабатываются параллельно,
+     * на каждый приходится строка загрузки и по строке на метод. Медиана Кемени учебного
+     * примера должна совпасть с одиночным запуском (d* = 144). С нулевым бюджетом
+     * ни один метод не должен выполниться. Профиль без согласия на 60 альтернатив Кемени — Янг
+     * не решает за бюджет 2 с: строка получает timeout, поток файла останавливается, а следующий
+     * файл в том же единственном потоке решается полностью.
+     */
+    private static void testBatchRunner() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 19: Пакетный прогон корпуса");
+        System.out.println("─".repeat(70));
+
+        boolean table;
+        boolean budget;
+        boolean timeout;
+        Path hard = null;
+        try {
+            List<Path> files = BatchRunner.expand(List.of("preflib/00012_shirt", "data/profile_*.json"));
+            StringWriter ndjson = new StringWriter();
+            new BatchRunner(2, Duration.ofSeconds(30)).run(files, BatchRunner.Format.NDJSON, ndjson);
+            List<String> lines = ndjson.toString().lines().collect(Collectors.toList());
+            int perFile = lines.size() / files.size();
+            System.out.println("  Файлов: " + files.size() + ", строк: " + lines.size() + " (по " + perFile + " на файл)");
+            table = files.size() == 2 && lines.size() == 22
+                    && lines.stream().allMatch(line -> line.endsWith("\"status\":\"ok\"}"))
+                    && lines.stream().anyMatch(line -> line.contains("profile_example.json\",\"method\":\"kemeny\"")
+                            && line.contains("\"objective\":144,"));
+
+            StringWriter csv = new StringWriter();
+            new BatchRunner(1, Duration.ZERO).run(files, BatchRunner.Format.CSV, csv);
+            List<String> rows = csv.toString().lines().collect(Collectors.toList());
+            budget = rows.get(0).equals("file,method,alternatives,rankings,voters,winner,objective,millis,status")
+                    && rows.size() == 23
+                    && rows.stream().skip(1).filter(row -> !row.contains(",load,"))
+                            .allMatch(row -> row.endsWith(",skipped") || row.endsWith(",timeout"));
+
+            hard = Files.createTempFile("batch-hard", ".agpf");
+            PreferenceProfile noConsensus = ProfileGenerator.builder(60).consensus(0.0).seed(18).build().generate(200);
+            new BinaryProfileWriter().write(new ProfileDataset(noConsensus, null, null, null, null), hard);
+            StringWriter forced = new StringWriter();
+            long start = System.nanoTime();
+            new BatchRunner(1, Duration.ofSeconds(2))
+                    .run(List.of(hard, Path.of("data/profile_example.json")), BatchRunner.Format.CSV, forced);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            List<String> forcedRows = forced.toString().lines().collect(Collectors.toList());
+            String hardThread = "batch-runner " + hard.getFileName();
+            boolean stopped = false;
+            for (int attempt = 0; attempt < 100 && !stopped; attempt++) {
+                stopped = Thread.getAllStackTraces().keySet().stream()
+                        .noneMatch(thread -> thread.getName().equals(hardThread));
+                if (!stopped) {
+                    Thread.sleep(20);
+                }
+            }
+            System.out.printf("  Файл без согласия: %.1f с, поток файла %s%n", seconds,
+                    stopped ? "остановлен" : "РАБОТАЕТ");
+            timeout = forcedRows.size() == 23
+                    && forcedRows.stream().anyMatch(row -> row.contains(",kemeny-young,") && row.endsWith(",timeout"))
+                    && forcedRows.stream().filter(row -> row.contains("profile_example.json"))
+                            .allMatch(row -> row.endsWith(",ok"))
+                    && seconds < 10 && stopped;
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("  ОШИБКА: " + e.getMessage());
+            table = false;
+            budget = false;
+            timeout = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            table = false;
+            budget = false;
+            timeout = false;
+        } finally {
+            deleteQuietly(hard);
+        }
+        System.out.println("  Таблица NDJSON полна, результаты совпадают: " + (table ? "да" : "нет"));
+        System.out.println("  Исчерпанный бюджет останавливает методы: " + (budget ? "да" : "нет"));
+        System.out.println("  Метод сверх бюджета прерван, следующий файл решён: " + (timeout ? "да" : "нет"));
+
+        printTestResult(table && budget && timeout);
+    }
+
+    /**
+     * Тест генератора профилей (модель Маллоуза с кластерами).
+     *
+     * Проверяется, что:
+     *   - один seed даёт одинаковые профили;
+     *   - при consensus = 1 бюллетени совпадают с центрами, второй центр обратен первому,
+     *     кластеры делятся как в ranking_generator.py (balance 0.3: 300 и 700 из 1000);
+     *   - при consensus = 0 все 24 перестановки 4 альтернатив равновероятны (±5%);
+     *   - согласие на верху удерживает лидера центра чаще, чем согласие внизу, и наоборот;
+     *   - билдер над чужим реестром отклоняется.
+     */
+    private static void testProfileGenerator() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 20: Генератор профилей Маллоуза");
+        System.out.println("─".repeat(70));
+
+        RankTable first = ProfileGenerator.builder(8).consensus(0.4).seed(20).build().generate(5000).rankTable();
+        RankTable second = ProfileGenerator.builder(8).consensus(0.4).seed(20).build().generate(5000).rankTable();
+        boolean deterministic = first.entryCount() == second.entryCount();
+        for (int e = 0; e < first.entryCount() && deterministic; e++) {
+            deterministic = first.voters(e) == second.voters(e);
+            for (int i = 0; i < 8; i++) {
+                deterministic &= first.rank(e, i) == second.rank(e, i);
+            }
+        }
+
+        ProfileGenerator polarized = ProfileGenerator.builder(6).consensus(1.0).clusters(2, 0.3).seed(5).build();
+        PreferenceProfile split = polarized.generate(1000);
+        RankTable clusters = split.rankTable();
+        int[] center = polarized.clusterCenters().get(0);
+        int[] reversed = polarized.clusterCenters().get(1);
+        boolean centers = clusters.entryCount() == 2 && clusters.voters(0) == 300 && clusters.voters(1) == 700;
+        for (int k = 0; k < 6 && centers; k++) {
+            centers = reversed[k] == center[5 - k]
+                    && split.alternatives().get(clusters.alternativeAt(0, k + 1)).id() == center[k]
+                    && split.alternatives().get(clusters.alternativeAt(1, k + 1)).id() == reversed[k];
+        }
+
+        PreferenceProfile chaos = ProfileGenerator.builder(4).consensus(0.0).seed(3).build().generate(240_000);
+        boolean uniform = chaos.rankTable().entryCount() == 24;
+        for (int e = 0; e < chaos.rankTable().entryCount(); e++) {
+            uniform &= Math.abs(chaos.rankTable().voters(e) - 10_000) < 500;
+        }
+
+        double[] topShare = new double[2];
+        double[] bottomShare = new double[2];
+        ProfileGenerator.ConsensusPosition[] positions = {
+                ProfileGenerator.ConsensusPosition.TOP, ProfileGenerator.ConsensusPosition.BOTTOM};
+        for (int p = 0; p < 2; p++) {
+            ProfileGenerator generator = ProfileGenerator.builder(10).consensus(0.6)
+                    .position(positions[p]).seed(11).build();
+            int[] base = generator.clusterCenters().get(0);
+            PreferenceProfile.Builder builder = PreferenceProfile.builder(generator.universe());
+            generator.generate(20_000, builder);
+            PreferenceProfile profile = builder.build();
+            List<Alternative> columns = profile.alternatives();
+            RankTable table = profile.rankTable();
+            for (int e = 0; e < table.entryCount(); e++) {
+                if (columns.get(table.alternativeAt(e, 1)).id() == base[0]) {
+                    topShare[p] += 1.0 / table.entryCount();
+                }
+                if (columns.get(table.alternativeAt(e, 10)).id() == base[9]) {
+                    bottomShare[p] += 1.0 / table.entryCount();
+                }
+            }
+        }
+        boolean focused = topShare[0] > topShare[1] + 0.2 && bottomShare[1] > bottomShare[0] + 0.2;
+
+        boolean foreign;
+        try {
+            ProfileGenerator generator = ProfileGenerator.builder(3).seed(1).build();
+            generator.generate(10, PreferenceProfile.builder(new AlternativeUniverse()));
+            foreign = false;
+        } catch (IllegalArgumentException e) {
+            foreign = true;
+        }
+
+        System.out.printf("  Лидер центра на 1-м месте: top %.2f, bottom %.2f%n", topShare[0], topShare[1]);
+        System.out.printf("  Последний центра на последнем месте: top %.2f, bottom %.2f%n", bottomShare[0], bottomShare[1]);
+        System.out.println("  Один seed — один профиль: " + (deterministic ? "да" : "нет"));
+        System.out.println("  Кластеры при полном согласии совпадают с центрами: " + (centers ? "да" : "нет"));
+        System.out.println("  Без согласия перестановки равновероятны: " + (uniform ? "да" : "нет"));
+        System.out.println("  Чужой реестр отклонён: " + (foreign ? "да" : "нет"));
+
+        printTestResult(deterministic && centers && uniform && focused && foreign);
+    }
+
+    /**
+     * Тест параллельного построения матриц: гистограмма позиций, парная матрица и матрица d_{ik}
+     * в пулах из 1, 2 и 4 потоков должны совпасть с последовательным построением бит в бит.
+     * Профили подобраны так, чтобы сработало и деление на куски записей (m = 8, 200 000 бюллетеней),
+     * и деление на блоки строк (m = 300).
+     */
+    private static void testParallelMatrices() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 21: Параллельное построение матриц");
+        System.out.println("─".repeat(70));
+
+        boolean identical = true;
+        int[][] sizes = {{8, 200_000}, {300, 4_000}};
+        for (int[] size : sizes) {
+            ProfileGenerator generator = ProfileGenerator.builder(size[0]).consensus(0.3).seed(21).build();
+            PreferenceProfile.Builder builder = PreferenceProfile.builder(generator.universe());
+            generator.generate(size[1], builder);
+            PreferenceProfile profile = builder.build();
+            int m = size[0];
+
+            PositionHistogram histogram = PositionHistogram.fromTable(profile.rankTable(), null);
+            PairwiseMatrix pairwise = PairwiseMatrix.fromTable(profile.alternatives(), profile.rankTable(), null);
+            double[][] distances = DistanceMatrix.fromProfile(profile, null).asArray();
+            for (int threads : new int[]{1, 2, 4}) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    PositionHistogram parallelHistogram = PositionHistogram.fromTable(profile.rankTable(), pool);
+                    PairwiseMatrix parallelPairwise = PairwiseMatrix.fromTable(profile.alternatives(), profile.rankTable(), pool);
+                    boolean same = Arrays.deepEquals(distances, DistanceMatrix.fromProfile(profile, pool).asArray());
+                    for (int i = 0; i < m && same; i++) {
+                        for (int k = 0; k < m; k++) {
+                            same &= histogram.count(i, k + 1) == parallelHistogram.count(i, k + 1)
+                                    && pairwise.preferring(i, k) == parallelPairwise.preferring(i, k);
+                        }
+                    }
+                    System.out.println("  m = " + m + ", n = " + size[1] + ", потоков " + threads
+                            + ": " + (same ? "совпадает" : "РАСХОДИТСЯ"));
+                    identical &= same;
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+
+        printTestResult(identical);
+    }
+
+    /**
+     * Тест целочисленного режима венгерского алгоритма.
+     * На 300 случайных задачах n ≤ 7 со стоимостями 0..3 (много равных оптимумов) режим long
+     * находит оптимум перебора и выбирает те же столбцы, что и double. Целые веса (равномерные,
+     * top-4, линейные) и медиана Кемени (m = 12) дают то же d*, что и решение в double.
+     * Стоимости 2^53 при n = 2 превышают границу 2^53 и отклоняются; вес 2^31 на 100 000
+     * бюллетеней переводит взвешенную задачу в double, а медиана и top-K по 10^6 записям
+     * с 2^31 − 1 голосами (m = 3) решаются в double всеми решателями.
+     */
+    private static void testIntegerAssignment() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 22: Целочисленный режим венгерского алгоритма");
+        System.out.println("─".repeat(70));
+
+        // Маленькие стоимости 0..3 дают много равных назначений — худший случай для double.
+        Random random = new Random(22);
+        HungarianSolver solver = new HungarianSolver();
+        boolean optimal = true;
+        boolean sameChoice = true;
+        for (int trial = 0; trial < 300; trial++) {
+            int n = 1 + random.nextInt(7);
+            long[] cost = new long[n * n];
+            double[] doubles = new double[n * n];
+            for (int cell = 0; cell < cost.length; cell++) {
+                cost[cell] = random.nextInt(4);
+                doubles[cell] = cost[cell];
+            }
+            int[] exact = new int[n];
+            int[] approximate = new int[n];
+            solver.solve(cost, n, exact);
+            new HungarianSolver().solve(doubles, n, approximate);
+            long exactCost = 0;
+            for (int i = 0; i < n; i++) {
+                exactCost += cost[i * n + exact[i]];
+            }
+            optimal &= exactCost == bruteForceAssignment(cost, n, new int[n], new boolean[n], 0);
+            sameChoice &= Arrays.equals(exact, approximate);
+        }
+        System.out.println("  300 случайных задач: оптимум " + (optimal ? "найден" : "НЕ НАЙДЕН")
+                + ", назначения double и long " + (sameChoice ? "совпадают" : "РАЗЛИЧАЮТСЯ"));
+
+        // Равномерные и top-K веса целые: решатели выбирают целочисленный путь, результат не меняется.
+        ProfileGenerator generator = ProfileGenerator.builder(12).consensus(0.4).seed(22).build();
+        PreferenceProfile profile = generator.generate(500);
+        ProfileContext context = ProfileContext.fromProfile(profile);
+        boolean sameResult = true;
+        for (PositionWeightFunction function : List.of(PositionWeightFunction.uniform(),
+                PositionWeightFunction.topK(4), PositionWeightFunction.linear())) {
+            PositionWeightedKemenyResult result =
+                    new PositionWeightedKemenySolver(function, new HungarianSolver()).solve(context);
+            int[] reference = HungarianSolver.solve(result.distanceMatrix().asArray());
+            double referenceCost = 0.0;
+            for (int i = 0; i < reference.length; i++) {
+                referenceCost += result.distanceMatrix().value(i, reference[i]);
+            }
+            boolean same = referenceCost == result.totalDistance();
+            System.out.printf("  %s: %.1f (double: %.1f) %s%n", result.weightFunctionName(),
+                    result.totalDistance(), referenceCost, same ? "✓" : "✗");
+            sameResult &= same;
+        }
+        KemenyResult median = new KemenyMedianSolver().solve(context);
+        int[] reference = HungarianSolver.solve(context.distanceMatrix().asArray());
+        double referenceCost = 0.0;
+        for (int i = 0; i < reference.length; i++) {
+            referenceCost += context.distanceMatrix().value(i, reference[i]);
+        }
+        sameResult &= referenceCost == median.totalDistance();
+        System.out.printf("  медиана Кемени: %.1f (double: %.1f)%n", median.totalDistance(), referenceCost);
+
+        // Выше max|c| · n = 2^53 арифметика long неточна: решатель отказывается, а целые веса
+        // с такими произведениями решаются в double.
+        boolean bounded = false;
+        try {
+            solver.solve(new long[]{1L << 53, 0, 0, 1L << 53}, 2, new int[2]);
+        } catch (IllegalArgumentException e) {
+            bounded = true;
+        }
+        PreferenceProfile large = generator.generate(100_000);
+        PositionWeightFunction heavyTop = (k, m) -> k == 1 ? 1L << 31 : 1.0;
+        PositionWeightedKemenyResult heavy =
+                new PositionWeightedKemenySolver(heavyTop, new HungarianSolver()).solve(ProfileContext.fromProfile(large));
+        int[] heavyReference = HungarianSolver.solve(heavy.distanceMatrix().asArray());
+        double heavyCost = 0.0;
+        for (int i = 0; i < heavyReference.length; i++) {
+            heavyCost += heavy.distanceMatrix().value(i, heavyReference[i]);
+        }
+        System.out.printf("  стоимости выше 2^53: long %s, вес 2^31 решён в double: %.1f (%.1f)%n",
+                bounded ? "отклонён" : "ПРИНЯТ", heavy.totalDistance(), heavyCost);
+        sameResult &= bounded && heavy.totalDistance() == heavyCost;
+
+        // Медиана и top-K на матрице за границей 2^53 решаются в double, а не отклоняются.
+        AlternativeUniverse universe = new AlternativeUniverse();
+        for (int i = 0; i < 3; i++) {
+            universe.register("H" + i);
+        }
+        PreferenceProfile.Builder builder = PreferenceProfile.builder(universe);
+        for (int e = 0; e < 1_000_000; e++) {
+            builder.addOrder(e % 3 == 0 ? new int[]{2, 0, 1} : new int[]{0, 1, 2}, Integer.MAX_VALUE);
+        }
+        ProfileContext huge = ProfileContext.fromProfile(builder.build());
+        DistanceMatrix hugeMatrix = huge.distanceMatrix();
+        long[] hugeCost = new long[9];
+        for (int cell = 0; cell < hugeCost.length; cell++) {
+            hugeCost[cell] = hugeMatrix.exactValue(cell / 3, cell % 3);
+        }
+        long hugeOptimum = bruteForceAssignment(hugeCost, 3, new int[3], new boolean[3], 0);
+        boolean fallback = true;
+        for (AssignmentAlgorithm algorithm : AssignmentAlgorithm.values()) {
+            fallback &= new KemenyMedianSolver(algorithm).solve(huge).totalDistance() == hugeOptimum;
+        }
+        fallback &= new KemenyMedianSolver().solveTopK(huge, 3).totalDistance() == hugeOptimum;
+        System.out.printf("  медиана за 2^53 (d_ik до %d): %s%n", hugeMatrix.exactValue(2, 0),
+                fallback ? "решена в double" : "НЕ РЕШЕНА");
+
+        printTestResult(optimal && sameChoice && sameResult && fallback);
+    }
+
+    /**
+     * Тест матрицы стоимостей вне кучи: m = 60, 2 000 бюллетеней.
+     * Матрица из гистограммы в точностях DOUBLE и FLOAT должна совпасть с DistanceMatrix поэлементно
+     * (все стоимости меньше 2^24), а венгерский алгоритм по строкам — дать то же назначение.
+     * LAPJV и аукцион читают её по строкам и дают то же назначение, что на плоской матрице в куче;
+     * solveOffHeap медианы (и с LAPJV) даёт то же d* и те же места, что и solve, взвешенная
+     * (гиперболические веса) — то же значение.
+     */
+    private static void testOffHeapCostMatrix() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 23: Матрица стоимостей вне кучи");
+        System.out.println("─".repeat(70));
+
+        ProfileGenerator generator = ProfileGenerator.builder(60).consensus(0.5).seed(23).build();
+        PreferenceProfile profile = generator.generate(2_000);
+        PositionHistogram histogram = PositionHistogram.fromProfile(profile);
+        DistanceMatrix heap = DistanceMatrix.fromHistogram(profile.alternatives(), histogram);
+        int m = heap.size();
+        int[] expected = new int[m];
+        new HungarianSolver().solve(heap, expected);
+
+        boolean passed = true;
+        for (OffHeapCostMatrix.Precision precision : OffHeapCostMatrix.Precision.values()) {
+            OffHeapCostMatrix offHeap = OffHeapCostMatrix.fromHistogram(histogram, precision, ForkJoinPool.commonPool());
+            boolean sameValues = true;
+            for (int i = 0; i < m; i++) {
+                for (int k = 0; k < m; k++) {
+                    // Стоимости здесь меньше 2^24, поэтому и float32 хранит их точно.
+                    sameValues &= offHeap.value(i, k) == heap.value(i, k);
+                }
+            }
+            int[] assignment = new int[m];
+            new HungarianSolver().solve(offHeap, assignment);
+            boolean sameAssignment = Arrays.equals(expected, assignment);
+            System.out.printf("  %s: %d байт вне кучи, значения %s, назначение %s%n", precision, offHeap.byteSize(),
+                    sameValues ? "совпадают" : "РАЗЛИЧАЮТСЯ", sameAssignment ? "совпадает" : "РАЗЛИЧАЕТСЯ");
+            passed &= sameValues && sameAssignment && offHeap.byteSize() == (long) m * m * precision.bytes();
+        }
+
+        // LAPJV и аукцион тоже читают матрицу по строкам: вне кучи — то же назначение, что в куче.
+        OffHeapCostMatrix copy = OffHeapCostMatrix.copyOf(heap, OffHeapCostMatrix.Precision.DOUBLE);
+        double[] flat = new double[m * m];
+        double expectedCost = 0.0;
+        for (int i = 0; i < m; i++) {
+            for (int k = 0; k < m; k++) {
+                flat[i * m + k] = heap.value(i, k);
+            }
+            expectedCost += heap.value(i, expected[i]);
+        }
+        for (AssignmentAlgorithm algorithm : List.of(AssignmentAlgorithm.JONKER_VOLGENANT, AssignmentAlgorithm.AUCTION)) {
+            int[] viaHeap = new int[m];
+            algorithm.newSolver().solve(flat, m, viaHeap);
+            int[] viaOffHeap = new int[m];
+            AssignmentSolver solver = algorithm.newSolver();
+            solver.solve(copy, viaOffHeap);
+            double cost = 0.0;
+            for (int i = 0; i < m; i++) {
+                cost += heap.value(i, viaOffHeap[i]);
+            }
+            // Целые стоимости: разрыв аукциона меньше 1 означает оптимум.
+            boolean optimal = cost - expectedCost <= solver.optimalityGap();
+            System.out.printf("  %s: вне кучи %.1f (венгерский: %.1f), назначение как в куче: %s%n",
+                    algorithm, cost, expectedCost, Arrays.equals(viaHeap, viaOffHeap) ? "да" : "НЕТ");
+            passed &= optimal && Arrays.equals(viaHeap, viaOffHeap);
+        }
+
+        // Решатели медианы строят матрицу вне кучи сами и дают тот же результат.
+        ProfileContext context = ProfileContext.fromProfile(profile);
+        KemenyResult median = new KemenyMedianSolver().solve(context);
+        PositionWeightedKemenySolver weightedSolver = new PositionWeightedKemenySolver(PositionWeightFunction.hyperbolic());
+        PositionWeightedKemenyResult weighted = weightedSolver.solve(context);
+        for (OffHeapCostMatrix.Precision precision : OffHeapCostMatrix.Precision.values()) {
+            KemenyResult offHeap = new KemenyMedianSolver().solveOffHeap(context, precision);
+            boolean sameMedian = offHeap.totalDistance() == median.totalDistance()
+                    && offHeap.ranking().scores().equals(median.ranking().scores())
+                    && offHeap.distanceMatrix() == null;
+            PositionWeightedKemenyResult weightedOffHeap = weightedSolver.solveOffHeap(context, precision);
+            // float32 округляет дробные веса, поэтому для взвешенной медианы сравнивается лишь значение.
+            double tolerance = precision == OffHeapCostMatrix.Precision.DOUBLE ? 1e-9 : 1e-4;
+            boolean sameWeighted = Math.abs(weightedOffHeap.totalDistance() - weighted.totalDistance())
+                    <= tolerance * weighted.totalDistance() && weightedOffHeap.distanceMatrix() == null;
+            System.out.printf("  solveOffHeap %s: медиана %.1f (в куче %.1f), взвешенная %.4f (в куче %.4f)%n",
+                    precision, offHeap.totalDistance(), median.totalDistance(),
+                    weightedOffHeap.totalDistance(), weighted.totalDistance());
+            passed &= sameMedian && sameWeighted;
+        }
+        // Заданный решатель не подменяется венгерским.
+        KemenyResult viaJv = new KemenyMedianSolver(AssignmentAlgorithm.JONKER_VOLGENANT)
+                .solveOffHeap(context, OffHeapCostMatrix.Precision.DOUBLE);
+        System.out.printf("  solveOffHeap с LAPJV: %.1f%n", viaJv.totalDistance());
+        passed &= viaJv.totalDistance() == median.totalDistance();
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест урезанных результатов (ResultRetention): m = 9, 300 бюллетеней.
+     * С OBJECTIVE медиана Кемени, взвешенная (равномерные веса), адаптивная и Кемени — Янг дают
+     * те же места и то же значение, что и полный результат, но без матриц, энтропий и блоков;
+     * с RANKING остаётся только ранжировка, а расстояние равно NaN.
+     */
+    private static void testResultRetention() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 24: Урезанные результаты решателей");
+        System.out.println("─".repeat(70));
+
+        PreferenceProfile profile = ProfileGenerator.builder(9).consensus(0.5).seed(24).build().generate(300);
+        ProfileContext context = ProfileContext.fromProfile(profile);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        boolean passed = true;
+
+        KemenyResult full = new KemenyMedianSolver().solve(context);
+        KemenyResult objective = new KemenyMedianSolver(new HungarianSolver(), pool, ResultRetention.OBJECTIVE)
+                .solve(context);
+        KemenyResult rankingOnly = new KemenyMedianSolver(new HungarianSolver(), pool, ResultRetention.RANKING)
+                .solve(context);
+        passed &= objective.ranking().scores().equals(full.ranking().scores())
+                && objective.totalDistance() == full.totalDistance() && objective.distanceMatrix() == null
+                && rankingOnly.ranking().scores().equals(full.ranking().scores())
+                && Double.isNaN(rankingOnly.totalDistance()) && rankingOnly.distanceMatrix() == null;
+        System.out.printf("  Кемени: полный %.1f, без матрицы %.1f, только ранжировка %.1f%n",
+                full.totalDistance(), objective.totalDistance(), rankingOnly.totalDistance());
+
+        PositionWeightedKemenyResult weighted = new PositionWeightedKemenySolver(PositionWeightFunction.uniform(),
+                new HungarianSolver(), pool, ResultRetention.OBJECTIVE).solve(context);
+        passed &= weighted.distanceMatrix() == null && weighted.totalDistance() == full.totalDistance()
+                && weighted.weightFunctionName().equals("Uniform (Classic Kemeny)");
+        System.out.println("  взвешенный без матрицы: " + weighted.weightFunctionName());
+
+        AdaptiveKemenyResult adaptive = new AdaptiveKemenySolver(AdaptiveWeightMode.CONFLICT_FOCUS,
+                new HungarianSolver(), pool, ResultRetention.OBJECTIVE).solve(context);
+        AdaptiveKemenyResult adaptiveFull = new AdaptiveKemenySolver(AdaptiveWeightMode.CONFLICT_FOCUS).solve(context);
+        passed &= adaptive.distanceMatrix() == null && adaptive.entropyAnalyzer() == null
+                && adaptive.totalWeightedDistance() == adaptiveFull.totalWeightedDistance();
+        System.out.printf("  адаптивный без матрицы и энтропий: %.4f%n", adaptive.totalWeightedDistance());
+
+        KemenyYoungResult young = new KemenyYoungSolver(KemenyYoungAlgorithm.AUTOMATIC, pool, ResultRetention.OBJECTIVE)
+                .solve(context);
+        KemenyYoungResult youngFull = new KemenyYoungSolver().solve(context);
+        passed &= young.pairwiseMatrix() == null && young.components().isEmpty()
+                && young.totalDistance() == youngFull.totalDistance()
+                && young.ranking().scores().equals(youngFull.ranking().scores());
+        System.out.printf("  Кемени — Янг без матрицы: %.1f%n", young.totalDistance());
+
+        printTestResult(passed);
+    }
+
+    /**
+     * Тест первых K мест консенсуса (прямоугольное назначение K позиций × m альтернатив).
+     * На 200 случайных задачах rows ≤ columns ≤ 7 венгерский алгоритм в long и в double находит
+     * оптимум перебора. Для m = 40 при K = m сумма равна d* полной медианы, при K = 3 — не больше
+     * суммы первых трёх мест полной медианы; взвешенный решатель с равномерными весами даёт то же.
+     * K > m отклоняется.
+     */
+    private static void testTopKConsensus() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 25: Первые K мест через прямоугольное назначение");
+        System.out.println("─".repeat(70));
+
+        // Прямоугольные задачи rows × columns против полного перебора.
+        Random random = new Random(25);
+        HungarianSolver solver = new HungarianSolver();
+        boolean optimal = true;
+        for (int trial = 0; trial < 200; trial++) {
+            int columns = 1 + random.nextInt(7);
+            int rows = 1 + random.nextInt(columns);
+            long[] cost = new long[rows * columns];
+            double[] doubles = new double[rows * columns];
+            for (int cell = 0; cell < cost.length; cell++) {
+                cost[cell] = random.nextInt(5);
+                doubles[cell] = cost[cell];
+            }
+            int[] exact = new int[rows];
+            int[] approximate = new int[rows];
+            solver.solveRectangular(cost, rows, columns, exact);
+            solver.solveRectangular(doubles, rows, columns, approximate);
+            long best = bruteForceRectangular(cost, rows, columns, new boolean[columns], 0);
+            optimal &= best == rectangularCost(cost, columns, exact) && best == rectangularCost(cost, columns, approximate)
+                    && Arrays.stream(exact, 0, rows).distinct().count() == rows;
+        }
+        System.out.println("  200 прямоугольных задач: оптимум " + (optimal ? "найден" : "НЕ НАЙДЕН"));
+
+        PreferenceProfile profile = ProfileGenerator.builder(40).consensus(0.6).seed(25).build().generate(500);
+        ProfileContext context = ProfileContext.fromProfile(profile);
+        KemenyMedianSolver median = new KemenyMedianSolver();
+        KemenyResult full = median.solve(context);
+        KemenyTopKResult all = median.solveTopK(context, 40);
+        boolean consistent = all.totalDistance() == full.totalDistance();
+
+        // Первые K мест оптимальны для своей суммы: не хуже начала полной медианы.
+        KemenyTopKResult podium = median.solveTopK(context, 3);
+        double prefix = 0.0;
+        for (var entry : full.ranking().scores().entrySet()) {
+            int position = entry.getValue().intValue();
+            if (position <= 3) {
+                prefix += full.distanceMatrix().value(profile.alternatives().indexOf(entry.getKey()), position - 1);
+            }
+        }
+        consistent &= podium.size() == 3 && podium.totalDistance() <= prefix;
+        KemenyTopKResult weighted = new PositionWeightedKemenySolver().solveTopK(context, 3);
+        consistent &= weighted.totalDistance() == podium.totalDistance();
+        System.out.printf("  k = m: %.1f (полная медиана %.1f)%n", all.totalDistance(), full.totalDistance());
+        System.out.printf("  подиум: %s, %.1f (первые 3 места медианы: %.1f)%n",
+                podium.leaders().stream().map(Alternative::name).collect(Collectors.toList()), podium.totalDistance(), prefix);
+
+        boolean rejected = false;
+        try {
+            median.solveTopK(context, 41);
+        } catch (IllegalArgumentException expected) {
+            rejected = true;
+        }
+
+        printTestResult(optimal && consistent && rejected);
+    }
+
+    /**
+     * Тест матриц расстояний по определению на всех профилях из data/.
+     * Каждый элемент DistanceMatrix сверяется с наивной суммой Σ_e voters_e · |k − r_e(i)|
+     * по {@link Ranking#getRank}, а WeightedDistanceMatrix (из гистограммы и поверх
+     * невзвешенной, гиперболические и линейные веса) — с phi(k) · той же суммой, бит в бит.
+     * Таблица рангов проверяется там же: rank совпадает с getRank, alternativeAt — обратная
+     * перестановка (альтернатива на позиции k имеет ранг k).
+     */
+    private static void testDistanceMatrixDefinition() {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("ТЕСТ 26: Матрицы расстояний по определению");
+        System.out.println("─".repeat(70));
+
+        List<Path> files = listDataFiles();
+        boolean passed = !files.isEmpty();
+        for (Path file : files) {
+            PreferenceProfile profile = loadProfile(file);
+            if (profile == null) {
+                passed = false;
+                continue;
+            }
+            List<Alternative> alternatives = profile.alternatives();
+            List<RankingEntry> entries = profile.entries();
+            int m = alternatives.size();
+
+            RankTable table = profile.rankTable();
+            boolean sameTable = table.entryCount() == entries.size();
+            for (int e = 0; e < entries.size() && sameTable; e++) {
+                Ranking ranking = entries.get(e).ranking();
+                sameTable &= table.voters(e) == entries.get(e).voters();
+                for (int i = 0; i < m; i++) {
+                    int rank = table.rank(e, i);
+                    sameTable &= rank == ranking.getRank(alternatives.get(i));
+                    int holder = table.alternativeAt(e, rank);
+                    sameTable &= holder >= 0 && table.rank(e, holder) == rank;
+                }
+                for (int position = 1; position <= m; position++) {
+                    int holder = table.alternativeAt(e, position);
+                    sameTable &= holder < 0 || table.rank(e, holder) == position;
+                }
+            }
+
+            // Наивно: O(m² · n) по определению, без гистограммы.
+            long[] naive = new long[m * m];
+            for (int i = 0; i < m; i++) {
+                for (int k = 1; k <= m; k++) {
+                    long sum = 0;
+                    for (RankingEntry entry : entries) {
+                        sum += (long) entry.voters() * Math.abs(k - entry.ranking().getRank(alternatives.get(i)));
+                    }
+                    naive[i * m + k - 1] = sum;
+                }
+            }
+
+            DistanceMatrix matrix = DistanceMatrix.fromProfile(profile);
+            boolean sameDistances = matrix.size() == m;
+            for (int cell = 0; cell < naive.length && sameDistances; cell++) {
+                sameDistances &= matrix.exactValue(cell / m, cell % m) == naive[cell]
+                        && matrix.value(cell / m, cell % m) == naive[cell];
+            }
+
+            boolean sameWeighted = true;
+            for (PositionWeightFunction function : List.of(PositionWeightFunction.hyperbolic(),
+                    PositionWeightFunction.linear())) {
+                WeightedDistanceMatrix built = WeightedDistanceMatrix.fromProfile(profile, function);
+                WeightedDistanceMatrix view = WeightedDistanceMatrix.fromDistanceMatrix(matrix, function);
+                for (int cell = 0; cell < naive.length; cell++) {
+                    int i = cell / m;
+                    int k = cell % m;
+                    double expected = function.weight(k + 1, m) * naive[cell];
+                    sameWeighted &= built.value(i, k) == expected && view.value(i, k) == expected;
+                }
+            }
+
+            System.out.printf("  %-32s m = %2d, записей %4d: таблица %s, d_ik %s, phi(k)·d_ik %s%n",
+                    file.getFileName(), m, entries.size(), sameTable ? "✓" : "✗",
+                    sameDistances ? "✓" : "✗", sameWeighted ? "✓" : "✗");
+            passed &= sameTable && sameDistances && sameWeighted;
+        }
+
+        printTestResult(passed);
+    }
+
     // ─────────────────────────────────────────────────────────────────────
     // Вспомогательные методы
     // ─────────────────────────────────────────────────────────────────────
 
+    /**
+     * Минимальная стоимость назначения полным перебором (для проверки на малых n).
+     */
+    private static long bruteForceAssignment(long[] cost, int n, int[] assignment, boolean[] taken, int row) {
+        if (row == n) {
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                total += cost[i * n + assignment[i]];
+            }
+            return total;
+        }
+        long best = Long.MAX_VALUE;
+        for (int column = 0; column < n; column++) {
+            if (!taken[column]) {
+                taken[column] = true;
+                assignment[row] = column;
+                best = Math.min(best, bruteForceAssignment(cost, n, assignment, taken, row + 1));
+                taken[column] = false;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Минимальная стоимость прямоугольного назначения (строке — свой столбец) полным перебором.
+     */
+    private static long bruteForceRectangular(long[] cost, int rows, int columns, boolean[] taken, int row) {
+        if (row == rows) {
+            return 0;
+        }
+        long best = Long.MAX_VALUE;
+        for (int column = 0; column < columns; column++) {
+            if (!taken[column]) {
+                taken[column] = true;
+                best = Math.min(best, cost[row * columns + column]
+                        + bruteForceRectangular(cost, rows, columns, taken, row + 1));
+                taken[column] = false;
+            }
+        }
+        return best;
+    }
+
+    private static long rectangularCost(long[] cost, int columns, int[] assignment) {
+        long total = 0;
+        for (int row = 0; row < assignment.length; row++) {
+            total += cost[row * columns + assignment[row]];
+        }
+        return total;
+    }
+
     private static boolean checkScore(String altName, Map<Alternative, Double> scores, double expected) {
         for (var entry : scores.entrySet()) {
             if (entry.getKey().name().equals(altName)) {
@@ -269,6 +1958,32 @@ public final class AggregatorTests {
         return false;
     }
 
+    private static List<Path> listDataFiles() {
+        try (var stream = Files.list(Path.of("data"))) {
+            return stream.filter(path -> path.toString().endsWith(".json")).sorted().toList();
+        } catch (IOException e) {
+            System.out.println("  ОШИБКА: не удалось прочитать каталог data/: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static PreferenceProfile loadProfile(Path file) {
+        try {
+            return new JsonProfileReader(EnumSet.noneOf(ProfileSection.class)).read(file).preferenceProfile();
+        } catch (Exception e) {
+            System.out.printf("  ОШИБКА: %s не загружен: %s%n", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
     private static void printTestResult(boolean passed) {
         if (passed) {
             System.out.println("\nТЕСТ ПРОЙДЕН");
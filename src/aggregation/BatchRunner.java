@@ -0,0 +1,553 @@
+package aggregation;
+
+import aggregation.algorithms.RankSumAggregator;
+import aggregation.io.PrefLibReader;
+import aggregation.io.ProfileDataset;
+import aggregation.io.ProfileFiles;
+import aggregation.io.ProfileSection;
+import aggregation.kemeny.AdaptiveKemenySolver;
+import aggregation.kemeny.AdaptiveWeightMode;
+import aggregation.kemeny.HungarianSolver;
+import aggregation.kemeny.KemenyMedianSolver;
+import aggregation.kemeny.KemenyYoungAlgorithm;
+import aggregation.kemeny.KemenyYoungSolver;
+import aggregation.kemeny.PositionWeightFunction;
+import aggregation.kemeny.PositionWeightedKemenySolver;
+import aggregation.kemeny.ProfileContext;
+import aggregation.model.AggregatedRanking;
+import aggregation.model.PreferenceProfile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Пакетный прогон всех методов по корпусу файлов в одной JVM.
+ *
+ * Файлы (каталоги, маски вида preflib/00052_f1seasons/*.soc или отдельные пути) загружаются и решаются
+ * параллельно, не более threads одновременно; результаты пишутся одной таблицей CSV или NDJSON —
+ * строка на пару «файл, метод» со временем работы метода — в порядке входного списка.
+ *
+ * Каждый файл обрабатывается в собственном потоке-демоне, и все его методы решаются в этом потоке
+ * последовательно (без пула ForkJoin), чтобы прерывание потока останавливало решатель.
+ *
+ * У каждого файла есть бюджет времени, отсчитываемый от начала его обработки. Методы
+ * файла выполняются по очереди; когда бюджет исчерпан, оставшиеся методы помечаются skipped.
+ * Если метод сам не укладывается в бюджет, строка получает статус timeout, поток файла
+ * прерывается (решатели выходят на ближайшей проверке прерывания) и бросается, а его место
+ * сразу занимает следующий файл. Бюджеты всех запущенных файлов проверяются при каждом опросе,
+ * поэтому файл ждёт запуска не дольше бюджета; не запущенный за это время файл тоже получает timeout.
+ */
+public final class BatchRunner {
+
+    /**
+     * Формат таблицы результатов.
+     */
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * Строка таблицы: результат одного метода на одном файле.
+     *
+     * @param method    название метода (load — загрузка файла)
+     * @param winner    первая альтернатива итоговой ранжировки или null
+     * @param objective значение критерия (расстояние, для суммы рангов — сумма победителя) или NaN
+     * @param status    ok, skipped, timeout или error: сообщение
+     */
+    public record Row(String file, String method, int alternatives, int rankings, long voters,
+                      String winner, double objective, double millis, String status) {
+    }
+
+    /**
+     * Итог одного метода: ранжировка и значение критерия.
+     */
+    private record Outcome(AggregatedRanking ranking, double objective) {
+    }
+
+    private record Method(String name, Function<ProfileContext, Outcome> solver) {
+    }
+
+    private static final List<Method> METHODS = List.of(
+            new Method("rank-sum", context -> {
+                AggregatedRanking ranking = new RankSumAggregator().aggregate(context);
+                return new Outcome(ranking, ranking.sortedEntries().get(0).getValue());
+            }),
+            new Method("kemeny", context -> {
+                var result = new KemenyMedianSolver(new HungarianSolver(), null).solve(context);
+                return new Outcome(result.ranking(), result.totalDistance());
+            }),
+            new Method("kemeny-young", context -> {
+                var result = new KemenyYoungSolver(KemenyYoungAlgorithm.AUTOMATIC, null).solve(context);
+                return new Outcome(result.ranking(), result.totalDistance());
+            }),
+            weighted("hyperbolic", PositionWeightFunction.hyperbolic()),
+            weighted("linear", PositionWeightFunction.linear()),
+            weighted("exponential", PositionWeightFunction.exponential(0.5)),
+            weighted("logarithmic", PositionWeightFunction.logarithmic()),
+            weighted("top-2", PositionWeightFunction.topK(2)),
+            adaptive("adaptive-conflict", AdaptiveWeightMode.CONFLICT_FOCUS),
+            adaptive("adaptive-consensus", AdaptiveWeightMode.CONSENSUS_FOCUS));
+
+    /**
+     * Период опроса: запуск ожидающих файлов и проверка бюджетов запущенных.
+     */
+    private static final long POLL_MILLIS = 20;
+
+    private static final String[] COLUMNS =
+            {"file", "method", "alternatives", "rankings", "voters", "winner", "objective", "millis", "status"};
+
+    private final int threads;
+    private final Duration budget;
+
+    /**
+     * @param threads число одновременно обрабатываемых файлов
+     * @param budget  бюджет времени на файл
+     */
+    public BatchRunner(int threads, Duration budget) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        Objects.requireNonNull(budget, "budget");
+        if (budget.isNegative()) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+        this.threads = threads;
+        this.budget = budget;
+    }
+
+    /**
+     * Аргументы: [--threads N] [--budget SECONDS] [--format csv|ndjson] [--output FILE] путь|маска...
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Duration budget = Duration.ofSeconds(60);
+        Format format = Format.CSV;
+        Path output = null;
+        List<String> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads" -> threads = Integer.parseInt(value(args, ++i));
+                    case "--budget" -> budget = Duration.ofMillis(
+                            Math.round(Double.parseDouble(value(args, ++i)) * 1000));
+                    case "--format" -> format = Format.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                    case "--output", "-o" -> output = Path.of(value(args, ++i));
+                    default -> inputs.add(args[i]);
+                }
+            }
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("no input files");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            System.err.println("Usage: BatchRunner [--threads N] [--budget SECONDS] [--format csv|ndjson]"
+                    + " [--output FILE] <directory|glob|file>...");
+            return;
+        }
+
+        try {
+            List<Path> files = expand(inputs);
+            BatchRunner runner = new BatchRunner(threads, budget);
+            long start = System.nanoTime();
+            if (output == null) {
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                runner.run(files, format, out);
+                out.flush();
+            } else {
+                try (Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                    runner.run(files, format, out);
+                }
+            }
+            System.err.printf("%d files in %.1f s%n", files.size(), (System.nanoTime() - start) / 1e9);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Раскрывает аргументы в список файлов: каталог — его файлы PrefLib, JSON и .agpf
+     * (без подкаталогов), маска (*, ?, [], {}) — совпадающие файлы, прочее — путь к файлу.
+     */
+    public static List<Path> expand(List<String> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String input : inputs) {
+            if (input.chars().anyMatch(ch -> "*?[{".indexOf(ch) >= 0)) {
+                files.addAll(glob(input));
+                continue;
+            }
+            Path path = Path.of(input);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> listing = Files.list(path)) {
+                    files.addAll(listing.filter(Files::isRegularFile)
+                            .filter(BatchRunner::isDataset)
+                            .sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else if (Files.isRegularFile(path)) {
+                files.add(path);
+            } else {
+                throw new IllegalArgumentException("No such file or directory: " + input);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Обрабатывает файлы и пишет таблицу результатов в out (по мере готовности, в порядке files).
+     */
+    public void run(List<Path> files, Format format, Writer out) throws IOException {
+        Objects.requireNonNull(files, "files");
+        Objects.requireNonNull(format, "format");
+        Objects.requireNonNull(out, "out");
+        if (format == Format.CSV) {
+            out.write(String.join(",", COLUMNS));
+            out.write('\n');
+        }
+        Semaphore permits = new Semaphore(threads);
+        List<Job> jobs = new ArrayList<>(files.size());
+        for (Path file : files) {
+            jobs.add(new Job(file, permits));
+        }
+        // Файлы запускаются по порядку, как только освобождается место.
+        Thread launcher = new Thread(() -> {
+            try {
+                for (Job job : jobs) {
+                    permits.acquire();
+                    job.start();
+                }
+            } catch (InterruptedException e) {
+                // Прогон завершён досрочно: оставшиеся файлы не запускаются.
+            }
+        }, "batch-runner launcher");
+        launcher.setDaemon(true);
+        launcher.start();
+        try {
+            for (int index = 0; index < jobs.size(); index++) {
+                Job job = jobs.get(index);
+                long waitStart = System.nanoTime();
+                while (!job.awaitDone(POLL_MILLIS)) {
+                    long now = System.nanoTime();
+                    for (int running = index; running < jobs.size() && jobs.get(running).launched(); running++) {
+                        jobs.get(running).enforceBudget(now);
+                    }
+                    if (!job.started() && now - waitStart >= budget.toNanos()) {
+                        job.abandon();
+                    }
+                }
+                for (Row row : job.result()) {
+                    out.write(format == Format.CSV ? csv(row) : json(row));
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for batch results");
+        } finally {
+            launcher.interrupt();
+            for (Job job : jobs) {
+                job.abandon();
+            }
+        }
+    }
+
+    /**
+     * Обработка одного файла в собственном потоке: строки пишутся в rows по мере выполнения методов.
+     * Место в семафоре освобождается ровно один раз — по завершении или при отказе от файла.
+     */
+    private final class Job {
+        private final Path file;
+        private final Semaphore permits;
+        private final List<Row> rows = new ArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicBoolean released = new AtomicBoolean();
+        private Thread thread;
+        private List<Row> result;
+        private boolean abandoned;
+        private volatile long startNanos;
+        private volatile String current = "load";
+        private volatile long currentStart;
+        private int alternatives;
+        private int rankings;
+        private long voters;
+
+        Job(Path file, Semaphore permits) {
+            this.file = file;
+            this.permits = permits;
+        }
+
+        /**
+         * Запускает поток файла; место в семафоре уже занято вызывающим.
+         */
+        synchronized void start() {
+            if (abandoned) {
+                release();
+                return;
+            }
+            thread = new Thread(this::process, "batch-runner " + file.getFileName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        synchronized boolean launched() {
+            return thread != null;
+        }
+
+        boolean started() {
+            return startNanos != 0;
+        }
+
+        boolean awaitDone(long millis) throws InterruptedException {
+            return done.await(millis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Отказывается от файла, если его бюджет исчерпан к моменту now.
+         */
+        void enforceBudget(long now) {
+            long started = startNanos;
+            if (started != 0 && now - started >= budget.toNanos()) {
+                abandon();
+            }
+        }
+
+        private void process() {
+            try {
+                run();
+            } finally {
+                finish();
+            }
+        }
+
+        private void run() {
+            startNanos = System.nanoTime();
+            long deadline = startNanos + budget.toNanos();
+            ProfileContext context;
+            long start = System.nanoTime();
+            try {
+                ProfileDataset dataset = ProfileFiles.read(file, EnumSet.noneOf(ProfileSection.class));
+                PreferenceProfile profile = dataset.preferenceProfile();
+                context = ProfileContext.fromProfile(profile, null);
+                alternatives = profile.alternatives().size();
+                rankings = profile.rankTable().entryCount();
+                voters = profile.totalVoters();
+                add(row("load", null, Double.NaN, start, "ok"));
+            } catch (IOException | RuntimeException e) {
+                add(row("load", null, Double.NaN, start, "error: " + e.getMessage()));
+                return;
+            }
+            for (Method method : METHODS) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                current = method.name();
+                if (System.nanoTime() >= deadline) {
+                    add(row(method.name(), null, Double.NaN, System.nanoTime(), "skipped"));
+                    continue;
+                }
+                start = System.nanoTime();
+                currentStart = start;
+                try {
+                    Outcome outcome = method.solver().apply(context);
+                    String winner = outcome.ranking().sortedEntries().get(0).getKey().name();
+                    add(row(method.name(), winner, outcome.objective(), start, "ok"));
+                } catch (RuntimeException e) {
+                    add(row(method.name(), null, Double.NaN, start, "error: " + e.getMessage()));
+                }
+            }
+        }
+
+        /**
+         * Итоговые строки файла (после завершения или отказа).
+         */
+        synchronized List<Row> result() {
+            return result;
+        }
+
+        private synchronized void add(Row row) {
+            // Строки потока, от которого отказались, больше не принимаются.
+            if (!abandoned) {
+                rows.add(row);
+            }
+        }
+
+        private synchronized void finish() {
+            if (!abandoned) {
+                result = List.copyOf(rows);
+                done.countDown();
+            }
+            release();
+        }
+
+        /**
+         * Отказывается от незавершённого файла: готовые строки сохраняются, текущий метод
+         * помечается timeout, остальные — skipped; поток прерывается, его место освобождается.
+         */
+        synchronized void abandon() {
+            if (abandoned || done.getCount() == 0) {
+                return;
+            }
+            abandoned = true;
+            result = timedOut();
+            done.countDown();
+            if (thread != null) {
+                thread.interrupt();
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        private List<Row> timedOut() {
+            List<Row> timedOut = new ArrayList<>(rows);
+            boolean reached = current.equals("load");
+            if (reached) {
+                long started = startNanos;
+                timedOut.add(row("load", null, Double.NaN, started == 0 ? System.nanoTime() : started, "timeout"));
+            }
+            for (Method method : METHODS) {
+                if (!reached && method.name().equals(current)) {
+                    reached = true;
+                    timedOut.add(row(method.name(), null, Double.NaN, currentStart, "timeout"));
+                } else if (reached) {
+                    timedOut.add(row(method.name(), null, Double.NaN, System.nanoTime(), "skipped"));
+                }
+            }
+            return timedOut;
+        }
+
+        private Row row(String method, String winner, double objective, long startNanos, String status) {
+            double millis = status.equals("skipped") ? 0.0 : (System.nanoTime() - startNanos) / 1e6;
+            return new Row(file.toString(), method, alternatives, rankings, voters, winner, objective, millis, status);
+        }
+    }
+
+    private static Method weighted(String name, PositionWeightFunction function) {
+        return new Method(name, context -> {
+            var result = new PositionWeightedKemenySolver(function, new HungarianSolver(), null).solve(context);
+            return new Outcome(result.ranking(), result.totalDistance());
+        });
+    }
+
+    private static Method adaptive(String name, AdaptiveWeightMode mode) {
+        return new Method(name, context -> {
+            var result = new AdaptiveKemenySolver(mode, new HungarianSolver(), null).solve(context);
+            return new Outcome(result.ranking(), result.totalWeightedDistance());
+        });
+    }
+
+    private static boolean isDataset(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return PrefLibReader.isPrefLibFile(path) || name.endsWith(".json") || name.endsWith(".agpf");
+    }
+
+    /**
+     * Находит файлы по маске; обход начинается с самого длинного префикса без метасимволов.
+     */
+    private static List<Path> glob(String pattern) throws IOException {
+        String normalized = pattern.replace('\\', '/');
+        int meta = 0;
+        while ("*?[{".indexOf(normalized.charAt(meta)) < 0) {
+            meta++;
+        }
+        int slash = normalized.lastIndexOf('/', meta);
+        Path base = slash < 0 ? Path.of(".") : Path.of(normalized.substring(0, Math.max(slash, 1)));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + normalized);
+        if (!Files.isDirectory(base)) {
+            return List.of();
+        }
+        try (Stream<Path> walk = Files.walk(base)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(slash < 0 ? base.relativize(path) : path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static String csv(Row row) {
+        return String.join(",", quoteCsv(row.file()), row.method(), Integer.toString(row.alternatives()),
+                Integer.toString(row.rankings()), Long.toString(row.voters()),
+                row.winner() == null ? "" : quoteCsv(row.winner()),
+                Double.isNaN(row.objective()) ? "" : number(row.objective()),
+                String.format(Locale.ROOT, "%.3f", row.millis()), quoteCsv(row.status()));
+    }
+
+    private static String quoteCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(Row row) {
+        return "{\"file\":" + quoteJson(row.file())
+                + ",\"method\":" + quoteJson(row.method())
+                + ",\"alternatives\":" + row.alternatives()
+                + ",\"rankings\":" + row.rankings()
+                + ",\"voters\":" + row.voters()
+                + ",\"winner\":" + (row.winner() == null ? "null" : quoteJson(row.winner()))
+                + ",\"objective\":" + (Double.isNaN(row.objective()) ? "null" : number(row.objective()))
+                + ",\"millis\":" + String.format(Locale.ROOT, "%.3f", row.millis())
+                + ",\"status\":" + quoteJson(row.status()) + "}";
+    }
+
+    private static String quoteJson(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (ch < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        builder.append(ch);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static String number(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value)
+                : Double.toString(value);
+    }
+}
@@ -3,15 +3,20 @@ package aggregation;
 import aggregation.algorithms.RankSumAggregator;
 import aggregation.algorithms.UtilityAggregator;
 import aggregation.algorithms.WeightedRankSumAggregator;
-import aggregation.io.JsonProfileReader;
 import aggregation.io.ProfileDataset;
+import aggregation.io.ProfileFiles;
+import aggregation.io.ProfileSection;
 import aggregation.kemeny.KemenyMedianSolver;
 import aggregation.kemeny.KemenyResult;
+import aggregation.kemeny.KemenyYoungResult;
+import aggregation.kemeny.KemenyYoungSolver;
+import aggregation.kemeny.ProfileContext;
 import aggregation.model.AggregatedRanking;
 import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
 
 import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.List;
 
 /**
@@ -34,17 +39,22 @@ public final class Main {
                 : Path.of("data", "profile_example.json");
         ProfileDataset dataset;
         try {
-            dataset = new JsonProfileReader().read(datasetPath);
+            // .agpf отображается в память, PrefLib и JSON разбираются потоково.
+            dataset = ProfileFiles.read(datasetPath, EnumSet.allOf(ProfileSection.class));
         } catch (Exception e) {
             System.err.println("Failed to load dataset: " + e.getMessage());
             return;
         }
 
         PreferenceProfile profile = dataset.preferenceProfile();
+        ProfileContext context = ProfileContext.fromProfile(profile);
         dataset.title().ifPresent(title -> System.out.println("Dataset: " + title));
         dataset.source().ifPresent(source -> System.out.println("Source: " + source));
+        dataset.deduplication()
+                .filter(report -> report.merged() > 0)
+                .ifPresent(report -> System.out.println("Identical ballots merged: " + report));
         RankSumAggregator aggregator = new RankSumAggregator();
-        AggregatedRanking result = aggregator.aggregate(profile);
+        AggregatedRanking result = aggregator.aggregate(context);
 
         System.out.println("Rank-sum aggregation (lower is better):");
         result.sortedEntries().forEach(entry ->
@@ -76,7 +86,7 @@ public final class Main {
         );
 
         KemenyMedianSolver kemenySolver = new KemenyMedianSolver();
-        KemenyResult kemenyResult = kemenySolver.solve(profile);
+        KemenyResult kemenyResult = kemenySolver.solve(context);
 
         System.out.println("\nKemeny median ranking:");
         kemenyResult.ranking().sortedEntries().forEach(entry ->
@@ -84,6 +94,13 @@ public final class Main {
         );
         System.out.printf("Total distance d* = %.0f%n", kemenyResult.totalDistance());
         printDistanceMatrix(kemenyResult);
+
+        KemenyYoungResult kendallResult = new KemenyYoungSolver().solve(context);
+        System.out.println("\nKemeny-Young ranking (Kendall tau):");
+        kendallResult.ranking().sortedEntries().forEach(entry ->
+                System.out.printf(" - %s : rank %.0f%n", entry.getKey().name(), entry.getValue())
+        );
+        System.out.printf("Total Kendall distance = %.0f%n", kendallResult.totalDistance());
     }
 
     /**
@@ -1,17 +1,20 @@
 package aggregation;
 
 import aggregation.algorithms.ParetoAnalyzer;
-import aggregation.io.JsonProfileReader;
 import aggregation.io.ProfileDataset;
+import aggregation.io.ProfileFiles;
+import aggregation.io.ProfileSection;
 import aggregation.kemeny.KemenyMedianSolver;
 import aggregation.kemeny.KemenyResult;
 import aggregation.kemeny.PositionWeightFunction;
 import aggregation.kemeny.PositionWeightedKemenyResult;
-import aggregation.kemeny.PositionWeightedKemenySolver;
+import aggregation.kemeny.PositionWeightSweep;
+import aggregation.kemeny.ProfileContext;
 import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
 
 import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 
@@ -30,48 +33,54 @@ public final class PositionWeightedDemo {
 
         ProfileDataset dataset;
         try {
-            dataset = new JsonProfileReader().read(datasetPath);
+            dataset = ProfileFiles.read(datasetPath, EnumSet.of(ProfileSection.METADATA));
         } catch (Exception e) {
             System.err.println("Failed to load dataset: " + e.getMessage());
             return;
         }
 
         PreferenceProfile profile = dataset.preferenceProfile();
+        // Один контекст на весь отчёт: все взвешенные матрицы получаются из общей матрицы d_{ik}.
+        ProfileContext context = ProfileContext.fromProfile(profile);
         dataset.title().ifPresent(title -> System.out.println("Dataset: " + title));
         System.out.println();
 
         // Шаг 0: Парето-анализ
         printHeader("PARETO ANALYSIS");
-        ParetoAnalyzer.ParetoResult paretoResult = ParetoAnalyzer.analyze(profile);
+        ParetoAnalyzer.ParetoResult paretoResult = ParetoAnalyzer.analyze(context);
         paretoResult.print();
         System.out.println();
 
         // Шаг 1: Классический Кемени
         printHeader("CLASSIC KEMENY (phi(k) = 1)");
         KemenyMedianSolver classicSolver = new KemenyMedianSolver();
-        KemenyResult classicResult = classicSolver.solve(profile);
+        KemenyResult classicResult = classicSolver.solve(context);
         printRanking("Classic Kemeny (phi(k) = 1)", classicResult.ranking().sortedMap(), classicResult.totalDistance());
         printMatrix(classicResult.distanceMatrix().asArray(), classicResult.distanceMatrix().alternatives());
 
-        // Шаг 2: Гиперболическая
+        // Шаги 2-6: все весовые функции решаются одним перебором по общей матрице d_{ik}
+        List<PositionWeightFunction> functions = List.of(
+                PositionWeightFunction.hyperbolic(),
+                PositionWeightFunction.linear(),
+                PositionWeightFunction.exponential(0.5),
+                PositionWeightFunction.logarithmic(),
+                PositionWeightFunction.topK(2));
+        List<PositionWeightedKemenyResult> sweep = new PositionWeightSweep().run(context, functions);
+
         printHeader("HYPERBOLIC (phi(k) = 1/k)");
-        PositionWeightedKemenyResult hyperbolicResult = runWeighted(profile, PositionWeightFunction.hyperbolic(), "Hyperbolic (phi(k) = 1/k)");
+        PositionWeightedKemenyResult hyperbolicResult = printWeighted(sweep.get(0), "Hyperbolic (phi(k) = 1/k)");
 
-        // Шаг 3: Линейная
         printHeader("LINEAR (phi(k) = (m-k+1)/m)");
-        PositionWeightedKemenyResult linearResult = runWeighted(profile, PositionWeightFunction.linear(), "Linear (phi(k) = (m-k+1)/m)");
+        PositionWeightedKemenyResult linearResult = printWeighted(sweep.get(1), "Linear (phi(k) = (m-k+1)/m)");
 
-        // Шаг 4: Экспоненциальная
         printHeader("EXPONENTIAL (phi(k) = e^(-0.5(k-1)))");
-        PositionWeightedKemenyResult expResult = runWeighted(profile, PositionWeightFunction.exponential(0.5), "Exponential (phi(k) = e^(-0.5(k-1)))");
+        PositionWeightedKemenyResult expResult = printWeighted(sweep.get(2), "Exponential (phi(k) = e^(-0.5(k-1)))");
 
-        // Шаг 5: Логарифмическая
         printHeader("LOGARITHMIC (phi(k) = 1/log2(k+1))");
-        PositionWeightedKemenyResult logResult = runWeighted(profile, PositionWeightFunction.logarithmic(), "Logarithmic (phi(k) = 1/log2(k+1))");
+        PositionWeightedKemenyResult logResult = printWeighted(sweep.get(3), "Logarithmic (phi(k) = 1/log2(k+1))");
 
-        // Шаг 6: Top-2
         printHeader("TOP-2 (phi(k) = 1 if k<=2, else 0)");
-        PositionWeightedKemenyResult topResult = runWeighted(profile, PositionWeightFunction.topK(2), "Top-2 (phi(k) = 1 if k<=2, else 0)");
+        PositionWeightedKemenyResult topResult = printWeighted(sweep.get(4), "Top-2 (phi(k) = 1 if k<=2, else 0)");
 
         // Шаг 7: Сводная таблица
         printHeader("SUMMARY COMPARISON");
@@ -84,9 +93,7 @@ public final class PositionWeightedDemo {
         System.out.println("+" + "=".repeat(62) + "+");
     }
 
-    private static PositionWeightedKemenyResult runWeighted(PreferenceProfile profile, PositionWeightFunction fn, String name) {
-        PositionWeightedKemenySolver solver = new PositionWeightedKemenySolver(fn);
-        PositionWeightedKemenyResult result = solver.solve(profile);
+    private static PositionWeightedKemenyResult printWeighted(PositionWeightedKemenyResult result, String name) {
         printRanking(name, result.ranking().sortedMap(), result.totalDistance());
         printWeights(result.distanceMatrix().positionWeights());
         printMatrix(result.distanceMatrix().asArray(), result.distanceMatrix().alternatives());
@@ -0,0 +1,110 @@
+package aggregation;
+
+import aggregation.io.BinaryProfileWriter;
+import aggregation.io.JsonProfileReader;
+import aggregation.io.ProfileDataset;
+import aggregation.model.PreferenceProfile;
+import aggregation.model.ProfileGenerator;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Переводит JSON-набор данных в бинарный формат профиля (.agpf), который
+ * {@link Main} и демо загружают отображением в память без разбора.
+ *
+ * С ключом --generate вместо чтения JSON профиль строится {@link ProfileGenerator} с параметрами
+ * ranking_generator.py (-a, -e, -c, --position, --clusters, --balance, --seed) и сразу пишется в .agpf.
+ */
+public final class ProfileConverter {
+
+    private ProfileConverter() {
+    }
+
+    /**
+     * Аргументы: входной JSON и (необязательно) путь результата; по умолчанию — тот же путь с .agpf.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ProfileConverter <input.json> [output.agpf]");
+            System.err.println("       ProfileConverter --generate [-a M] [-e N] [-c LEVEL] [--position uniform|top|bottom]");
+            System.err.println("                        [--clusters K] [--balance B] [--seed S] <output.agpf>");
+            return;
+        }
+        if (args[0].equals("--generate")) {
+            generate(args);
+            return;
+        }
+        Path input = Path.of(args[0]);
+        Path output = args.length > 1
+                ? Path.of(args[1])
+                : input.resolveSibling(input.getFileName().toString().replaceFirst("\\.json$", "") + ".agpf");
+        try {
+            ProfileDataset dataset = new JsonProfileReader().read(input);
+            new BinaryProfileWriter().write(dataset, output);
+            System.out.println("Written " + output + " ("
+                    + dataset.preferenceProfile().rankTable().entryCount() + " rankings)");
+        } catch (Exception e) {
+            System.err.println("Failed to convert dataset: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Генерирует синтетический профиль и записывает его в бинарный формат.
+     */
+    private static void generate(String[] args) {
+        try {
+            int alternatives = 10;
+            long experts = 20;
+            Path output = null;
+            double consensus = 0.5;
+            ProfileGenerator.ConsensusPosition position = ProfileGenerator.ConsensusPosition.UNIFORM;
+            int clusters = 1;
+            double balance = 0.5;
+            Long seed = null;
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("-")) {
+                    output = Path.of(arg);
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "-a", "--alternatives" -> alternatives = Integer.parseInt(value);
+                    case "-e", "--experts" -> experts = Long.parseLong(value);
+                    case "-c", "--consensus" -> consensus = Double.parseDouble(value);
+                    case "--position" -> position = ProfileGenerator.ConsensusPosition.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--clusters" -> clusters = Integer.parseInt(value);
+                    case "--balance" -> balance = Double.parseDouble(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            if (output == null) {
+                throw new IllegalArgumentException("Output path is required");
+            }
+            ProfileGenerator.Builder options = ProfileGenerator.builder(alternatives).consensus(consensus).position(position)
+                    .clusters(clusters, balance);
+            if (seed != null) {
+                options.seed(seed);
+            }
+            ProfileGenerator generator = options.build();
+            PreferenceProfile.Builder builder = PreferenceProfile.builder(generator.universe()).deduplicate();
+            long start = System.nanoTime();
+            generator.generate(experts, builder);
+            PreferenceProfile profile = builder.build();
+            String title = String.format(Locale.ROOT, "Mallows: consensus %.2f, %s, %d cluster(s)",
+                    consensus, position.name().toLowerCase(Locale.ROOT), clusters);
+            ProfileDataset dataset = new ProfileDataset(profile, null, null, title,
+                    "ProfileGenerator (seed " + generator.seed() + ")", builder.report());
+            new BinaryProfileWriter().write(dataset, output);
+            System.out.printf(Locale.ROOT, "Written %s (%d ballots, %d distinct rankings, %.1f s)%n", output, experts,
+                    profile.rankTable().entryCount(), (System.nanoTime() - start) / 1e9);
+        } catch (Exception e) {
+            System.err.println("Failed to generate dataset: " + e.getMessage());
+        }
+    }
+}
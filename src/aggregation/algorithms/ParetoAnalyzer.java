@@ -1,8 +1,9 @@
 package aggregation.algorithms;
 
+import aggregation.kemeny.ProfileContext;
 import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
-import aggregation.model.RankingEntry;
+import aggregation.model.RankTable;
 
 import java.util.*;
 
@@ -34,21 +35,28 @@ public final class ParetoAnalyzer {
      * Анализирует профиль предпочтений на Парето-оптимальность.
      */
     public static ParetoResult analyze(PreferenceProfile profile) {
-        List<Alternative> alternatives = profile.alternatives();
-        List<RankingEntry> entries = profile.entries();
+        return analyze(profile.alternatives(), profile.rankTable());
+    }
+
+    /**
+     * Анализирует профиль из общего контекста (используется его таблица рангов).
+     */
+    public static ParetoResult analyze(ProfileContext context) {
+        return analyze(context.alternatives(), context.rankTable());
+    }
+
+    private static ParetoResult analyze(List<Alternative> alternatives, RankTable table) {
         
         // Строим матрицу рангов: ranks[alt_idx][ranking_idx] = rank
-        int numAlts = alternatives.size();
-        int numRankings = entries.size();
+        int numAlts = table.alternativeCount();
+        int numRankings = table.entryCount();
         int[][] ranks = new int[numAlts][numRankings];
         int[] voterCounts = new int[numRankings];
         
         for (int r = 0; r < numRankings; r++) {
-            RankingEntry entry = entries.get(r);
-            voterCounts[r] = entry.voters();
+            voterCounts[r] = table.voters(r);
             for (int a = 0; a < numAlts; a++) {
-                Alternative alt = alternatives.get(a);
-                ranks[a][r] = entry.ranking().getRank(alt);
+                ranks[a][r] = table.rank(r, a);
             }
         }
         
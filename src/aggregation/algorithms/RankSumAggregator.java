@@ -1,11 +1,14 @@
 package aggregation.algorithms;
 
+import aggregation.kemeny.PositionHistogram;
+import aggregation.kemeny.ProfileContext;
 import aggregation.model.AggregatedRanking;
 import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
-import aggregation.model.RankingEntry;
+import aggregation.model.RankTable;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,21 +20,53 @@ public final class RankSumAggregator {
      * Складывает ранги всех ранжировок с учётом численности голосов.
      */
     public AggregatedRanking aggregate(PreferenceProfile profile) {
-        Map<Alternative, Double> scores = new LinkedHashMap<>();
-        for (Alternative alternative : profile.alternatives()) {
-            scores.put(alternative, 0.0);
-        }
+        return toRanking(profile.alternatives(), rankSums(profile.rankTable()));
+    }
+
+    /**
+     * Считает суммы рангов по гистограмме позиций общего контекста: Σ_r r · h_i(r), O(m²).
+     */
+    public AggregatedRanking aggregate(ProfileContext context) {
+        return toRanking(context.alternatives(), rankSums(context.histogram()));
+    }
 
-        for (RankingEntry entry : profile.entries()) {
-            for (Alternative alternative : profile.alternatives()) {
+    /**
+     * Возвращает суммы рангов по индексам альтернатив таблицы рангов.
+     */
+    public double[] rankSums(RankTable table) {
+        int m = table.alternativeCount();
+        double[] totals = new double[m];
+        for (int e = 0; e < table.entryCount(); e++) {
+            int voters = table.voters(e);
+            for (int i = 0; i < m; i++) {
                 // Каждое место влияет пропорционально числу голосов за данное упорядочение.
-                double current = scores.getOrDefault(alternative, 0.0);
-                double contribution = entry.voters() * entry.ranking().getRank(alternative);
-                scores.put(alternative, current + contribution);
+                totals[i] += voters * table.rank(e, i);
             }
         }
+        return totals;
+    }
 
+    /**
+     * Возвращает суммы рангов по гистограмме позиций.
+     */
+    public double[] rankSums(PositionHistogram histogram) {
+        int m = histogram.alternativeCount();
+        double[] totals = new double[m];
+        for (int i = 0; i < m; i++) {
+            long total = 0;
+            for (int rank = 1; rank <= histogram.rankCount(); rank++) {
+                total += rank * histogram.count(i, rank);
+            }
+            totals[i] = total;
+        }
+        return totals;
+    }
+
+    private static AggregatedRanking toRanking(List<Alternative> alternatives, double[] totals) {
+        Map<Alternative, Double> scores = new LinkedHashMap<>();
+        for (int i = 0; i < alternatives.size(); i++) {
+            scores.put(alternatives.get(i), totals[i]);
+        }
         return new AggregatedRanking(scores, AggregatedRanking.Order.ASCENDING);
     }
 }
-
@@ -3,10 +3,11 @@ package aggregation.algorithms;
 import aggregation.model.AggregatedRanking;
 import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
-import aggregation.model.RankingEntry;
+import aggregation.model.RankTable;
 import aggregation.model.WeightMatrix;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,27 +19,25 @@ public final class WeightedRankSumAggregator {
      * Вычисляет сумму весов с учётом числа голосов для каждой ранжировки.
      */
     public AggregatedRanking aggregate(PreferenceProfile profile, WeightMatrix weights) {
-        if (weights.rows() != profile.entries().size()) {
+        RankTable table = profile.rankTable();
+        if (weights.rows() != table.entryCount()) {
             throw new IllegalArgumentException("Weight matrix must have the same number of rows as ranking entries");
         }
 
-        Map<Alternative, Double> scores = new LinkedHashMap<>();
-        for (Alternative alternative : profile.alternatives()) {
-            scores.put(alternative, 0.0);
-        }
-
-        for (int idx = 0; idx < profile.entries().size(); idx++) {
-            RankingEntry entry = profile.entries().get(idx);
-            Map<Alternative, Double> weightRow = weights.row(idx);
-            for (Alternative alternative : profile.alternatives()) {
-                double weight = weightRow.getOrDefault(alternative, 1.0);
-                double current = scores.get(alternative);
+        List<Alternative> alternatives = profile.alternatives();
+        double[] totals = new double[alternatives.size()];
+        for (int idx = 0; idx < table.entryCount(); idx++) {
+            int voters = table.voters(idx);
+            for (int i = 0; i < totals.length; i++) {
                 // Вклад строки = значение веса (важность места) * число голосов за ранжировку.
-                double contribution = weight * entry.voters();
-                scores.put(alternative, current + contribution);
+                totals[i] += weights.weight(idx, i) * voters;
             }
         }
 
+        Map<Alternative, Double> scores = new LinkedHashMap<>();
+        for (int i = 0; i < totals.length; i++) {
+            scores.put(alternatives.get(i), totals[i]);
+        }
         return new AggregatedRanking(scores, AggregatedRanking.Order.ASCENDING);
     }
 }
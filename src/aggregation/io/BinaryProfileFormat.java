@@ -0,0 +1,84 @@
+package aggregation.io;
+
+import java.nio.ByteOrder;
+
+/**
+ * Раскладка бинарного файла профиля (.agpf), общая для {@link BinaryProfileWriter}
+ * и {@link BinaryProfileReader}. Все числа — little-endian.
+ *
+ * <pre>
+ *  0  int   магия "AGPF"            32 long  суммарное число голосов
+ *  4  int   версия формата          40 long  число исходных бюллетеней (0 — неизвестно)
+ *  8  int   флаги разделов          48 long  смещение блока голосов (конец словаря)
+ * 12  int   m (альтернатив)         56 long  резерв
+ * 16  int   n (записей)
+ * 20  int   ширина ранга: 1, 2, 4
+ * 24  int   наибольший ранг
+ * 28  int   число экспертов в блоке полезностей
+ * 64  словарь: title, source, m имён альтернатив (int длина в байтах UTF-8, -1 — null; байты)
+ * </pre>
+ *
+ * Далее блоки, каждый выровнен на 8 байт: голоса (n × int), ранги и обратные перестановки
+ * (по n × m чисел заданной ширины, строка на запись — как в {@link aggregation.model.RankTable}),
+ * необязательные веса мест (n × m double) и полезности (s double весов экспертов, затем s × m double).
+ * Смещения блоков вычисляются по заголовку и в файле не хранятся.
+ */
+final class BinaryProfileFormat {
+    static final int MAGIC = 0x46504741;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int FLAG_WEIGHTS = 1;
+    static final int FLAG_UTILITIES = 2;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private BinaryProfileFormat() {
+    }
+
+    /**
+     * Смещения блоков после словаря.
+     */
+    record Layout(long voters, long ranks, long order, long weights,
+                  long utilityWeights, long utilities, long end) {
+
+        static Layout of(long dataOffset, int entryCount, int alternativeCount, int width,
+                         int flags, int utilityCount) {
+            long cells = (long) entryCount * alternativeCount;
+            long voters = align(dataOffset);
+            long ranks = align(voters + (long) entryCount * Integer.BYTES);
+            long order = align(ranks + cells * width);
+            long weights = align(order + cells * width);
+            long utilityWeights = weights + ((flags & FLAG_WEIGHTS) != 0 ? cells * Double.BYTES : 0);
+            long utilities = utilityWeights + (long) utilityCount * Double.BYTES;
+            long end = utilities + (long) utilityCount * alternativeCount * Double.BYTES;
+            return new Layout(voters, ranks, order, weights, utilityWeights, utilities, end);
+        }
+    }
+
+    /**
+     * Возвращает наименьшую ширину (в байтах), в которую помещаются ранги и номера альтернатив.
+     */
+    static int width(int alternativeCount, int maxRank) {
+        int max = Math.max(alternativeCount, maxRank);
+        if (max <= Byte.MAX_VALUE) {
+            return 1;
+        }
+        return max <= Short.MAX_VALUE ? 2 : 4;
+    }
+
+    /**
+     * Округляет смещение вверх до границы 8 байт.
+     */
+    static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * Проверяет, что блок можно отобразить одним буфером (не больше 2 ГиБ).
+     */
+    static int blockSize(long bytes, String block) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(block + " block exceeds 2 GiB: " + bytes + " bytes");
+        }
+        return (int) bytes;
+    }
+}
@@ -0,0 +1,189 @@
+package aggregation.io;
+
+import aggregation.io.BinaryProfileFormat.Layout;
+import aggregation.model.AlternativeUniverse;
+import aggregation.model.DeduplicationReport;
+import aggregation.model.PreferenceProfile;
+import aggregation.model.RankTable;
+import aggregation.model.UtilityProfile;
+import aggregation.model.WeightMatrix;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Загрузчик бинарного профиля, записанного {@link BinaryProfileWriter}.
+ *
+ * Голоса, ранги и обратные перестановки не читаются в кучу: их блоки отображаются в память
+ * ({@link FileChannel#map}) и становятся хранилищем {@link RankTable#mapped}, так что решатели
+ * обращаются к страницам файла напрямую, а {@link aggregation.model.Ranking} создаются только
+ * при явном обходе {@link PreferenceProfile#entries()}. Разбирается лишь заголовок и словарь имён;
+ * веса и полезности (небольшие блоки double) копируются в массивы, если раздел запрошен.
+ *
+ * Строки таблицы не проверяются — файл считается записанным {@link BinaryProfileWriter};
+ * проверяются заголовок, словарь и размер файла.
+ */
+public final class BinaryProfileReader {
+    private final Set<ProfileSection> sections;
+
+    /**
+     * Создаёт загрузчик всех разделов файла.
+     */
+    public BinaryProfileReader() {
+        this(EnumSet.allOf(ProfileSection.class));
+    }
+
+    /**
+     * Создаёт загрузчик ранжировок и перечисленных необязательных разделов.
+     */
+    public BinaryProfileReader(Set<ProfileSection> sections) {
+        Objects.requireNonNull(sections, "sections");
+        this.sections = EnumSet.noneOf(ProfileSection.class);
+        this.sections.addAll(sections);
+    }
+
+    /**
+     * Проверяет по сигнатуре, что файл записан в бинарном формате профиля.
+     */
+    public static boolean isBinaryProfile(Path path) throws IOException {
+        Objects.requireNonNull(path, "path");
+        if (!Files.isRegularFile(path) || Files.size(path) < BinaryProfileFormat.HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readFully(channel, 0, Integer.BYTES).getInt() == BinaryProfileFormat.MAGIC;
+        }
+    }
+
+    /**
+     * Отображает файл в память и возвращает {@link ProfileDataset} поверх отображения.
+     */
+    public ProfileDataset read(Path path) throws IOException {
+        Objects.requireNonNull(path, "path");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < BinaryProfileFormat.HEADER_SIZE) {
+                throw new IllegalArgumentException("Not a binary profile: file is too short");
+            }
+            ByteBuffer header = readFully(channel, 0, BinaryProfileFormat.HEADER_SIZE);
+            if (header.getInt() != BinaryProfileFormat.MAGIC) {
+                throw new IllegalArgumentException("Not a binary profile: bad signature");
+            }
+            int version = header.getInt();
+            if (version != BinaryProfileFormat.VERSION) {
+                throw new IllegalArgumentException("Unsupported binary profile version: " + version);
+            }
+            int flags = header.getInt();
+            int m = header.getInt();
+            int n = header.getInt();
+            int width = header.getInt();
+            int maxRank = header.getInt();
+            int utilityCount = header.getInt();
+            long totalVoters = header.getLong();
+            long ballots = header.getLong();
+            long dataOffset = header.getLong();
+            if (m <= 0 || n <= 0 || utilityCount < 0 || dataOffset < BinaryProfileFormat.HEADER_SIZE
+                    || dataOffset > size || width != BinaryProfileFormat.width(m, maxRank)) {
+                throw new IllegalArgumentException("Corrupted binary profile header");
+            }
+            Layout layout = Layout.of(dataOffset, n, m, width, flags, utilityCount);
+            if (layout.end() > size) {
+                throw new IllegalArgumentException("Truncated binary profile: expected "
+                        + layout.end() + " bytes, found " + size);
+            }
+
+            ByteBuffer dictionary = readFully(channel, BinaryProfileFormat.HEADER_SIZE,
+                    BinaryProfileFormat.blockSize(dataOffset - BinaryProfileFormat.HEADER_SIZE, "Dictionary"));
+            String title;
+            String source;
+            AlternativeUniverse universe = new AlternativeUniverse();
+            try {
+                title = readString(dictionary);
+                source = readString(dictionary);
+                for (int i = 0; i < m; i++) {
+                    String name = readString(dictionary);
+                    if (name == null) {
+                        throw new IllegalArgumentException("Alternative name must be non-empty");
+                    }
+                    universe.register(name);
+                }
+            } catch (BufferUnderflowException ex) {
+                throw new IllegalArgumentException("Corrupted binary profile dictionary");
+            }
+
+            RankTable table = RankTable.mapped(m, n, width,
+                    map(channel, layout.ranks(), layout.order() - layout.ranks(), "Rank"),
+                    map(channel, layout.order(), layout.weights() - layout.order(), "Order"),
+                    map(channel, layout.voters(), (long) n * Integer.BYTES, "Voter"),
+                    maxRank, totalVoters);
+            PreferenceProfile profile = PreferenceProfile.fromRankTable(universe, table);
+
+            WeightMatrix weightMatrix = null;
+            if ((flags & BinaryProfileFormat.FLAG_WEIGHTS) != 0 && sections.contains(ProfileSection.WEIGHTS)) {
+                weightMatrix = WeightMatrix.fromDense(profile,
+                        readDoubles(channel, layout.weights(), (long) n * m));
+            }
+            UtilityProfile utilityProfile = null;
+            if ((flags & BinaryProfileFormat.FLAG_UTILITIES) != 0 && sections.contains(ProfileSection.UTILITIES)) {
+                List<Double> weights = new ArrayList<>(utilityCount);
+                for (double weight : readDoubles(channel, layout.utilityWeights(), utilityCount)) {
+                    weights.add(weight);
+                }
+                utilityProfile = UtilityProfile.fromMatrix(profile.alternatives(),
+                        readDoubles(channel, layout.utilities(), (long) utilityCount * m), weights);
+            }
+            boolean metadata = sections.contains(ProfileSection.METADATA);
+            DeduplicationReport deduplication = ballots > 0 ? new DeduplicationReport(ballots, n) : null;
+            return new ProfileDataset(profile, weightMatrix, utilityProfile,
+                    metadata ? title : null, metadata ? source : null, deduplication);
+        }
+    }
+
+    /**
+     * Отображает блок файла только для чтения; отображение живёт дольше закрытого канала.
+     */
+    private static ByteBuffer map(FileChannel channel, long offset, long length, String block) throws IOException {
+        int size = BinaryProfileFormat.blockSize(length, block);
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, size).order(BinaryProfileFormat.ORDER);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(BinaryProfileFormat.ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IllegalArgumentException("Truncated binary profile");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static double[] readDoubles(FileChannel channel, long offset, long count) throws IOException {
+        double[] values = new double[BinaryProfileFormat.blockSize(count, "Double")];
+        map(channel, offset, count * Double.BYTES, "Double").asDoubleBuffer().get(values);
+        return values;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
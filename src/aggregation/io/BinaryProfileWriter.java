@@ -0,0 +1,212 @@
+package aggregation.io;
+
+import aggregation.io.BinaryProfileFormat.Layout;
+import aggregation.model.Alternative;
+import aggregation.model.PreferenceProfile;
+import aggregation.model.RankTable;
+import aggregation.model.UtilityProfile;
+import aggregation.model.UtilityVector;
+import aggregation.model.WeightMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Сохраняет {@link ProfileDataset} в компактный бинарный формат ({@link BinaryProfileFormat}),
+ * который {@link BinaryProfileReader} отображает в память без разбора.
+ *
+ * Ранги пишутся из {@link RankTable} профиля в наименьшей подходящей ширине: байт при m ≤ 127,
+ * short при m ≤ 32767, иначе int. Файл пишется последовательно через буфер фиксированного размера.
+ */
+public final class BinaryProfileWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Записывает набор данных в файл (существующий файл перезаписывается).
+     */
+    public void write(ProfileDataset dataset, Path path) throws IOException {
+        Objects.requireNonNull(dataset, "dataset");
+        Objects.requireNonNull(path, "path");
+        PreferenceProfile profile = dataset.preferenceProfile();
+        RankTable table = profile.rankTable();
+        List<Alternative> alternatives = profile.alternatives();
+        int m = table.alternativeCount();
+        int n = table.entryCount();
+        int width = BinaryProfileFormat.width(m, table.maxRank());
+        WeightMatrix weights = dataset.weightMatrix().orElse(null);
+        UtilityProfile utilities = dataset.utilityProfile().orElse(null);
+        if (utilities != null && !new HashSet<>(utilities.alternatives()).equals(new HashSet<>(alternatives))) {
+            throw new IllegalArgumentException("Utility profile must cover exactly the profile alternatives");
+        }
+
+        byte[] dictionary = dictionary(dataset, alternatives);
+        int flags = (weights != null ? BinaryProfileFormat.FLAG_WEIGHTS : 0)
+                | (utilities != null ? BinaryProfileFormat.FLAG_UTILITIES : 0);
+        int utilityCount = utilities != null ? utilities.weights().size() : 0;
+        long dataOffset = BinaryProfileFormat.HEADER_SIZE + dictionary.length;
+        Layout layout = Layout.of(dataOffset, n, m, width, flags, utilityCount);
+        BinaryProfileFormat.blockSize(layout.order() - layout.ranks(), "Rank");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel);
+            out.putInt(BinaryProfileFormat.MAGIC);
+            out.putInt(BinaryProfileFormat.VERSION);
+            out.putInt(flags);
+            out.putInt(m);
+            out.putInt(n);
+            out.putInt(width);
+            out.putInt(table.maxRank());
+            out.putInt(utilityCount);
+            out.putLong(table.totalVoters());
+            out.putLong(dataset.deduplication().map(report -> report.ballots()).orElse(0L));
+            out.putLong(dataOffset);
+            out.putLong(0L);
+            out.putBytes(dictionary);
+
+            out.padTo(layout.voters());
+            for (int e = 0; e < n; e++) {
+                out.putInt(table.voters(e));
+            }
+            out.padTo(layout.ranks());
+            for (int e = 0; e < n; e++) {
+                for (int i = 0; i < m; i++) {
+                    out.putNumber(table.rank(e, i), width);
+                }
+            }
+            out.padTo(layout.order());
+            for (int e = 0; e < n; e++) {
+                for (int position = 1; position <= m; position++) {
+                    out.putNumber(table.alternativeAt(e, position), width);
+                }
+            }
+            out.padTo(layout.weights());
+            if (weights != null) {
+                for (int e = 0; e < n; e++) {
+                    for (int i = 0; i < m; i++) {
+                        out.putDouble(weights.weight(e, i));
+                    }
+                }
+            }
+            if (utilities != null) {
+                for (double weight : utilities.weights()) {
+                    out.putDouble(weight);
+                }
+                for (UtilityVector vector : utilities.utilities()) {
+                    for (Alternative alternative : alternatives) {
+                        out.putDouble(vector.value(alternative));
+                    }
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Кодирует метаданные и имена альтернатив (в порядке столбцов таблицы рангов).
+     */
+    private static byte[] dictionary(ProfileDataset dataset, List<Alternative> alternatives) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        putString(bytes, dataset.title().orElse(null));
+        putString(bytes, dataset.source().orElse(null));
+        for (Alternative alternative : alternatives) {
+            putString(bytes, alternative.name());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void putString(ByteArrayOutputStream bytes, String value) {
+        byte[] encoded = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        int length = encoded == null ? -1 : encoded.length;
+        ByteBuffer prefix = ByteBuffer.allocate(Integer.BYTES).order(BinaryProfileFormat.ORDER).putInt(length);
+        bytes.write(prefix.array(), 0, Integer.BYTES);
+        if (encoded != null) {
+            bytes.write(encoded, 0, encoded.length);
+        }
+    }
+
+    /**
+     * Последовательная запись в канал через буфер с отслеживанием смещения.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BinaryProfileFormat.ORDER);
+        private long offset;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            offset += Integer.BYTES;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+            offset += Long.BYTES;
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+            offset += Double.BYTES;
+        }
+
+        void putNumber(int value, int width) throws IOException {
+            ensure(width);
+            switch (width) {
+                case 1 -> buffer.put((byte) value);
+                case 2 -> buffer.putShort((short) value);
+                default -> buffer.putInt(value);
+            }
+            offset += width;
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int from = 0;
+            while (from < bytes.length) {
+                ensure(1);
+                int count = Math.min(buffer.remaining(), bytes.length - from);
+                buffer.put(bytes, from, count);
+                from += count;
+                offset += count;
+            }
+        }
+
+        /**
+         * Дописывает нули до смещения target (выравнивание блока).
+         */
+        void padTo(long target) throws IOException {
+            while (offset < target) {
+                ensure(1);
+                buffer.put((byte) 0);
+                offset++;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
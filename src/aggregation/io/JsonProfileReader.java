@@ -1,287 +1,518 @@
 package aggregation.io;
 
+import aggregation.io.JsonTokenizer.Token;
 import aggregation.model.Alternative;
+import aggregation.model.AlternativeUniverse;
 import aggregation.model.PreferenceProfile;
-import aggregation.model.Ranking;
-import aggregation.model.RankingEntry;
 import aggregation.model.UtilityProfile;
 import aggregation.model.WeightMatrix;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Загрузчик профиля предпочтений из JSON-файла, оформленного по договорённому формату.
+ *
+ * Файл читается потоково ({@link JsonTokenizer}), без дерева JSON в памяти: имена альтернатив
+ * из rankings[*].order сразу переводятся в идентификаторы {@link AlternativeUniverse} и пишутся
+ * в таблицу рангов через {@link PreferenceProfile.Builder}. Пиковый расход памяти — порядка
+ * размера итогового профиля. Разделы верхнего уровня могут идти в любом порядке.
+ *
+ * Документ обходится один раз: веса ранжировок и полезности экспертов пишутся в плотные
+ * строки по идентификаторам альтернатив в том же проходе. Разделы, не перечисленные
+ * в {@link ProfileSection}, пропускаются без разбора (например, полезности, когда нужен только Кемени).
  */
 public final class JsonProfileReader {
+    private final Set<ProfileSection> sections;
+
+    /**
+     * Создаёт загрузчик всех разделов файла.
+     */
+    public JsonProfileReader() {
+        this(EnumSet.allOf(ProfileSection.class));
+    }
+
+    /**
+     * Создаёт загрузчик ранжировок и перечисленных необязательных разделов.
+     */
+    public JsonProfileReader(Set<ProfileSection> sections) {
+        Objects.requireNonNull(sections, "sections");
+        this.sections = EnumSet.noneOf(ProfileSection.class);
+        this.sections.addAll(sections);
+    }
 
     /**
      * Читает файл и преобразует его в {@link ProfileDataset}.
      */
     public ProfileDataset read(Path path) throws IOException {
         Objects.requireNonNull(path, "path");
-        String content = Files.readString(path, StandardCharsets.UTF_8);
-        Object rootValue = new SimpleJsonParser(content).parse();
-        Map<String, Object> root = asObject(rootValue, "root");
-
-        Map<String, Alternative> alternativeMap = readAlternatives(root);
-        PreferenceProfile preferenceProfile = readRankings(root, alternativeMap);
-        WeightMatrix weightMatrix = readWeightMatrix(root, preferenceProfile, alternativeMap);
-        UtilityProfile utilityProfile = readUtilityProfile(root, alternativeMap);
-        Map<String, Object> metadata = asObject(root.get("metadata"), "metadata", true);
-
-        String title = metadata != null ? asString(metadata.get("title"), true) : null;
-        String source = metadata != null ? asString(metadata.get("source"), true) : null;
-
-        return new ProfileDataset(preferenceProfile, weightMatrix, utilityProfile, title, source);
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
     }
 
     /**
-     * Читает раздел с альтернативами и создаёт словарь имя -> объект.
+     * Читает набор данных из потока символов (поток не закрывается).
      */
-    private Map<String, Alternative> readAlternatives(Map<String, Object> root) {
-        List<String> names = asStringList(root.get("alternatives"), false);
-        if (names.isEmpty()) {
-            throw new IllegalArgumentException("alternatives array must not be empty");
-        }
-        Map<String, Alternative> map = new LinkedHashMap<>();
-        for (String name : names) {
-            Alternative alternative = new Alternative(name);
-            if (map.putIfAbsent(name, alternative) != null) {
-                throw new IllegalArgumentException("Duplicate alternative: " + name);
-            }
-        }
-        return map;
+    public ProfileDataset read(Reader reader) throws IOException {
+        Objects.requireNonNull(reader, "reader");
+        return new Binding(new JsonTokenizer(reader), sections).read();
     }
 
     /**
-     * Формирует {@link PreferenceProfile} на основе массива ранжировок.
+     * Состояние одного чтения: реестр альтернатив, билдер профиля и необязательные разделы.
      */
-    private PreferenceProfile readRankings(Map<String, Object> root,
-                                           Map<String, Alternative> alternatives) {
-        List<Map<String, Object>> rankings = asObjectList(root.get("rankings"), false);
-        if (rankings.isEmpty()) {
-            throw new IllegalArgumentException("rankings array must not be empty");
+    private static final class Binding {
+        private final JsonTokenizer tokens;
+        private final Set<ProfileSection> sections;
+        private final AlternativeUniverse universe = new AlternativeUniverse();
+        private List<Alternative> declared;
+        private PreferenceProfile.Builder builder;
+        private boolean rankingsSeen;
+        private boolean hasWeights;
+        private int[] order = new int[0];
+        private final NumberRows weightRows = new NumberRows("Missing weight for alternative ");
+        private final NumberRows utilityRows = new NumberRows("Missing utility value for alternative ");
+        private final List<Double> utilityWeights = new ArrayList<>();
+        private String title;
+        private String source;
+
+        Binding(JsonTokenizer tokens, Set<ProfileSection> sections) {
+            this.tokens = tokens;
+            this.sections = sections;
         }
-        List<RankingEntry> entries = new ArrayList<>();
-        for (Map<String, Object> rankingNode : rankings) {
-            List<String> orderNames = asStringList(rankingNode.get("order"), false);
-            if (orderNames.size() != alternatives.size()) {
+
+        ProfileDataset read() throws IOException {
+            if (tokens.peek() != Token.BEGIN_OBJECT) {
+                throw new IllegalArgumentException("Expected object for root");
+            }
+            tokens.beginObject();
+            while (tokens.hasNext()) {
+                switch (tokens.nextName()) {
+                    case "alternatives" -> readAlternatives();
+                    case "rankings" -> readRankings();
+                    case "utilityProfiles" -> skipUnless(ProfileSection.UTILITIES, this::readUtilityProfiles);
+                    case "metadata" -> skipUnless(ProfileSection.METADATA, this::readMetadata);
+                    default -> tokens.skipValue();
+                }
+            }
+            tokens.endObject();
+            tokens.endDocument();
+
+            if (declared == null) {
+                throw new IllegalArgumentException("Expected array of strings");
+            }
+            if (!rankingsSeen) {
+                throw new IllegalArgumentException("Expected array value");
+            }
+            if (builder == null) {
+                throw new IllegalArgumentException("rankings array must not be empty");
+            }
+            requireDeclared();
+            PreferenceProfile profile = builder.build();
+            if (profile.alternatives().size() != declared.size()) {
                 throw new IllegalArgumentException("Ranking order must list all alternatives");
             }
-            List<Alternative> order = orderNames.stream()
-                    .map(name -> requireAlternative(name, alternatives))
-                    .toList();
-            Ranking ranking = Ranking.fromOrder(order);
-            int voters = toPositiveInt(rankingNode.get("voters"), "voters");
-            entries.add(new RankingEntry(ranking, voters));
+            WeightMatrix weightMatrix = hasWeights ? buildWeightMatrix(profile) : null;
+            UtilityProfile utilityProfile = buildUtilityProfile();
+            return new ProfileDataset(profile, weightMatrix, utilityProfile, title, source, builder.report());
         }
-        return new PreferenceProfile(entries);
-    }
 
-    /**
-     * Собирает матрицу весов, если в JSON присутствует поле weights.
-     */
-    private WeightMatrix readWeightMatrix(Map<String, Object> root,
-                                          PreferenceProfile profile,
-                                          Map<String, Alternative> alternatives) {
-        List<Map<String, Object>> rankingNodes = asObjectList(root.get("rankings"), false);
-        boolean hasWeights = rankingNodes.stream().anyMatch(node -> node.containsKey("weights"));
-        if (!hasWeights) {
-            return null;
+        /**
+         * Читает раздел с альтернативами и интернирует их в реестре набора. Ранжировки набора
+         * ссылаются на эти же экземпляры, поэтому ранги в них ищутся по идентификатору.
+         */
+        private void readAlternatives() throws IOException {
+            if (declared != null) {
+                throw new IllegalArgumentException("Duplicate section: alternatives");
+            }
+            requireArray("Expected array of strings");
+            List<Alternative> list = new ArrayList<>();
+            boolean[] seen = new boolean[universe.size()];
+            tokens.beginArray();
+            while (tokens.hasNext()) {
+                String name = nextString();
+                Alternative alternative = universe.intern(name);
+                if (alternative.id() >= seen.length) {
+                    seen = Arrays.copyOf(seen, Math.max(alternative.id() + 1, seen.length * 2));
+                }
+                if (seen[alternative.id()]) {
+                    throw new IllegalArgumentException("Duplicate alternative: " + name);
+                }
+                seen[alternative.id()] = true;
+                list.add(alternative);
+            }
+            tokens.endArray();
+            if (list.isEmpty()) {
+                throw new IllegalArgumentException("alternatives array must not be empty");
+            }
+            declared = List.copyOf(list);
         }
-        WeightMatrix.Builder builder = WeightMatrix.builder(profile);
-        for (Map<String, Object> rankingNode : rankingNodes) {
-            Map<String, Object> weightsNode = asObject(rankingNode.get("weights"), "weights");
-            Map<Alternative, Double> row = new LinkedHashMap<>();
-            for (Alternative alternative : profile.alternatives()) {
-                Object value = weightsNode.get(alternative.name());
-                if (value == null) {
-                    throw new IllegalArgumentException("Missing weight for alternative " + alternative.name());
+
+        /**
+         * Читает массив ранжировок, сразу добавляя каждую в билдер профиля.
+         * Если у первой ранжировки нет собственных весов, одинаковые порядки сливаются в одну запись.
+         */
+        private void readRankings() throws IOException {
+            if (rankingsSeen) {
+                throw new IllegalArgumentException("Duplicate section: rankings");
+            }
+            rankingsSeen = true;
+            requireArray("Expected array value");
+            tokens.beginArray();
+            while (tokens.hasNext()) {
+                if (tokens.peek() != Token.BEGIN_OBJECT) {
+                    throw new IllegalArgumentException("Expected object inside array");
                 }
-                double weight = toPositiveDouble(value, "weight");
-                row.put(alternative, weight);
+                readRanking();
             }
-            builder.addRow(row);
+            tokens.endArray();
         }
-        return builder.build();
-    }
 
-    /**
-     * Строит профиль полезностей (utilityProfiles), если он задан.
-     */
-    private UtilityProfile readUtilityProfile(Map<String, Object> root,
-                                              Map<String, Alternative> alternatives) {
-        List<Map<String, Object>> utilitiesNodes = asObjectList(root.get("utilityProfiles"), true);
-        if (utilitiesNodes == null || utilitiesNodes.isEmpty()) {
-            return null;
+        private void readRanking() throws IOException {
+            int length = -1;
+            double voters = Double.NaN;
+            boolean weights = false;
+            tokens.beginObject();
+            while (tokens.hasNext()) {
+                switch (tokens.nextName()) {
+                    case "order" -> length = readOrder();
+                    case "voters" -> voters = nextNumber();
+                    case "weights" -> {
+                        if (sections.contains(ProfileSection.WEIGHTS)) {
+                            weightRows.readRow("weights");
+                            weights = true;
+                        } else {
+                            tokens.skipValue();
+                        }
+                    }
+                    default -> tokens.skipValue();
+                }
+            }
+            tokens.endObject();
+
+            if (length < 0) {
+                throw new IllegalArgumentException("Expected array of strings");
+            }
+            if (declared != null && length != declared.size()) {
+                throw new IllegalArgumentException("Ranking order must list all alternatives");
+            }
+            int count = (int) voters;
+            if (Double.isNaN(voters) || count <= 0) {
+                throw new IllegalArgumentException("voters must be a positive integer");
+            }
+            if (builder == null) {
+                builder = PreferenceProfile.builder(universe);
+                hasWeights = weights;
+                if (!hasWeights) {
+                    // Строки матрицы весов соответствуют записям один к одному, поэтому при весах не сливаем.
+                    builder.deduplicate();
+                }
+            }
+            if (hasWeights != weights) {
+                throw new IllegalArgumentException("Expected object for weights");
+            }
+            if (order.length != length) {
+                order = Arrays.copyOf(order, length);
+            }
+            builder.addOrder(order, count);
         }
-        List<Double> weights = new ArrayList<>();
-        Map<Alternative, List<Double>> utilitiesByAlternative = new LinkedHashMap<>();
-        for (Alternative alternative : alternatives.values()) {
-            utilitiesByAlternative.put(alternative, new ArrayList<>());
+
+        /**
+         * Читает порядок альтернатив в буфер идентификаторов; возвращает его длину.
+         */
+        private int readOrder() throws IOException {
+            requireArray("Expected array of strings");
+            int length = 0;
+            int[] ids = order.length == 0 ? new int[16] : order;
+            tokens.beginArray();
+            while (tokens.hasNext()) {
+                String name = nextString();
+                // До раздела alternatives имена регистрируются по ходу и сверяются с ним в конце.
+                Alternative alternative = declared != null ? universe.find(name) : universe.intern(name);
+                if (alternative == null) {
+                    throw new IllegalArgumentException("Unknown alternative: " + name);
+                }
+                if (length == ids.length) {
+                    ids = Arrays.copyOf(ids, length * 2);
+                }
+                ids[length++] = alternative.id();
+            }
+            tokens.endArray();
+            order = ids;
+            return length;
         }
-        for (Map<String, Object> node : utilitiesNodes) {
-            double weight = toPositiveDouble(node.get("weight"), "utility weight");
-            weights.add(weight);
-            Map<String, Object> values = asObject(node.get("utilities"), "utilities");
-            for (Alternative alternative : alternatives.values()) {
-                Object rawValue = values.get(alternative.name());
-                if (rawValue == null) {
-                    throw new IllegalArgumentException("Missing utility value for alternative " + alternative.name());
+
+        /**
+         * Читает раздел utilityProfiles (веса экспертов и их полезности).
+         */
+        private void readUtilityProfiles() throws IOException {
+            if (tokens.peek() == Token.NULL) {
+                tokens.skipValue();
+                return;
+            }
+            requireArray("Expected array");
+            tokens.beginArray();
+            while (tokens.hasNext()) {
+                if (tokens.peek() != Token.BEGIN_OBJECT) {
+                    throw new IllegalArgumentException("Expected object inside array");
+                }
+                double weight = Double.NaN;
+                boolean utilities = false;
+                tokens.beginObject();
+                while (tokens.hasNext()) {
+                    switch (tokens.nextName()) {
+                        case "weight" -> weight = nextNumber();
+                        case "utilities" -> {
+                            utilityRows.readRow("utilities");
+                            utilities = true;
+                        }
+                        default -> tokens.skipValue();
+                    }
                 }
-                double utility = toBoundedDouble(rawValue, "utility", 0.0, 1.0);
-                utilitiesByAlternative.get(alternative).add(utility);
+                tokens.endObject();
+                if (!(weight > 0)) {
+                    throw new IllegalArgumentException("utility weight must be a positive number");
+                }
+                if (!utilities) {
+                    throw new IllegalArgumentException("Expected object for utilities");
+                }
+                utilityWeights.add(weight);
             }
+            tokens.endArray();
         }
-        return UtilityProfile.fromRawValues(
-                new ArrayList<>(alternatives.values()),
-                utilitiesByAlternative,
-                weights
-        );
-    }
 
-    @SuppressWarnings("unchecked")
-    /**
-     * Проверяет, что узел является объектом, и приводит его к Map.
-     */
-    private Map<String, Object> asObject(Object node, String name) {
-        if (node instanceof Map<?, ?> map) {
-            return (Map<String, Object>) map;
+        /**
+         * Читает метаданные (title, source); остальные поля пропускаются.
+         */
+        private void readMetadata() throws IOException {
+            if (tokens.peek() == Token.NULL) {
+                tokens.skipValue();
+                return;
+            }
+            if (tokens.peek() != Token.BEGIN_OBJECT) {
+                throw new IllegalArgumentException("Expected object for metadata");
+            }
+            tokens.beginObject();
+            while (tokens.hasNext()) {
+                switch (tokens.nextName()) {
+                    case "title" -> title = nextOptionalString();
+                    case "source" -> source = nextOptionalString();
+                    default -> tokens.skipValue();
+                }
+            }
+            tokens.endObject();
         }
-        throw new IllegalArgumentException("Expected object for " + name);
-    }
 
-    @SuppressWarnings("unchecked")
-    /**
-     * То же, что {@link #asObject(Object, String)}, но допускает отсутствие узла.
-     */
-    private Map<String, Object> asObject(Object node, String name, boolean optional) {
-        if (node == null) {
-            if (optional) {
-                return null;
+        /**
+         * Собирает матрицу весов по строкам, прочитанным вместе с ранжировками.
+         */
+        private WeightMatrix buildWeightMatrix(PreferenceProfile profile) {
+            double[] values = weightRows.resolve(profile.alternatives());
+            for (double value : values) {
+                if (!(value > 0)) {
+                    throw new IllegalArgumentException("weight must be a positive number");
+                }
             }
-            throw new IllegalArgumentException("Missing object: " + name);
+            return WeightMatrix.fromDense(profile, values);
         }
-        return asObject(node, name);
-    }
 
-    @SuppressWarnings("unchecked")
-    /**
-     * Проверяет, что узел — список объектов.
-     */
-    private List<Map<String, Object>> asObjectList(Object node, boolean optional) {
-        if (node == null) {
-            if (optional) {
+        /**
+         * Строит профиль полезностей (utilityProfiles), если он задан.
+         */
+        private UtilityProfile buildUtilityProfile() {
+            if (utilityWeights.isEmpty()) {
                 return null;
             }
-            throw new IllegalArgumentException("Expected array value");
-        }
-        if (node instanceof List<?> list) {
-            List<Map<String, Object>> result = new ArrayList<>();
-            for (Object item : list) {
-                if (!(item instanceof Map<?, ?> map)) {
-                    throw new IllegalArgumentException("Expected object inside array");
+            double[] values = utilityRows.resolve(declared);
+            for (double utility : values) {
+                if (!(utility >= 0.0 && utility <= 1.0)) {
+                    throw new IllegalArgumentException("utility must be in [0.0, 1.0]");
                 }
-                result.add((Map<String, Object>) map);
             }
-            return result;
+            return UtilityProfile.fromMatrix(declared, values, utilityWeights);
         }
-        throw new IllegalArgumentException("Expected array");
-    }
 
-    @SuppressWarnings("unchecked")
-    /**
-     * Проверяет, что узел — список строк, и возвращает его.
-     */
-    private List<String> asStringList(Object node, boolean optional) {
-        if (node == null) {
-            if (optional) {
-                return List.of();
+        /**
+         * Убеждается, что ранжировки не ссылаются на альтернативы вне раздела alternatives.
+         */
+        private void requireDeclared() {
+            if (universe.size() == declared.size()) {
+                return;
+            }
+            boolean[] known = new boolean[universe.size()];
+            for (Alternative alternative : declared) {
+                known[alternative.id()] = true;
+            }
+            for (int id = 0; id < known.length; id++) {
+                if (!known[id]) {
+                    throw new IllegalArgumentException("Unknown alternative: " + universe.get(id).name());
+                }
             }
-            throw new IllegalArgumentException("Expected array of strings");
         }
-        if (node instanceof List<?> list) {
-            List<String> result = new ArrayList<>();
-            for (Object item : list) {
-                result.add(asString(item, false));
+
+        /**
+         * Пропускает значение, если раздел не запрошен, иначе читает его.
+         */
+        private void skipUnless(ProfileSection section, SectionReader reader) throws IOException {
+            if (sections.contains(section)) {
+                reader.read();
+            } else {
+                tokens.skipValue();
             }
-            return result;
         }
-        throw new IllegalArgumentException("Expected array of strings");
-    }
 
-    /**
-     * Преобразует узел к строке или выбрасывает исключение.
-     */
-    private String asString(Object node, boolean optional) {
-        if (node == null) {
-            if (optional) {
-                return null;
+        private void requireArray(String message) throws IOException {
+            if (tokens.peek() != Token.BEGIN_ARRAY) {
+                throw new IllegalArgumentException(message);
             }
-            throw new IllegalArgumentException("Expected string value");
         }
-        if (node instanceof String str) {
-            return str;
+
+        /**
+         * Читает число; нечисловое значение пропускается и возвращается как NaN.
+         */
+        private double nextNumber() throws IOException {
+            if (tokens.peek() == Token.NUMBER) {
+                return tokens.nextDouble();
+            }
+            tokens.skipValue();
+            return Double.NaN;
         }
-        throw new IllegalArgumentException("Expected string value");
-    }
 
-    /**
-     * Достаёт альтернативу по имени, выбрасывая ошибку при неизвестном идентификаторе.
-     */
-    private Alternative requireAlternative(String name, Map<String, Alternative> alternatives) {
-        Alternative alternative = alternatives.get(name);
-        if (alternative == null) {
-            throw new IllegalArgumentException("Unknown alternative: " + name);
+        private String nextString() throws IOException {
+            if (tokens.peek() != Token.STRING) {
+                throw new IllegalArgumentException("Expected string value");
+            }
+            return tokens.nextString();
         }
-        return alternative;
-    }
 
-    /**
-     * Валидирует, что значение — положительное целое.
-     */
-    private int toPositiveInt(Object value, String label) {
-        if (value instanceof Number number) {
-            int intValue = number.intValue();
-            if (intValue > 0) {
-                return intValue;
+        private String nextOptionalString() throws IOException {
+            if (tokens.peek() == Token.NULL) {
+                tokens.skipValue();
+                return null;
             }
+            return nextString();
         }
-        throw new IllegalArgumentException(label + " must be a positive integer");
-    }
 
-    /**
-     * Валидирует, что значение — положительное число.
-     */
-    private double toPositiveDouble(Object value, String label) {
-        if (value instanceof Number number) {
-            double doubleValue = number.doubleValue();
-            if (doubleValue > 0) {
-                return doubleValue;
+        /**
+         * Плотные строки «альтернатива -> число» одного раздела (веса или полезности).
+         *
+         * Значения пишутся по идентификаторам альтернатив: values[row * m + id], где m — размер
+         * раздела alternatives; NaN — значения нет, -∞ — значение не число. Строки, встреченные
+         * раньше раздела alternatives, сохраняются как словари и разрешаются в конце.
+         */
+        private final class NumberRows {
+            private final String missingMessage;
+            private final List<Map<String, Double>> pending = new ArrayList<>();
+            private double[] values = new double[0];
+            private int rows;
+
+            NumberRows(String missingMessage) {
+                this.missingMessage = missingMessage;
+            }
+
+            /**
+             * Читает объект «имя -> число» как очередную строку.
+             */
+            void readRow(String name) throws IOException {
+                if (tokens.peek() != Token.BEGIN_OBJECT) {
+                    throw new IllegalArgumentException("Expected object for " + name);
+                }
+                if (declared == null) {
+                    Map<String, Double> row = new LinkedHashMap<>();
+                    tokens.beginObject();
+                    while (tokens.hasNext()) {
+                        String key = tokens.nextName();
+                        row.put(key, nextCell());
+                    }
+                    tokens.endObject();
+                    pending.add(row);
+                    return;
+                }
+                int m = declared.size();
+                if ((rows + 1) * m > values.length) {
+                    values = Arrays.copyOf(values, Math.max((rows + 1) * m, values.length * 2));
+                }
+                int base = rows * m;
+                Arrays.fill(values, base, base + m, Double.NaN);
+                tokens.beginObject();
+                while (tokens.hasNext()) {
+                    Alternative alternative = universe.find(tokens.nextName());
+                    double value = nextCell();
+                    if (alternative != null && alternative.id() < m) {
+                        values[base + alternative.id()] = value;
+                    }
+                }
+                tokens.endObject();
+                rows++;
+            }
+
+            /**
+             * Возвращает все строки со столбцами в порядке columns: result[row * columns.size() + i].
+             */
+            double[] resolve(List<Alternative> columns) {
+                int m = columns.size();
+                int stride = declared.size();
+                double[] result = new double[(pending.size() + rows) * m];
+                int row = 0;
+                for (Map<String, Double> names : pending) {
+                    double[] byId = new double[universe.size()];
+                    Arrays.fill(byId, Double.NaN);
+                    names.forEach((key, value) -> {
+                        Alternative alternative = universe.find(key);
+                        if (alternative != null) {
+                            byId[alternative.id()] = value;
+                        }
+                    });
+                    fillRow(result, row++, columns, byId, 0);
+                }
+                for (int r = 0; r < rows; r++) {
+                    fillRow(result, row++, columns, values, r * stride);
+                }
+                return result;
+            }
+
+            private void fillRow(double[] result, int row, List<Alternative> columns, double[] source, int base) {
+                int m = columns.size();
+                for (int i = 0; i < m; i++) {
+                    double value = source[base + columns.get(i).id()];
+                    if (Double.isNaN(value)) {
+                        throw new IllegalArgumentException(missingMessage + columns.get(i).name());
+                    }
+                    result[row * m + i] = value;
+                }
+            }
+
+            /**
+             * Читает число ячейки; null — нет значения, прочее — не число.
+             */
+            private double nextCell() throws IOException {
+                Token token = tokens.peek();
+                if (token == Token.NUMBER) {
+                    return tokens.nextDouble();
+                }
+                tokens.skipValue();
+                return token == Token.NULL ? Double.NaN : Double.NEGATIVE_INFINITY;
             }
         }
-        throw new IllegalArgumentException(label + " must be a positive number");
     }
 
     /**
-     * Валидирует, что значение лежит в указанном интервале.
+     * Чтение одного раздела верхнего уровня.
      */
-    private double toBoundedDouble(Object value, String label, double min, double max) {
-        if (value instanceof Number number) {
-            double doubleValue = number.doubleValue();
-            if (doubleValue >= min && doubleValue <= max) {
-                return doubleValue;
-            }
-        }
-        throw new IllegalArgumentException(label + " must be in [" + min + ", " + max + "]");
+    @FunctionalInterface
+    private interface SectionReader {
+        void read() throws IOException;
     }
 }
-
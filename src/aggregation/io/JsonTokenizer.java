@@ -0,0 +1,399 @@
+package aggregation.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Потоковый (pull) разбор JSON поверх {@link Reader} без построения дерева.
+ *
+ * Вызывающий код сам обходит документ: {@link #beginObject()}/{@link #nextName()}/{@link #endObject()},
+ * {@link #beginArray()}/{@link #hasNext()}/{@link #endArray()} и читает скаляры
+ * {@link #nextString()}, {@link #nextDouble()}; ненужные значения пропускаются
+ * {@link #skipValue()}. В памяти держится только буфер символов и стек вложенности,
+ * поэтому расход памяти не зависит от размера файла.
+ */
+final class JsonTokenizer {
+
+    /**
+     * Тип следующего значения или границы.
+     */
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Состояние текущего уровня вложенности.
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long consumed;           // символов до начала буфера (для сообщений об ошибках)
+
+    private int[] stack = new int[32];
+    private int depth = 1;
+    private Token peeked;
+    private final StringBuilder scratch = new StringBuilder();
+
+    /**
+     * Принимает источник символов; закрывать его должен вызывающий код.
+     */
+    JsonTokenizer(Reader reader) {
+        this.reader = reader;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Возвращает тип следующего токена, не потребляя его.
+     */
+    Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = advance();
+        }
+        return peeked;
+    }
+
+    /**
+     * Потребляет '{'.
+     */
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT, "Expected object");
+        push(EMPTY_OBJECT);
+        position++;
+    }
+
+    /**
+     * Потребляет '}'.
+     */
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT, "Expected '}'");
+        depth--;
+        position++;
+    }
+
+    /**
+     * Потребляет '['.
+     */
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY, "Expected array");
+        push(EMPTY_ARRAY);
+        position++;
+    }
+
+    /**
+     * Потребляет ']'.
+     */
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY, "Expected ']'");
+        depth--;
+        position++;
+    }
+
+    /**
+     * Проверяет, есть ли в текущем объекте или массиве ещё элементы.
+     */
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Читает имя поля объекта.
+     */
+    String nextName() throws IOException {
+        expect(Token.NAME, "Expected property name");
+        String name = readString();
+        stack[depth - 1] = DANGLING_NAME;
+        return name;
+    }
+
+    /**
+     * Читает строковое значение.
+     */
+    String nextString() throws IOException {
+        expect(Token.STRING, "Expected string value");
+        return readString();
+    }
+
+    /**
+     * Читает числовое значение.
+     */
+    double nextDouble() throws IOException {
+        expect(Token.NUMBER, "Expected number");
+        scratch.setLength(0);
+        while (fill(1)) {
+            char ch = buffer[position];
+            if ((ch >= '0' && ch <= '9') || ch == '-' || ch == '+' || ch == '.' || ch == 'e' || ch == 'E') {
+                scratch.append(ch);
+                position++;
+            } else {
+                break;
+            }
+        }
+        try {
+            return Double.parseDouble(scratch.toString());
+        } catch (NumberFormatException ex) {
+            throw error("Invalid number literal");
+        }
+    }
+
+    /**
+     * Пропускает следующее значение целиком (вместе с вложенными объектами и массивами).
+     */
+    void skipValue() throws IOException {
+        int level = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    level++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    level++;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    level--;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    level--;
+                }
+                case NAME -> nextName();
+                case STRING -> nextString();
+                case NUMBER -> nextDouble();
+                case BOOLEAN, NULL -> {
+                    peeked = null;
+                    position += buffer[position] == 'f' ? 5 : 4;
+                }
+                case END_DOCUMENT -> throw error("Unexpected end of input");
+            }
+        } while (level > 0);
+    }
+
+    /**
+     * Проверяет, что после корневого значения нет ничего, кроме пробелов.
+     */
+    void endDocument() throws IOException {
+        if (peek() != Token.END_DOCUMENT) {
+            throw error("Unexpected trailing characters");
+        }
+    }
+
+    /**
+     * Определяет следующий токен с учётом разделителей текущего уровня.
+     */
+    private Token advance() throws IOException {
+        int state = stack[depth - 1];
+        switch (state) {
+            case EMPTY_ARRAY -> stack[depth - 1] = NONEMPTY_ARRAY;
+            case NONEMPTY_ARRAY -> {
+                char ch = nextNonWhitespace("Unexpected end of input");
+                if (ch == ']') {
+                    return Token.END_ARRAY;
+                }
+                if (ch != ',') {
+                    throw error("Expected ',' or ']' in array");
+                }
+                position++;
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                char ch = nextNonWhitespace("Unexpected end of input");
+                if (ch == '}') {
+                    return Token.END_OBJECT;
+                }
+                if (state == NONEMPTY_OBJECT) {
+                    if (ch != ',') {
+                        throw error("Expected ',' or '}' in object");
+                    }
+                    position++;
+                    ch = nextNonWhitespace("Unexpected end of input");
+                }
+                if (ch != '"') {
+                    throw error("Expected '\"'");
+                }
+                return Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                if (nextNonWhitespace("Unexpected end of input") != ':') {
+                    throw error("Expected ':'");
+                }
+                position++;
+                stack[depth - 1] = NONEMPTY_OBJECT;
+            }
+            case EMPTY_DOCUMENT -> stack[depth - 1] = NONEMPTY_DOCUMENT;
+            case NONEMPTY_DOCUMENT -> {
+                return skipWhitespace() ? Token.END_DOCUMENT : valueToken(buffer[position]);
+            }
+            default -> throw new IllegalStateException("Unknown tokenizer state " + state);
+        }
+
+        char ch = nextNonWhitespace("Unexpected end of input");
+        if (state == EMPTY_ARRAY && ch == ']') {
+            return Token.END_ARRAY;
+        }
+        return valueToken(ch);
+    }
+
+    private Token valueToken(char ch) throws IOException {
+        return switch (ch) {
+            case '{' -> Token.BEGIN_OBJECT;
+            case '[' -> Token.BEGIN_ARRAY;
+            case '"' -> Token.STRING;
+            case 't' -> literal("true", Token.BOOLEAN);
+            case 'f' -> literal("false", Token.BOOLEAN);
+            case 'n' -> literal("null", Token.NULL);
+            default -> {
+                if (ch == '-' || (ch >= '0' && ch <= '9')) {
+                    yield Token.NUMBER;
+                }
+                throw error("Unexpected character '" + ch + "'");
+            }
+        };
+    }
+
+    /**
+     * Проверяет литерал true/false/null (не потребляя его).
+     */
+    private Token literal(String literal, Token token) throws IOException {
+        if (!fill(literal.length())) {
+            throw error("Expected literal: " + literal);
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (buffer[position + i] != literal.charAt(i)) {
+                throw error("Expected literal: " + literal);
+            }
+        }
+        return token;
+    }
+
+    /**
+     * Читает строковый литерал (позиция — на открывающей кавычке) с escape-последовательностями.
+     */
+    private String readString() throws IOException {
+        position++;
+        scratch.setLength(0);
+        while (true) {
+            int start = position;
+            while (position < limit) {
+                char ch = buffer[position];
+                if (ch == '"') {
+                    scratch.append(buffer, start, position - start);
+                    position++;
+                    return scratch.toString();
+                }
+                if (ch == '\\') {
+                    break;
+                }
+                position++;
+            }
+            scratch.append(buffer, start, position - start);
+            if (position < limit) {
+                position++;
+                scratch.append(readEscape());
+            } else if (!fill(1)) {
+                throw error("Unterminated string literal");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (!fill(1)) {
+            throw error("Incomplete escape sequence");
+        }
+        char esc = buffer[position++];
+        return switch (esc) {
+            case '"', '\\', '/' -> esc;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                if (!fill(4)) {
+                    throw error("Unexpected end of input");
+                }
+                String hex = new String(buffer, position, 4);
+                position += 4;
+                try {
+                    yield (char) Integer.parseInt(hex, 16);
+                } catch (NumberFormatException e) {
+                    throw error("Invalid unicode escape: " + hex);
+                }
+            }
+            default -> throw error("Invalid escape character: " + esc);
+        };
+    }
+
+    private void expect(Token token, String message) throws IOException {
+        if (peek() != token) {
+            throw error(message);
+        }
+        peeked = null;
+    }
+
+    private void push(int state) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = state;
+    }
+
+    private char nextNonWhitespace(String endMessage) throws IOException {
+        if (skipWhitespace()) {
+            throw error(endMessage);
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Пропускает пробелы; возвращает true, если вход закончился.
+     */
+    private boolean skipWhitespace() throws IOException {
+        while (fill(1)) {
+            if (!Character.isWhitespace(buffer[position])) {
+                return false;
+            }
+            position++;
+        }
+        return true;
+    }
+
+    /**
+     * Гарантирует наличие в буфере хотя бы count непрочитанных символов; false — вход закончился.
+     */
+    private boolean fill(int count) throws IOException {
+        if (limit - position >= count) {
+            return true;
+        }
+        consumed += position;
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        while (limit < count) {
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    /**
+     * Формирует исключение с указанием позиции ошибки.
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + (consumed + position));
+    }
+}
@@ -0,0 +1,321 @@
+package aggregation.io;
+
+import aggregation.model.AlternativeUniverse;
+import aggregation.model.PreferenceProfile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Загрузчик порядковых файлов PrefLib (SOC, SOI, TOC, TOI) напрямую в профиль предпочтений —
+ * без промежуточного JSON из convert_preflib.py.
+ *
+ * Файл читается построчно: заголовки "# KEY: value" дают число и имена альтернатив и название,
+ * строки "count: order" сразу пишутся в {@link PreferenceProfile.Builder} (одинаковые порядки
+ * сливаются, как и при загрузке JSON). Порядок задаётся номерами альтернатив 1..m через запятую,
+ * группа равноценных альтернатив — в фигурных скобках: "3: 2,{1,4},3".
+ *
+ * Ранг альтернативы равен 1 + число альтернатив, стоящих строго выше неё (группа {1,4}
+ * после одной альтернативы получает ранг 2 у обеих). Альтернативы, не упомянутые в неполной
+ * ранжировке (SOI, TOI), делят последнее место. Для строгих полных файлов (SOC) профиль
+ * совпадает с полученным через convert_preflib.py и {@link JsonProfileReader}.
+ */
+public final class PrefLibReader {
+    private static final List<String> EXTENSIONS = List.of("soc", "soi", "toc", "toi");
+
+    private final boolean completeOnly;
+    private final ForkJoinPool pool;
+
+    /**
+     * Создаёт загрузчик всех ранжировок; каталоги читаются в общем пуле.
+     */
+    public PrefLibReader() {
+        this(false, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param completeOnly пропускать неполные ранжировки (как --complete-only у конвертера)
+     * @param pool         пул для параллельной загрузки каталога
+     */
+    public PrefLibReader(boolean completeOnly, ForkJoinPool pool) {
+        this.completeOnly = completeOnly;
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
+
+    /**
+     * Проверяет по расширению, что файл — порядковый файл PrefLib.
+     */
+    public static boolean isPrefLibFile(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Читает один файл PrefLib.
+     */
+    public ProfileDataset read(Path path) throws IOException {
+        Objects.requireNonNull(path, "path");
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader, path.getFileName().toString());
+        }
+    }
+
+    /**
+     * Читает файл PrefLib из потока символов (поток не закрывается); fileName задаёт
+     * название по умолчанию и поле источника.
+     */
+    public ProfileDataset read(Reader reader, String fileName) throws IOException {
+        Objects.requireNonNull(reader, "reader");
+        Objects.requireNonNull(fileName, "fileName");
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        return new Parse(fileName).read(lines);
+    }
+
+    /**
+     * Параллельно читает все файлы SOC/SOI/TOC/TOI каталога (без подкаталогов).
+     * Результат упорядочен по имени файла; прочие файлы (info.txt, metadata.csv) пропускаются.
+     */
+    public Map<Path, ProfileDataset> readDirectory(Path directory) throws IOException {
+        Objects.requireNonNull(directory, "directory");
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile)
+                    .filter(PrefLibReader::isPrefLibFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        List<ForkJoinTask<ProfileDataset>> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            tasks.add(pool.submit(() -> read(file)));
+        }
+        Map<Path, ProfileDataset> datasets = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            datasets.put(files.get(i), join(tasks.get(i), files.get(i)));
+        }
+        return datasets;
+    }
+
+    /**
+     * Дожидается задачи и пробрасывает её исключение с именем файла.
+     */
+    private static ProfileDataset join(ForkJoinTask<ProfileDataset> task, Path file) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading " + file);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof IllegalArgumentException bad) {
+                throw new IllegalArgumentException(file.getFileName() + ": " + bad.getMessage(), bad);
+            }
+            throw new IllegalStateException("Failed to read " + file, cause);
+        }
+    }
+
+    /**
+     * Состояние чтения одного файла.
+     */
+    private final class Parse {
+        private final String fileName;
+        private String title;
+        private int alternativeCount = -1;
+        private final Map<Integer, String> names = new LinkedHashMap<>();
+        private PreferenceProfile.Builder builder;
+        private int lineNumber;
+
+        // Буферы текущей строки: номера альтернатив (0-based) и их ранги.
+        private int[] ids = new int[0];
+        private int[] ranks = new int[0];
+        private int[] seen = new int[0];
+        private int stamp;
+
+        Parse(String fileName) {
+            this.fileName = fileName;
+        }
+
+        ProfileDataset read(BufferedReader lines) throws IOException {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.charAt(0) == '#') {
+                    readHeader(line);
+                } else {
+                    readOrder(line);
+                }
+            }
+            if (builder == null) {
+                throw new IllegalArgumentException("PrefLib file contains no rankings");
+            }
+            String stem = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
+            return new ProfileDataset(builder.build(), null, null,
+                    title != null ? title : stem, "PrefLib (" + fileName + ")", builder.report());
+        }
+
+        /**
+         * Разбирает строку "# KEY: value"; неизвестные ключи игнорируются.
+         */
+        private void readHeader(String line) {
+            int colon = line.indexOf(": ");
+            if (colon < 0) {
+                return;
+            }
+            String key = line.substring(1, colon).strip().toLowerCase(Locale.ROOT).replace(' ', '_');
+            String value = line.substring(colon + 2).strip();
+            if (key.equals("title")) {
+                title = value;
+            } else if (key.equals("number_alternatives")) {
+                alternativeCount = parseCount(value, "NUMBER ALTERNATIVES");
+            } else if (key.startsWith("alternative_name_")) {
+                int id = parseCount(key.substring("alternative_name_".length()), "alternative number");
+                names.put(id, value);
+            }
+        }
+
+        /**
+         * Разбирает строку "count: order" и добавляет ранжировку в билдер.
+         */
+        private void readOrder(String line) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw error("Expected 'count: order'");
+            }
+            if (builder == null) {
+                start();
+            }
+            int voters = parseCount(line.substring(0, colon).strip(), "voter count");
+            if (voters <= 0) {
+                throw error("voters must be a positive integer");
+            }
+
+            int m = alternativeCount;
+            stamp++;
+            int length = 0;
+            int placed = 0;             // альтернатив на предыдущих местах
+            int groupStart = -1;        // начало открытой группы { ... } в буфере или -1
+            boolean ties = false;
+            int i = colon + 1;
+            while (i < line.length()) {
+                char ch = line.charAt(i);
+                if (ch >= '0' && ch <= '9') {
+                    int value = 0;
+                    while (i < line.length() && (ch = line.charAt(i)) >= '0' && ch <= '9') {
+                        value = value * 10 + (ch - '0');
+                        if (value > m) {
+                            throw error("Alternative number out of range");
+                        }
+                        i++;
+                    }
+                    if (value < 1) {
+                        throw error("Alternative number out of range");
+                    }
+                    if (seen[value - 1] == stamp) {
+                        throw error("Duplicate alternative in ranking: " + value);
+                    }
+                    seen[value - 1] = stamp;
+                    ids[length] = value - 1;
+                    ranks[length] = placed + 1;
+                    length++;
+                    if (groupStart < 0) {
+                        placed++;
+                    }
+                    continue;
+                }
+                if (ch == '{') {
+                    if (groupStart >= 0) {
+                        throw error("Nested tie group");
+                    }
+                    groupStart = length;
+                } else if (ch == '}') {
+                    if (groupStart < 0) {
+                        throw error("Unbalanced '}'");
+                    }
+                    ties |= length - groupStart > 1;
+                    placed += length - groupStart;
+                    groupStart = -1;
+                } else if (ch != ',' && !Character.isWhitespace(ch)) {
+                    throw error("Unexpected character '" + ch + "'");
+                }
+                i++;
+            }
+            if (groupStart >= 0) {
+                throw error("Unterminated tie group");
+            }
+            if (length == 0) {
+                throw error("Empty ranking");
+            }
+            if (length < m) {
+                if (completeOnly) {
+                    return;
+                }
+                // Неупомянутые альтернативы делят место после всех перечисленных.
+                for (int id = 0; id < m; id++) {
+                    if (seen[id] != stamp) {
+                        ids[length] = id;
+                        ranks[length] = placed + 1;
+                        length++;
+                    }
+                }
+                ties |= length - placed > 1;
+            }
+            if (ties) {
+                builder.addRanked(ids, ranks, voters);
+            } else {
+                builder.addOrder(ids, voters);
+            }
+        }
+
+        /**
+         * Регистрирует альтернативы 1..m в реестре перед первой ранжировкой.
+         */
+        private void start() {
+            if (alternativeCount <= 0) {
+                throw error("NUMBER ALTERNATIVES header must precede the rankings");
+            }
+            AlternativeUniverse universe = new AlternativeUniverse();
+            for (int id = 1; id <= alternativeCount; id++) {
+                universe.register(names.getOrDefault(id, "Alt_" + id));
+            }
+            builder = PreferenceProfile.builder(universe).deduplicate();
+            ids = new int[alternativeCount];
+            ranks = new int[alternativeCount];
+            seen = new int[alternativeCount];
+        }
+
+        private int parseCount(String value, String what) {
+            try {
+                return Integer.parseInt(value.strip());
+            } catch (NumberFormatException ex) {
+                throw error("Invalid " + what + ": " + value);
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at line " + lineNumber);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package aggregation.io;
 
+import aggregation.model.DeduplicationReport;
 import aggregation.model.PreferenceProfile;
 import aggregation.model.UtilityProfile;
 import aggregation.model.WeightMatrix;
@@ -15,6 +16,7 @@ public final class ProfileDataset {
     private final UtilityProfile utilityProfile;
     private final String title;
     private final String source;
+    private final DeduplicationReport deduplication;
 
     /**
      * Создаёт контейнер с прочитанными данными.
@@ -24,6 +26,19 @@ public final class ProfileDataset {
                           UtilityProfile utilityProfile,
                           String title,
                           String source) {
+        this(preferenceProfile, weightMatrix, utilityProfile, title, source, null);
+    }
+
+    /**
+     * Создаёт контейнер с прочитанными данными и итогом слияния одинаковых бюллетеней.
+     */
+    public ProfileDataset(PreferenceProfile preferenceProfile,
+                          WeightMatrix weightMatrix,
+                          UtilityProfile utilityProfile,
+                          String title,
+                          String source,
+                          DeduplicationReport deduplication) {
+        this.deduplication = deduplication;
         this.preferenceProfile = preferenceProfile;
         this.weightMatrix = weightMatrix;
         this.utilityProfile = utilityProfile;
@@ -65,5 +80,11 @@ public final class ProfileDataset {
     public Optional<String> source() {
         return Optional.ofNullable(source).filter(s -> !s.isBlank());
     }
-}
 
+    /**
+     * Возвращает итог слияния одинаковых бюллетеней, если оно выполнялось при загрузке.
+     */
+    public Optional<DeduplicationReport> deduplication() {
+        return Optional.ofNullable(deduplication);
+    }
+}
@@ -0,0 +1,30 @@
+package aggregation.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Выбор загрузчика по файлу: бинарный профиль узнаётся по сигнатуре, файлы PrefLib —
+ * по расширению (.soc, .soi, .toc, .toi), всё остальное читается как JSON.
+ */
+public final class ProfileFiles {
+
+    private ProfileFiles() {
+    }
+
+    /**
+     * Загружает набор данных с перечисленными необязательными разделами.
+     */
+    public static ProfileDataset read(Path path, Set<ProfileSection> sections) throws IOException {
+        Objects.requireNonNull(path, "path");
+        if (BinaryProfileReader.isBinaryProfile(path)) {
+            return new BinaryProfileReader(sections).read(path);
+        }
+        if (PrefLibReader.isPrefLibFile(path)) {
+            return new PrefLibReader().read(path);
+        }
+        return new JsonProfileReader(sections).read(path);
+    }
+}
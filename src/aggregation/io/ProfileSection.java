@@ -0,0 +1,22 @@
+package aggregation.io;
+
+/**
+ * Необязательные разделы JSON-файла, которые {@link JsonProfileReader} может загрузить
+ * вместе с ранжировками. Невыбранные разделы пропускаются без разбора значений.
+ */
+public enum ProfileSection {
+    /**
+     * Веса rankings[*].weights для взвешенной суммы мест.
+     */
+    WEIGHTS,
+
+    /**
+     * Профиль полезностей utilityProfiles для правила Харшаньи.
+     */
+    UTILITIES,
+
+    /**
+     * Метаданные набора (title, source).
+     */
+    METADATA
+}
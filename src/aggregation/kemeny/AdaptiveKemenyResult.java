@@ -4,10 +4,12 @@ import aggregation.model.AggregatedRanking;
 
 /**
  * Результат работы адаптивного метода Кемени.
+ * Поля, не сохранённые по {@link ResultRetention}, равны NaN или null.
  */
 public record AdaptiveKemenyResult(
         AggregatedRanking ranking,
         double totalWeightedDistance,
+        double optimalityGap,
         WeightedDistanceMatrix distanceMatrix,
         PositionEntropyAnalyzer entropyAnalyzer,
         AdaptiveWeightMode mode
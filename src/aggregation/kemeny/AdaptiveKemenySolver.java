@@ -7,6 +7,8 @@ import aggregation.model.PreferenceProfile;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Адаптивный решатель медианы Кемени.
@@ -17,25 +19,69 @@ import java.util.Map;
 public final class AdaptiveKemenySolver {
 
     private final AdaptiveWeightMode mode;
+    private final AssignmentSolver assignmentSolver;
+    private final ForkJoinPool pool;
+    private final ResultRetention retention;
 
     public AdaptiveKemenySolver(AdaptiveWeightMode mode) {
+        this(mode, AssignmentAlgorithm.HUNGARIAN);
+    }
+
+    /**
+     * Создаёт солвер с заданным режимом и алгоритмом задачи о назначениях.
+     * Рабочее пространство алгоритма переиспользуется между вызовами, поэтому солвер не потокобезопасен.
+     */
+    public AdaptiveKemenySolver(AdaptiveWeightMode mode, AssignmentAlgorithm algorithm) {
+        this(mode, algorithm.newSolver());
+    }
+
+    /**
+     * Создаёт солвер с заданным режимом и готовым решателем задачи о назначениях.
+     */
+    public AdaptiveKemenySolver(AdaptiveWeightMode mode, AssignmentSolver assignmentSolver) {
+        this(mode, assignmentSolver, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Создаёт солвер, строящий матрицу профиля в заданном пуле (null — последовательно).
+     */
+    public AdaptiveKemenySolver(AdaptiveWeightMode mode, AssignmentSolver assignmentSolver, ForkJoinPool pool) {
+        this(mode, assignmentSolver, pool, ResultRetention.FULL);
+    }
+
+    /**
+     * Создаёт солвер, сохраняющий в результате только указанную часть (см. {@link ResultRetention}).
+     */
+    public AdaptiveKemenySolver(AdaptiveWeightMode mode, AssignmentSolver assignmentSolver, ForkJoinPool pool,
+                                ResultRetention retention) {
         this.mode = mode;
+        this.assignmentSolver = assignmentSolver;
+        this.pool = pool;
+        this.retention = Objects.requireNonNull(retention, "retention");
     }
 
     /**
      * Решает задачу медианы Кемени с адаптивными весами.
      */
     public AdaptiveKemenyResult solve(PreferenceProfile profile) {
+        return solve(ProfileContext.fromProfile(profile, pool));
+    }
+
+    /**
+     * Решает задачу по общему контексту профиля: энтропии и базовая матрица берутся из контекста
+     * и не пересчитываются, если уже были вычислены другим методом.
+     */
+    public AdaptiveKemenyResult solve(ProfileContext context) {
         // Шаг 1: Анализ энтропии
-        PositionEntropyAnalyzer entropyAnalyzer = PositionEntropyAnalyzer.analyze(profile);
+        PositionEntropyAnalyzer entropyAnalyzer = context.entropyAnalyzer();
         
         // Шаг 2: Преобразование энтропии в веса
         PositionWeightFunction weightFunction = entropyAnalyzer.toWeightFunction(mode);
         
         // Шаг 3: Построение взвешенной матрицы и решение
-        WeightedDistanceMatrix matrix = WeightedDistanceMatrix.fromProfile(profile, weightFunction);
-        double[][] costMatrix = matrix.asArray();
-        int[] assignment = HungarianSolver.solve(costMatrix);
+        WeightedDistanceMatrix matrix = WeightedDistanceMatrix.fromDistanceMatrix(context.distanceMatrix(), weightFunction);
+        int[] assignment = new int[matrix.size()];
+        matrix.solveAssignment(assignmentSolver, assignment);
         
         // Шаг 4: Формирование результата
         List<Alternative> alternatives = matrix.alternatives();
@@ -53,9 +99,10 @@ public final class AdaptiveKemenySolver {
         
         return new AdaptiveKemenyResult(
                 ranking,
-                totalWeightedDistance,
-                matrix,
-                entropyAnalyzer,
+                retention.keepsObjective() ? totalWeightedDistance : Double.NaN,
+                retention.keepsObjective() ? assignmentSolver.optimalityGap() : Double.NaN,
+                retention.keepsDiagnostics() ? matrix : null,
+                retention.keepsDiagnostics() ? entropyAnalyzer : null,
                 mode
         );
     }
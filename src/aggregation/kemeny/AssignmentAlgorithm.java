@@ -0,0 +1,35 @@
+package aggregation.kemeny;
+
+/**
+ * Алгоритм решения задачи о назначениях, используемый решателями медианы Кемени.
+ */
+public enum AssignmentAlgorithm {
+
+    /**
+     * Венгерский алгоритм, O(n³). Используется по умолчанию.
+     */
+    HUNGARIAN,
+
+    /**
+     * Алгоритм Джонкера — Волгенанта (LAPJV): редукция столбцов, аугментирующая
+     * редукция строк и кратчайшие аугментирующие пути. Существенно быстрее на больших m.
+     */
+    JONKER_VOLGENANT,
+
+    /**
+     * Аукционный алгоритм Берцекаса с ε-масштабированием и параллельной фазой ставок.
+     * Приближённый: разрыв оптимальности не превышает {@link AuctionSolver#DEFAULT_TOLERANCE}.
+     */
+    AUCTION;
+
+    /**
+     * Создаёт новый экземпляр решателя с собственным рабочим пространством.
+     */
+    public AssignmentSolver newSolver() {
+        return switch (this) {
+            case HUNGARIAN -> new HungarianSolver();
+            case JONKER_VOLGENANT -> new JonkerVolgenantSolver();
+            case AUCTION -> new AuctionSolver();
+        };
+    }
+}
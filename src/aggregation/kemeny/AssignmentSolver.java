@@ -0,0 +1,68 @@
+package aggregation.kemeny;
+
+/**
+ * Общий интерфейс решателей задачи о назначениях (минимизация стоимости).
+ *
+ * Реализации могут хранить рабочие массивы между вызовами и, как правило, не потокобезопасны.
+ * Прерывание потока останавливает решение с {@link java.util.concurrent.CancellationException}.
+ */
+public interface AssignmentSolver {
+
+    /**
+     * Решает задачу на плоской матрице стоимостей, не изменяя её.
+     *
+     * @param cost       матрица n×n, записанная по строкам: cost[i * n + j]
+     * @param n          размер задачи
+     * @param assignment буфер длиной не меньше n: для строки i — индекс назначенного столбца
+     */
+    void solve(double[] cost, int n, int[] assignment);
+
+    /**
+     * Решает задачу на целочисленной матрице стоимостей, не изменяя её.
+     *
+     * По умолчанию матрица читается по строкам через {@link #solve(CostMatrix, int[])}: каждая строка
+     * переводится в double (точно до 2^53) в буфер решателя, плоская копия n×n не строится.
+     * Реализации с целочисленной арифметикой переопределяют метод и не зависят от порядка
+     * сложения вещественных потенциалов.
+     */
+    default void solve(long[] cost, int n, int[] assignment) {
+        if (cost.length < n * n) {
+            throw new IllegalArgumentException("Cost matrix and assignment buffer must fit problem size " + n);
+        }
+        solve(new CostMatrix() {
+            @Override
+            public int size() {
+                return n;
+            }
+
+            @Override
+            public double value(int row, int column) {
+                return cost[row * n + column];
+            }
+
+            @Override
+            public void copyRow(int row, double[] target) {
+                int rowBase = row * n;
+                for (int column = 0; column < n; column++) {
+                    target[column] = cost[rowBase + column];
+                }
+            }
+        }, assignment);
+    }
+
+    /**
+     * Решает задачу на матрице, читаемой по строкам; assignment — буфер длиной не меньше n.
+     *
+     * Реализации запрашивают строки через {@link CostMatrix#copyRow} в собственный буфер длины n
+     * и не копируют матрицу целиком, поэтому так решаются и матрицы вне кучи ({@link OffHeapCostMatrix}).
+     */
+    void solve(CostMatrix cost, int[] assignment);
+
+    /**
+     * Возвращает верхнюю оценку разрыва между стоимостью последнего найденного назначения и оптимумом.
+     * Для точных алгоритмов равна нулю.
+     */
+    default double optimalityGap() {
+        return 0.0;
+    }
+}
@@ -0,0 +1,330 @@
+package aggregation.kemeny;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Аукционный алгоритм Берцекаса с ε-масштабированием для задачи о назначениях.
+ *
+ * Строки (альтернативы) — участники торгов, столбцы (ранги) — лоты. Выгода участника
+ * i от лота j равна -c_{ij} - p_j. На каждом раунде все неназначенные участники
+ * одновременно (по Якоби) делают ставки; ставки вычисляются параллельно в {@link ForkJoinPool},
+ * а разрешаются последовательно в фиксированном порядке, поэтому результат не зависит
+ * от числа потоков.
+ *
+ * После фазы с шагом ε назначение ε-оптимально: стоимость превышает оптимум не более чем на n·ε.
+ * Фактический разрыв оценивается через двойственную задачу и доступен в {@link #optimalityGap()}.
+ * Для целочисленных стоимостей разрыв меньше 1 означает точный оптимум.
+ *
+ * Участник читает только свою строку, поэтому {@link CostMatrix} (в том числе вне кучи) решается
+ * без плоской копии: строка читается в буфер длины n (свой у каждой параллельной задачи).
+ */
+public final class AuctionSolver implements AssignmentSolver {
+
+    /**
+     * Допустимый разрыв оптимальности по умолчанию.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+
+    private static final double SCALING_FACTOR = 4.0;
+    private static final double PRECISION_FLOOR = 1e-13;
+    private static final int PARALLEL_WORK_THRESHOLD = 1 << 15;
+
+    private final double tolerance;
+    private final ForkJoinPool pool;
+    private double lastGap;
+
+    private double[] prices = new double[0];
+    private int[] owner = new int[0];        // лот -> участник
+    private int[] assigned = new int[0];     // участник -> лот
+    private int[] bidders = new int[0];
+    private int[] nextBidders = new int[0];
+    private int[] bidObject = new int[0];
+    private double[] bidAmount = new double[0];
+    private double[] bestBid = new double[0];
+    private int[] bestBidder = new int[0];
+    private double[] row = new double[0];    // буфер строки CostMatrix для последовательных проходов
+
+    /**
+     * Создаёт решатель с допуском по умолчанию на общем пуле потоков.
+     */
+    public AuctionSolver() {
+        this(DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Создаёт решатель с заданным допуском на общем пуле потоков.
+     *
+     * @param tolerance допустимое превышение итоговой стоимости над оптимумом
+     */
+    public AuctionSolver(double tolerance) {
+        this(tolerance, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Создаёт решатель с заданным допуском и пулом потоков для фазы ставок.
+     */
+    public AuctionSolver(double tolerance, ForkJoinPool pool) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Tolerance must be positive");
+        }
+        this.tolerance = tolerance;
+        this.pool = pool;
+    }
+
+    @Override
+    public void solve(double[] cost, int n, int[] assignment) {
+        if (cost.length < n * n || assignment.length < n) {
+            throw new IllegalArgumentException("Cost matrix and assignment buffer must fit problem size " + n);
+        }
+        run(cost, null, n, assignment);
+    }
+
+    /**
+     * Решает задачу на матрице, читаемой по строкам, без плоской копии.
+     */
+    @Override
+    public void solve(CostMatrix cost, int[] assignment) {
+        int n = cost.size();
+        if (assignment.length < n) {
+            throw new IllegalArgumentException("Assignment buffer must fit problem size " + n);
+        }
+        run(null, cost, n, assignment);
+    }
+
+    /**
+     * Фазы аукциона; при source != null строки берутся из неё, а cost не используется.
+     */
+    private void run(double[] cost, CostMatrix source, int n, int[] assignment) {
+        lastGap = 0.0;
+        if (n == 0) {
+            return;
+        }
+        ensureCapacity(n);
+        if (source != null && row.length < n) {
+            row = new double[prices.length];
+        }
+
+        double minCost = Double.POSITIVE_INFINITY;
+        double maxCost = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double[] values = rowValues(cost, source, i, row);
+            int base = source == null ? i * n : 0;
+            for (int j = 0; j < n; j++) {
+                minCost = Math.min(minCost, values[base + j]);
+                maxCost = Math.max(maxCost, values[base + j]);
+            }
+        }
+        double magnitude = Math.max(Math.abs(minCost), Math.abs(maxCost));
+        // ε не опускается ниже точности double на масштабе цен, иначе ставки перестают расти.
+        double finalEpsilon = Math.max(tolerance / n, magnitude * PRECISION_FLOOR);
+        double epsilon = Math.max((maxCost - minCost) / 2.0, finalEpsilon);
+
+        Arrays.fill(prices, 0, n, 0.0);
+        Arrays.fill(bestBid, 0, n, Double.NEGATIVE_INFINITY);
+        Arrays.fill(bestBidder, 0, n, -1);
+        while (true) {
+            runPhase(cost, source, n, epsilon);
+            if (epsilon <= finalEpsilon) {
+                break;
+            }
+            epsilon = Math.max(epsilon / SCALING_FACTOR, finalEpsilon);
+        }
+
+        System.arraycopy(assigned, 0, assignment, 0, n);
+        lastGap = dualGap(cost, source, n);
+    }
+
+    /**
+     * Возвращает оценку разрыва оптимальности последнего решения (двойственная граница).
+     */
+    @Override
+    public double optimalityGap() {
+        return lastGap;
+    }
+
+    /**
+     * Возвращает заданный допуск.
+     */
+    public double tolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Одна фаза аукциона с фиксированным ε: назначение строится заново, цены сохраняются.
+     */
+    private void runPhase(double[] cost, CostMatrix source, int n, double epsilon) {
+        Arrays.fill(owner, 0, n, -1);
+        Arrays.fill(assigned, 0, n, -1);
+        int count = n;
+        for (int i = 0; i < n; i++) {
+            bidders[i] = i;
+        }
+
+        while (count > 0) {
+            Cancellation.check();
+            computeBids(cost, source, n, epsilon, count);
+
+            for (int k = 0; k < count; k++) {
+                int j = bidObject[k];
+                if (bidAmount[k] > bestBid[j]) {
+                    bestBid[j] = bidAmount[k];
+                    bestBidder[j] = bidders[k];
+                }
+            }
+
+            int nextCount = 0;
+            for (int k = 0; k < count; k++) {
+                int person = bidders[k];
+                int j = bidObject[k];
+                if (bestBidder[j] == person) {
+                    prices[j] = bestBid[j];
+                    int previous = owner[j];
+                    if (previous >= 0) {
+                        assigned[previous] = -1;
+                        nextBidders[nextCount++] = previous;
+                    }
+                    owner[j] = person;
+                    assigned[person] = j;
+                } else {
+                    nextBidders[nextCount++] = person;
+                }
+            }
+            for (int k = 0; k < count; k++) {
+                int j = bidObject[k];
+                bestBid[j] = Double.NEGATIVE_INFINITY;
+                bestBidder[j] = -1;
+            }
+
+            int[] swap = bidders;
+            bidders = nextBidders;
+            nextBidders = swap;
+            count = nextCount;
+        }
+    }
+
+    /**
+     * Вычисляет ставки всех неназначенных участников (параллельно при достаточном объёме работы).
+     */
+    private void computeBids(double[] cost, CostMatrix source, int n, double epsilon, int count) {
+        if (pool == null || (long) count * n < PARALLEL_WORK_THRESHOLD || pool.getParallelism() <= 1) {
+            bidRange(cost, source, row, n, epsilon, 0, count);
+        } else {
+            pool.invoke(new BidTask(cost, source, n, epsilon, 0, count));
+        }
+    }
+
+    /**
+     * Возвращает массив со строкой i: плоскую матрицу cost (строка с i * n) или buffer,
+     * куда строка прочитана из source (с 0).
+     */
+    private static double[] rowValues(double[] cost, CostMatrix source, int i, double[] buffer) {
+        if (source == null) {
+            return cost;
+        }
+        source.copyRow(i, buffer);
+        return buffer;
+    }
+
+    /**
+     * Ставки участников bidders[from..to): лучший лот и приращение цены v1 - v2 + ε.
+     */
+    private void bidRange(double[] cost, CostMatrix source, double[] buffer, int n, double epsilon,
+                          int from, int to) {
+        for (int k = from; k < to; k++) {
+            double[] values = rowValues(cost, source, bidders[k], buffer);
+            int base = source == null ? bidders[k] * n : 0;
+            double best = Double.NEGATIVE_INFINITY;
+            double second = Double.NEGATIVE_INFINITY;
+            int bestObject = 0;
+            for (int j = 0; j < n; j++) {
+                double value = -values[base + j] - prices[j];
+                if (value > best) {
+                    second = best;
+                    best = value;
+                    bestObject = j;
+                } else if (value > second) {
+                    second = value;
+                }
+            }
+            double increment = n == 1 ? epsilon : best - second + epsilon;
+            bidObject[k] = bestObject;
+            bidAmount[k] = prices[bestObject] + increment;
+        }
+    }
+
+    /**
+     * Разрыв между двойственной оценкой Σ_i max_j(-c_ij - p_j) + Σ_j p_j и выгодой назначения.
+     */
+    private double dualGap(double[] cost, CostMatrix source, int n) {
+        double dual = 0.0;
+        double primal = 0.0;
+        for (int i = 0; i < n; i++) {
+            double[] values = rowValues(cost, source, i, row);
+            int base = source == null ? i * n : 0;
+            double best = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < n; j++) {
+                best = Math.max(best, -values[base + j] - prices[j]);
+            }
+            dual += best;
+            primal -= values[base + assigned[i]];
+        }
+        for (int j = 0; j < n; j++) {
+            dual += prices[j];
+        }
+        return Math.max(0.0, dual - primal);
+    }
+
+    /**
+     * Расширяет рабочие массивы под задачу размера n (никогда не сжимает).
+     */
+    private void ensureCapacity(int n) {
+        if (prices.length >= n) {
+            return;
+        }
+        prices = new double[n];
+        owner = new int[n];
+        assigned = new int[n];
+        bidders = new int[n];
+        nextBidders = new int[n];
+        bidObject = new int[n];
+        bidAmount = new double[n];
+        bestBid = new double[n];
+        bestBidder = new int[n];
+    }
+
+    /**
+     * Задача ForkJoin: делит диапазон участников пополам, пока объём работы велик.
+     */
+    private final class BidTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] cost;
+        private final CostMatrix source;
+        private final int n;
+        private final double epsilon;
+        private final int from;
+        private final int to;
+
+        BidTask(double[] cost, CostMatrix source, int n, double epsilon, int from, int to) {
+            this.cost = cost;
+            this.source = source;
+            this.n = n;
+            this.epsilon = epsilon;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (to - from) * n <= PARALLEL_WORK_THRESHOLD || to - from < 2) {
+                bidRange(cost, source, source == null ? null : new double[n], n, epsilon, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BidTask(cost, source, n, epsilon, from, middle),
+                    new BidTask(cost, source, n, epsilon, middle, to));
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package aggregation.kemeny;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Точное решение задачи Кемени — Янга методом ветвей и границ (до 64 альтернатив).
+ *
+ * Порядок строится сверху вниз; узел дерева — уже размещённый префикс и множество оставшихся
+ * альтернатив R (битовая маска long). Постановка j следующим добавляет Σ_{t ∈ R \ {j}} n_{tj}
+ * несогласий. Нижняя граница для R — Σ по парам из R величины min(n_{ij}, n_{ji}); при постановке
+ * j граница растёт ровно на Σ_{t ∈ R \ {j}} max(0, n_{tj} - n_{jt}), т. е. на перевесы против j.
+ *
+ * Отсечения:
+ * - граница не меньше лучшего найденного значения;
+ * - j нельзя ставить сразу после p, если большинство строго предпочитает j альтернативе p
+ *   (перестановка соседей улучшила бы порядок).
+ *
+ * Верхние уровни дерева обходятся параллельно задачами ForkJoin; лучшее значение общее
+ * ({@link AtomicLong}). Значение оптимума не зависит от планирования потоков, но при нескольких
+ * оптимальных порядках возвращаемый может зависеть от него; последовательный обход (pool = null)
+ * детерминирован.
+ */
+final class BranchAndBoundKemeny {
+
+    /**
+     * Наибольшее число альтернатив: оставшиеся хранятся в маске long.
+     */
+    static final int MAX_ALTERNATIVES = Long.SIZE;
+
+    /**
+     * Поддеревья с не меньшим числом оставшихся альтернатив порождают отдельные задачи.
+     */
+    private static final int PARALLEL_MIN_REMAINING = 12;
+    private static final int PARALLEL_MAX_DEPTH = 3;
+
+    private final int size;
+    private final long[] counts;
+    private final long[] excess; // excess[t * m + j] = max(0, n_{tj} - n_{jt})
+    private final AtomicLong bestCost;
+    private int[] bestOrder;
+
+    private BranchAndBoundKemeny(int size, long[] counts, int[] initialOrder, long initialCost) {
+        this.size = size;
+        this.counts = counts;
+        this.excess = new long[size * size];
+        for (int t = 0; t < size; t++) {
+            for (int j = 0; j < size; j++) {
+                excess[t * size + j] = Math.max(0L, counts[t * size + j] - counts[j * size + t]);
+            }
+        }
+        this.bestCost = new AtomicLong(initialCost);
+        this.bestOrder = initialOrder.clone();
+    }
+
+    /**
+     * Возвращает оптимальный порядок (индексы альтернатив от лучшей к худшей).
+     *
+     * @param initialOrder допустимый порядок для начальной верхней границы (например, медиана footrule)
+     */
+    static int[] solve(PairwiseMatrix matrix, int[] initialOrder, ForkJoinPool pool) {
+        int m = matrix.size();
+        if (m > MAX_ALTERNATIVES) {
+            throw new IllegalArgumentException("Branch and bound supports at most "
+                    + MAX_ALTERNATIVES + " alternatives, got " + m);
+        }
+        if (initialOrder.length != m) {
+            throw new IllegalArgumentException("Initial order must contain all " + m + " alternatives");
+        }
+        if (m == 0) {
+            return new int[0];
+        }
+        int[] start = improveByInsertion(matrix, initialOrder);
+        BranchAndBoundKemeny search = new BranchAndBoundKemeny(
+                m, matrix.flatCounts(), start, matrix.kendallDistance(start));
+
+        long all = m == Long.SIZE ? -1L : (1L << m) - 1;
+        long rootBound = 0L;
+        for (int i = 0; i < m; i++) {
+            for (int j = i + 1; j < m; j++) {
+                rootBound += Math.min(search.counts[i * m + j], search.counts[j * m + i]);
+            }
+        }
+        if (rootBound < search.bestCost.get()) {
+            Node root = new Node(new int[m], 0, all, 0L, rootBound);
+            if (pool == null || pool.getParallelism() <= 1) {
+                search.expand(root);
+            } else {
+                pool.invoke(search.new SubtreeTask(root));
+            }
+        }
+        return search.bestOrder;
+    }
+
+    /**
+     * Локальный поиск: переносит альтернативы на лучшее место, пока расстояние уменьшается.
+     * Улучшает начальную верхнюю границу за O(m²) на проход.
+     */
+    static int[] improveByInsertion(PairwiseMatrix matrix, int[] order) {
+        int m = order.length;
+        int[] current = order.clone();
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int from = 0; from < m; from++) {
+                int item = current[from];
+                // Изменение стоимости при переносе item на позицию to (остальные сдвигаются).
+                long delta = 0;
+                long bestDelta = 0;
+                int bestTo = from;
+                for (int to = from - 1; to >= 0; to--) {
+                    delta += matrix.preferring(current[to], item) - matrix.preferring(item, current[to]);
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestTo = to;
+                    }
+                }
+                delta = 0;
+                for (int to = from + 1; to < m; to++) {
+                    delta += matrix.preferring(item, current[to]) - matrix.preferring(current[to], item);
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestTo = to;
+                    }
+                }
+                if (bestTo != from) {
+                    if (bestTo < from) {
+                        System.arraycopy(current, bestTo, current, bestTo + 1, from - bestTo);
+                    } else {
+                        System.arraycopy(current, from + 1, current, from, bestTo - from);
+                    }
+                    current[bestTo] = item;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Последовательный обход поддерева в глубину.
+     */
+    private void expand(Node node) {
+        Cancellation.check();
+        if (node.depth == size) {
+            offer(node.prefix, node.cost);
+            return;
+        }
+        Node[] children = children(node);
+        for (Node child : children) {
+            if (child.bound >= bestCost.get()) {
+                // Потомки упорядочены по возрастанию границы: остальные тоже отсекаются.
+                break;
+            }
+            expand(child);
+        }
+    }
+
+    /**
+     * Порождает допустимых потомков узла, отсортированных по нижней границе.
+     */
+    private Node[] children(Node node) {
+        int last = node.depth == 0 ? -1 : node.prefix[node.depth - 1];
+        long best = bestCost.get();
+        Node[] result = new Node[Long.bitCount(node.remaining)];
+        int count = 0;
+
+        long bits = node.remaining;
+        while (bits != 0) {
+            int j = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            if (last >= 0 && counts[j * size + last] > counts[last * size + j]) {
+                continue;
+            }
+            long rest = node.remaining & ~(1L << j);
+            long placement = 0L;
+            long gain = 0L;
+            long restBits = rest;
+            while (restBits != 0) {
+                int t = Long.numberOfTrailingZeros(restBits);
+                restBits &= restBits - 1;
+                placement += counts[t * size + j];
+                gain += excess[t * size + j];
+            }
+            long bound = node.bound + gain;
+            if (bound >= best) {
+                continue;
+            }
+            int[] prefix = node.prefix.clone();
+            prefix[node.depth] = j;
+            result[count++] = new Node(prefix, node.depth + 1, rest, node.cost + placement, bound);
+        }
+
+        Node[] children = Arrays.copyOf(result, count);
+        Arrays.sort(children, (a, b) -> Long.compare(a.bound, b.bound));
+        return children;
+    }
+
+    /**
+     * Предлагает полный порядок как новое лучшее решение.
+     */
+    private synchronized void offer(int[] order, long cost) {
+        if (cost < bestCost.get()) {
+            bestOrder = order.clone();
+            bestCost.set(cost);
+        }
+    }
+
+    /**
+     * Узел дерева поиска: префикс порядка, оставшиеся альтернативы, накопленная стоимость и граница.
+     */
+    private record Node(int[] prefix, int depth, long remaining, long cost, long bound) {
+    }
+
+    /**
+     * Задача ForkJoin: обходит поддерево, на верхних уровнях порождая задачи для потомков.
+     */
+    private final class SubtreeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Node node;
+
+        SubtreeTask(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            if (node.bound >= bestCost.get()) {
+                return;
+            }
+            int remaining = size - node.depth;
+            if (node.depth >= PARALLEL_MAX_DEPTH || remaining < PARALLEL_MIN_REMAINING) {
+                expand(node);
+                return;
+            }
+            Node[] children = children(node);
+            List<SubtreeTask> tasks = new ArrayList<>(children.length);
+            for (Node child : children) {
+                tasks.add(new SubtreeTask(child));
+            }
+            invokeAll(tasks);
+        }
+    }
+}
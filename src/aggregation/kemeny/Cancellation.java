@@ -0,0 +1,27 @@
+package aggregation.kemeny;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Проверка прерывания в длинных циклах решателей.
+ *
+ * Точные методы на профилях без явного большинства работают часами. Вызывающий, которому
+ * результат больше не нужен (например, пакетный прогон с бюджетом времени), прерывает поток
+ * решателя, и тот выходит на ближайшей проверке с {@link CancellationException}; флаг
+ * прерывания остаётся установленным. В пуле ForkJoin проверка видит прерывание рабочего потока,
+ * которое делает {@link java.util.concurrent.ForkJoinPool#shutdownNow()}.
+ */
+final class Cancellation {
+
+    private Cancellation() {
+    }
+
+    /**
+     * Бросает {@link CancellationException}, если текущий поток прерван.
+     */
+    static void check() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver thread was interrupted");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package aggregation.kemeny;
+
+/**
+ * Квадратная матрица стоимостей n×n, которую решатель задачи о назначениях читает по строкам.
+ *
+ * Решатель не требует плоского массива double: каждый {@link AssignmentSolver} запрашивает одну
+ * строку за раз в свой буфер длины n, поэтому матрица может лежать где угодно — в куче
+ * ({@link DistanceMatrix}, {@link WeightedDistanceMatrix}) или вне её ({@link OffHeapCostMatrix}).
+ * Чтение должно быть безопасно из нескольких потоков.
+ */
+public interface CostMatrix {
+
+    /**
+     * Возвращает размер матрицы n.
+     */
+    int size();
+
+    /**
+     * Возвращает стоимость назначения строки row столбцу column.
+     */
+    double value(int row, int column);
+
+    /**
+     * Копирует строку row в target[0..n).
+     */
+    default void copyRow(int row, double[] target) {
+        int n = size();
+        for (int column = 0; column < n; column++) {
+            target[column] = value(row, column);
+        }
+    }
+}
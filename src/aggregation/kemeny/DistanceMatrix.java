@@ -2,48 +2,69 @@ package aggregation.kemeny;
 
 import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
-import aggregation.model.RankingEntry;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Матрица d_{ik} (расстояние между альтернативой и предполагаемым рангом) для медианы Кемени.
+ *
+ * Все элементы целые (сумма голосов × |k - r|), поэтому матрица хранится только в long и решается
+ * целочисленным венгерским алгоритмом без ошибок округления. Копии в double нет: решатели
+ * с вещественными стоимостями читают строки через {@link #copyRow}, а {@link #asArray()} строит
+ * новую копию при каждом вызове, так что результат с матрицей удерживает лишь массив long.
+ *
+ * Для очень больших m матрицу можно построить вне кучи — {@link OffHeapCostMatrix#fromHistogram}.
  */
-public final class DistanceMatrix {
+public final class DistanceMatrix implements CostMatrix {
     private final List<Alternative> alternatives;
-    private final double[][] distances;
+    private final int size;
+    private final long[] exact;             // по строкам: exact[i * m + k]
 
     /**
      * Приватный конструктор: принимает список альтернатив и готовую матрицу.
      */
-    private DistanceMatrix(List<Alternative> alternatives, double[][] distances) {
+    private DistanceMatrix(List<Alternative> alternatives, long[] exact) {
         this.alternatives = List.copyOf(alternatives);
-        this.distances = distances;
+        this.size = this.alternatives.size();
+        this.exact = exact;
     }
 
     /**
      * Строит матрицу по профилю предпочтений, используя взвешенную метрику Хэмминга.
      */
     public static DistanceMatrix fromProfile(PreferenceProfile profile) {
-        List<Alternative> alternatives = profile.alternatives();
+        return fromHistogram(profile.alternatives(), PositionHistogram.fromProfile(profile));
+    }
+
+    /**
+     * Строит матрицу по профилю в пуле потоков (null — последовательно): гистограмма собирается
+     * по кускам таблицы, строки матрицы — блоками. Результат совпадает с последовательным бит в бит.
+     */
+    public static DistanceMatrix fromProfile(PreferenceProfile profile, ForkJoinPool pool) {
+        return fromHistogram(profile.alternatives(), PositionHistogram.fromTable(profile.rankTable(), pool), pool);
+    }
+
+    /**
+     * Строит матрицу по готовой гистограмме позиций за O(m²).
+     */
+    public static DistanceMatrix fromHistogram(List<Alternative> alternatives, PositionHistogram histogram) {
+        return fromHistogram(alternatives, histogram, null);
+    }
+
+    /**
+     * Строит матрицу по готовой гистограмме, распределяя блоки строк по пулу (null — последовательно).
+     */
+    public static DistanceMatrix fromHistogram(List<Alternative> alternatives, PositionHistogram histogram,
+                                               ForkJoinPool pool) {
         int m = alternatives.size();
-        double[][] matrix = new double[m][m];
-
-        for (int i = 0; i < m; i++) {
-            Alternative alternative = alternatives.get(i);
-            for (int k = 0; k < m; k++) {
-                double sum = 0.0;
-                int rankTarget = k + 1;
-                for (RankingEntry entry : profile.entries()) {
-                    // Суммируем абсолютное отклонение ранга для каждой ранжировки.
-                    int rank = entry.ranking().getRank(alternative);
-                    sum += entry.voters() * Math.abs(rankTarget - rank);
-                }
-                matrix[i][k] = sum;
+        long[] matrix = new long[m * m];
+        // Суммарное абсолютное отклонение рангов берётся из префиксных сумм гистограммы.
+        ParallelCounts.forEachBlock(m, pool, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                histogram.footruleRow(i, matrix, i * m);
             }
-        }
-
+        });
         return new DistanceMatrix(alternatives, matrix);
     }
 
@@ -58,18 +79,56 @@ public final class DistanceMatrix {
      * Возвращает копию матрицы расстояний.
      */
     public double[][] asArray() {
-        double[][] copy = new double[distances.length][distances.length];
-        for (int i = 0; i < distances.length; i++) {
-            copy[i] = Arrays.copyOf(distances[i], distances[i].length);
+        double[][] copy = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            copyRow(i, copy[i]);
         }
         return copy;
     }
 
+    /**
+     * Возвращает точную целочисленную матрицу без копирования (только для решателей пакета).
+     */
+    long[] exactValues() {
+        return exact;
+    }
+
+    /**
+     * Проверяет, что матрицу можно решить точно в long: max d_{ik} · m не превышает 2^53.
+     */
+    boolean fitsExact() {
+        return HungarianSolver.fitsExact(exact, exact.length, size);
+    }
+
+    /**
+     * Возвращает размер матрицы m.
+     */
+    public int size() {
+        return size;
+    }
+
     /**
      * Возвращает расстояние для выбранной строки и столбца.
      */
     public double value(int alternativeIndex, int rankIndex) {
-        return distances[alternativeIndex][rankIndex];
+        return exact[alternativeIndex * size + rankIndex];
     }
-}
 
+    /**
+     * Возвращает точное (целое) расстояние для выбранной строки и столбца.
+     */
+    public long exactValue(int alternativeIndex, int rankIndex) {
+        return exact[alternativeIndex * size + rankIndex];
+    }
+
+    /**
+     * Копирует строку альтернативы в target, не строя копию матрицы в double.
+     */
+    @Override
+    public void copyRow(int row, double[] target) {
+        int rowBase = row * size;
+        for (int k = 0; k < size; k++) {
+            target[k] = exact[rowBase + k];
+        }
+    }
+}
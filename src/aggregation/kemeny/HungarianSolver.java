@@ -4,9 +4,58 @@ import java.util.Arrays;
 
 /**
  * Реализация венгерского алгоритма для задачи о назначениях (минимизация стоимости).
+ *
+ * Экземпляр владеет рабочими массивами (потенциалы, way/p, minv, used) и переиспользует их
+ * между вызовами: после первого решения задачи размера n повторные решения задач того же
+ * или меньшего размера не выделяют память. Экземпляр не потокобезопасен.
+ *
+ * Серия задач, отличающихся только множителями столбцов, решается через {@link #solveScaled}
+ * с тёплым стартом от двойственных потенциалов предыдущего решения.
+ *
+ * Целочисленная матрица ({@link #solve(long[], int, int[])}) решается в арифметике long: потенциалы
+ * и приведённые стоимости точны, поэтому результат не зависит от ошибок округления, а при равных
+ * стоимостях выбор столбца воспроизводим на любой платформе.
+ *
+ * Матрица {@link CostMatrix} (в том числе вне кучи) читается по строке за шаг поиска пути
+ * в буфер длины n, без плоской копии.
+ *
+ * Прямоугольная задача ({@link #solveRectangular}) — rows строк на columns ≥ rows столбцов:
+ * каждой строке назначается свой столбец, часть столбцов остаётся свободной. Алгоритм добавляет
+ * строки по одной, поэтому время O(rows² · columns) — для top-K позиций из m альтернатив это
+ * O(K² · m) вместо O(m³).
  */
-public final class HungarianSolver {
-    private HungarianSolver() {
+public final class HungarianSolver implements AssignmentSolver {
+    /**
+     * Граница для max|c| · n в арифметике long: потенциалы ограничены суммой стоимостей по пути,
+     * и до 2^53 они точны также при переводе в double.
+     */
+    static final long MAX_EXACT_COST_SUM = 1L << 53;
+
+    private double[] u = new double[0]; // потенциалы строк
+    private double[] v = new double[0]; // потенциалы столбцов
+    private double[] minv = new double[0];
+    private boolean[] used = new boolean[0];
+    private boolean[] matched = new boolean[0]; // строки, назначенные до основного цикла
+    private int[] p = new int[0];
+    private int[] way = new int[0];
+    private int[] previousColumn = new int[0]; // строка -> столбец в последнем решении (1-based)
+    private int lastSize = -1; // размер последней решённой задачи (для тёплого старта)
+    private long[] lu = new long[0]; // потенциалы и minv целочисленного режима (выделяются при первом вызове)
+    private long[] lv = new long[0];
+    private long[] lminv = new long[0];
+    private double[] row = new double[0]; // строка CostMatrix, читаемая на шаге поиска пути
+
+    /**
+     * Создаёт решатель с пустым рабочим пространством (расширяется при первом решении).
+     */
+    public HungarianSolver() {
+    }
+
+    /**
+     * Создаёт решатель с рабочим пространством, заранее выделенным под задачи размера capacity.
+     */
+    public HungarianSolver(int capacity) {
+        ensureCapacity(capacity);
     }
 
     /**
@@ -16,33 +65,277 @@ public final class HungarianSolver {
      */
     public static int[] solve(double[][] costMatrix) {
         int n = costMatrix.length;
-        double[][] cost = new double[n][n];
-        for (int i = 0; i < n; i++) {
-            cost[i] = Arrays.copyOf(costMatrix[i], n);
+        int[] assignment = new int[n];
+        // Строки читаются из исходного массива, без плоской копии n×n.
+        new HungarianSolver(n).solve(new CostMatrix() {
+            @Override
+            public int size() {
+                return n;
+            }
+
+            @Override
+            public double value(int row, int column) {
+                return costMatrix[row][column];
+            }
+
+            @Override
+            public void copyRow(int row, double[] target) {
+                System.arraycopy(costMatrix[row], 0, target, 0, n);
+            }
+        }, assignment);
+        return assignment;
+    }
+
+    /**
+     * Решает задачу на плоской матрице стоимостей без её копирования и изменения.
+     *
+     * @param cost       матрица n×n, записанная по строкам: cost[i * n + j]
+     * @param n          размер задачи
+     * @param assignment буфер длиной не меньше n: для строки i — индекс назначенного столбца
+     */
+    @Override
+    public void solve(double[] cost, int n, int[] assignment) {
+        if (cost.length < n * n || assignment.length < n) {
+            throw new IllegalArgumentException("Cost matrix and assignment buffer must fit problem size " + n);
+        }
+        ensureCapacity(n);
+        Arrays.fill(u, 0, n + 1, 0.0);
+        Arrays.fill(v, 0, n + 1, 0.0);
+        Arrays.fill(p, 0, n + 1, 0);
+        Arrays.fill(matched, 0, n + 1, false);
+        run(cost, null, null, n, n, assignment);
+    }
+
+    /**
+     * Решает прямоугольную задачу: каждой из rows строк — свой столбец из columns (rows ≤ columns).
+     *
+     * @param cost       матрица rows×columns по строкам: cost[i * columns + j]
+     * @param assignment буфер длиной не меньше rows: для строки i — индекс назначенного столбца
+     */
+    public void solveRectangular(double[] cost, int rows, int columns, int[] assignment) {
+        checkRectangular(cost.length, rows, columns, assignment);
+        ensureCapacity(columns);
+        Arrays.fill(u, 0, columns + 1, 0.0);
+        Arrays.fill(v, 0, columns + 1, 0.0);
+        Arrays.fill(p, 0, columns + 1, 0);
+        Arrays.fill(matched, 0, columns + 1, false);
+        run(cost, null, null, rows, columns, assignment);
+    }
+
+    /**
+     * Прямоугольная задача на целочисленной матрице, в арифметике long.
+     *
+     * @see #solveRectangular(double[], int, int, int[])
+     */
+    public void solveRectangular(long[] cost, int rows, int columns, int[] assignment) {
+        checkRectangular(cost.length, rows, columns, assignment);
+        runExact(cost, rows, columns, assignment);
+    }
+
+    /**
+     * Решает задачу на матрице, читаемой по строкам (например, {@link OffHeapCostMatrix}):
+     * кроме рабочих массивов длины n память не выделяется.
+     */
+    @Override
+    public void solve(CostMatrix cost, int[] assignment) {
+        int n = cost.size();
+        if (assignment.length < n) {
+            throw new IllegalArgumentException("Assignment buffer must fit problem size " + n);
+        }
+        ensureCapacity(n);
+        if (row.length < n) {
+            row = new double[p.length];
+        }
+        Arrays.fill(u, 0, n + 1, 0.0);
+        Arrays.fill(v, 0, n + 1, 0.0);
+        Arrays.fill(p, 0, n + 1, 0);
+        Arrays.fill(matched, 0, n + 1, false);
+        run(null, null, cost, n, n, assignment);
+    }
+
+    /**
+     * Решает задачу на целочисленной матрице стоимостей точно, в арифметике long.
+     * Наибольшая стоимость по модулю, умноженная на n, не должна превышать 2^53
+     * (иначе потенциалы перестают быть точными и могут переполниться).
+     *
+     * @param cost       матрица n×n, записанная по строкам: cost[i * n + j]
+     * @param n          размер задачи
+     * @param assignment буфер длиной не меньше n: для строки i — индекс назначенного столбца
+     */
+    @Override
+    public void solve(long[] cost, int n, int[] assignment) {
+        if (cost.length < n * n || assignment.length < n) {
+            throw new IllegalArgumentException("Cost matrix and assignment buffer must fit problem size " + n);
+        }
+        runExact(cost, n, n, assignment);
+    }
+
+    /**
+     * Целочисленный вариант основного цикла для rows строк на n столбцов (rows ≤ n).
+     */
+    private void runExact(long[] cost, int rows, int n, int[] assignment) {
+        long maxCost = 0;
+        for (int cell = 0; cell < rows * n; cell++) {
+            maxCost = Math.max(maxCost, Math.abs(cost[cell]));
+        }
+        if (!fitsExact(maxCost, n)) {
+            throw new IllegalArgumentException("Costs up to " + maxCost + " on " + n
+                    + " columns exceed 2^53; solve the problem in double instead");
+        }
+        ensureCapacity(n);
+        if (lu.length < n + 1) {
+            lu = new long[p.length];
+            lv = new long[p.length];
+            lminv = new long[p.length];
+        }
+        Arrays.fill(lu, 0, n + 1, 0L);
+        Arrays.fill(lv, 0, n + 1, 0L);
+        Arrays.fill(p, 0, n + 1, 0);
+        Arrays.fill(way, 0, n + 1, 0);
+
+        for (int i = 1; i <= rows; i++) {
+            Cancellation.check();
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(lminv, 0, n + 1, Long.MAX_VALUE);
+            Arrays.fill(used, 0, n + 1, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                int rowBase = (i0 - 1) * n;
+                long delta = Long.MAX_VALUE;
+                int j1 = 0;
+                for (int j = 1; j <= n; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    long current = cost[rowBase + j - 1] - lu[i0] - lv[j];
+                    if (current < lminv[j]) {
+                        lminv[j] = current;
+                        way[j] = j0;
+                    }
+                    if (lminv[j] < delta) {
+                        delta = lminv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= n; j++) {
+                    if (used[j]) {
+                        lu[p[j]] += delta;
+                        lv[j] -= delta;
+                    } else {
+                        lminv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
         }
 
-        double[] u = new double[n + 1]; // потенциалы строк
-        double[] v = new double[n + 1];
-        int[] p = new int[n + 1];
-        int[] way = new int[n + 1];
+        for (int j = 1; j <= n; j++) {
+            if (p[j] != 0) {
+                assignment[p[j] - 1] = j - 1;
+                previousColumn[p[j]] = j;
+            }
+            // Потенциалы столбцов переносятся в вещественные для тёплого старта solveScaled.
+            v[j] = lv[j];
+        }
+        lastSize = rows == n ? n : -1;
+    }
 
-        for (int i = 1; i <= n; i++) {
+    /**
+     * Решает задачу со стоимостями c_{ij} = columnScale[j] · base[i * n + j], не строя матрицу c.
+     *
+     * При warmStart = true и том же n, что и в предыдущем вызове, потенциалы столбцов v берутся
+     * из предыдущего решения, а потенциалы строк — как u_i = min_j (c_{ij} - v_j). Это допустимая
+     * двойственная точка; для близких весовых функций она почти оптимальна, и большинство строк
+     * назначается за один просмотр вместо полного поиска пути.
+     *
+     * @param base        невзвешенная матрица n×n по строкам
+     * @param columnScale множители столбцов (веса позиций phi(k))
+     * @param warmStart   продолжить с двойственных потенциалов предыдущего решения
+     */
+    public void solveScaled(double[] base, double[] columnScale, int n, int[] assignment, boolean warmStart) {
+        if (base.length < n * n || columnScale.length < n || assignment.length < n) {
+            throw new IllegalArgumentException("Cost matrix and assignment buffer must fit problem size " + n);
+        }
+        ensureCapacity(n);
+        Arrays.fill(p, 0, n + 1, 0);
+        Arrays.fill(matched, 0, n + 1, false);
+        if (warmStart && n == lastSize) {
+            // Строка сразу получает столбец с нулевой приведённой стоимостью, если он ещё свободен;
+            // поиск пути остаётся только для конфликтующих строк.
+            for (int i = 1; i <= n; i++) {
+                int rowBase = (i - 1) * n;
+                double min = Double.POSITIVE_INFINITY;
+                int argMin = 0;
+                for (int j = 1; j <= n; j++) {
+                    double reduced = columnScale[j - 1] * base[rowBase + j - 1] - v[j];
+                    if (reduced < min) {
+                        min = reduced;
+                        argMin = j;
+                    }
+                }
+                u[i] = min;
+                // При равенстве приведённых стоимостей предпочитаем столбец из прошлого решения.
+                int previous = previousColumn[i];
+                if (columnScale[previous - 1] * base[rowBase + previous - 1] - v[previous] == min) {
+                    argMin = previous;
+                }
+                if (p[argMin] == 0) {
+                    p[argMin] = i;
+                    matched[i] = true;
+                }
+            }
+            u[0] = 0.0;
+            v[0] = 0.0;
+        } else {
+            Arrays.fill(u, 0, n + 1, 0.0);
+            Arrays.fill(v, 0, n + 1, 0.0);
+        }
+        run(base, columnScale, null, n, n, assignment);
+    }
+
+    /**
+     * Основной цикл: добавляет недостающие строки по одной, начиная с текущих потенциалов u, v
+     * и частичного паросочетания p (строки из него отмечены в matched).
+     * scale = null означает стоимости без масштабирования; при source != null строки берутся из неё,
+     * а cost не используется. Строк rows, столбцов n (rows ≤ n).
+     */
+    private void run(double[] cost, double[] scale, CostMatrix source, int rows, int n, int[] assignment) {
+        Arrays.fill(way, 0, n + 1, 0);
+
+        for (int i = 1; i <= rows; i++) {
+            Cancellation.check();
+            if (matched[i]) {
+                continue;
+            }
             p[0] = i;
             int j0 = 0;
-            double[] minv = new double[n + 1];
-            boolean[] used = new boolean[n + 1];
-            Arrays.fill(minv, Double.POSITIVE_INFINITY);
-            Arrays.fill(used, false);
+            Arrays.fill(minv, 0, n + 1, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, 0, n + 1, false);
             do {
                 used[j0] = true;
                 int i0 = p[j0];
+                double[] values = cost;
+                int rowBase = (i0 - 1) * n;
+                if (source != null) {
+                    source.copyRow(i0 - 1, row);
+                    values = row;
+                    rowBase = 0;
+                }
                 double delta = Double.POSITIVE_INFINITY;
                 int j1 = 0;
                 for (int j = 1; j <= n; j++) {
                     if (used[j]) {
                         continue;
                     }
-                    double current = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                    double c = scale == null ? values[rowBase + j - 1] : scale[j - 1] * values[rowBase + j - 1];
+                    double current = c - u[i0] - v[j];
                     if (current < minv[j]) {
                         minv[j] = current;
                         way[j] = j0;
@@ -69,13 +362,58 @@ public final class HungarianSolver {
             } while (j0 != 0);
         }
 
-        int[] assignment = new int[n];
         for (int j = 1; j <= n; j++) {
             if (p[j] != 0) {
                 assignment[p[j] - 1] = j - 1;
+                previousColumn[p[j]] = j;
             }
         }
-        return assignment;
+        lastSize = rows == n ? n : -1;
     }
-}
 
+    /**
+     * Проверяет, что целочисленная задача с n столбцами и стоимостями до maxCost по модулю
+     * решается в long точно (max|c| · n ≤ 2^53).
+     */
+    static boolean fitsExact(long maxCost, int n) {
+        return maxCost >= 0 && maxCost <= MAX_EXACT_COST_SUM / Math.max(1, n);
+    }
+
+    /**
+     * Проверяет ту же границу для первых cells элементов целой матрицы на n столбцов.
+     */
+    static boolean fitsExact(long[] cost, int cells, int n) {
+        long maxCost = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            maxCost = Math.max(maxCost, Math.abs(cost[cell]));
+        }
+        return fitsExact(maxCost, n);
+    }
+
+    private static void checkRectangular(int cells, int rows, int columns, int[] assignment) {
+        if (rows > columns) {
+            throw new IllegalArgumentException("Rectangular problem needs rows <= columns, got " + rows + "x" + columns);
+        }
+        if (cells < (long) rows * columns || assignment.length < rows) {
+            throw new IllegalArgumentException("Cost matrix and assignment buffer must fit problem size "
+                    + rows + "x" + columns);
+        }
+    }
+
+    /**
+     * Расширяет рабочие массивы под задачу размера n (никогда не сжимает).
+     */
+    private void ensureCapacity(int n) {
+        if (p.length >= n + 1) {
+            return;
+        }
+        u = new double[n + 1];
+        v = new double[n + 1];
+        minv = new double[n + 1];
+        used = new boolean[n + 1];
+        matched = new boolean[n + 1];
+        p = new int[n + 1];
+        way = new int[n + 1];
+        previousColumn = new int[n + 1];
+    }
+}
@@ -0,0 +1,320 @@
+package aggregation.kemeny;
+
+import java.util.Arrays;
+
+/**
+ * Алгоритм Джонкера — Волгенанта (LAPJV) для плотной задачи о назначениях.
+ *
+ * Этапы:
+ * 1. Редукция столбцов: v[j] = min_i c[i][j], жадное начальное назначение.
+ * 2. Перенос редукции на строки с единственным назначением.
+ * 3. Аугментирующая редукция строк (два прохода) для свободных строк.
+ * 4. Кратчайшие аугментирующие пути (Дейкстра по приведённым стоимостям) для оставшихся.
+ *
+ * Все этапы читают матрицу по строкам (минимумы столбцов собираются за один проход по строкам),
+ * поэтому {@link CostMatrix}, в том числе {@link OffHeapCostMatrix}, решается без плоской копии:
+ * строка читается в буфер длины n, когда она нужна.
+ *
+ * Как и {@link HungarianSolver}, экземпляр переиспользует рабочие массивы и не потокобезопасен.
+ */
+public final class JonkerVolgenantSolver implements AssignmentSolver {
+    private double[] v = new double[0];   // потенциалы столбцов
+    private double[] d = new double[0];   // расстояния в поиске кратчайшего пути
+    private int[] rowSolution = new int[0];
+    private int[] colSolution = new int[0];
+    private int[] free = new int[0];
+    private int[] matches = new int[0];
+    private int[] columns = new int[0];
+    private int[] predecessors = new int[0];
+    private int[] columnMinRow = new int[0]; // строка минимума столбца на этапе редукции
+    private double[] row = new double[0];    // строка CostMatrix, прочитанная последней
+
+    /**
+     * Создаёт решатель с пустым рабочим пространством (расширяется при первом решении).
+     */
+    public JonkerVolgenantSolver() {
+    }
+
+    /**
+     * Создаёт решатель с рабочим пространством, заранее выделенным под задачи размера capacity.
+     */
+    public JonkerVolgenantSolver(int capacity) {
+        ensureCapacity(capacity);
+    }
+
+    @Override
+    public void solve(double[] cost, int n, int[] assignment) {
+        if (cost.length < n * n || assignment.length < n) {
+            throw new IllegalArgumentException("Cost matrix and assignment buffer must fit problem size " + n);
+        }
+        run(cost, null, n, assignment);
+    }
+
+    /**
+     * Решает задачу на матрице, читаемой по строкам: кроме рабочих массивов длины n память не выделяется.
+     */
+    @Override
+    public void solve(CostMatrix cost, int[] assignment) {
+        int n = cost.size();
+        if (assignment.length < n) {
+            throw new IllegalArgumentException("Assignment buffer must fit problem size " + n);
+        }
+        run(null, cost, n, assignment);
+    }
+
+    /**
+     * Все этапы LAPJV; при source != null строки берутся из неё, а cost не используется.
+     */
+    private void run(double[] cost, CostMatrix source, int n, int[] assignment) {
+        if (n == 0) {
+            return;
+        }
+        if (n == 1) {
+            assignment[0] = 0;
+            return;
+        }
+        ensureCapacity(n);
+        if (source != null && row.length < n) {
+            row = new double[rowSolution.length];
+        }
+        Arrays.fill(matches, 0, n, 0);
+
+        int numFree = reduceColumns(cost, source, n);
+        for (int pass = 0; pass < 2 && numFree > 0; pass++) {
+            numFree = augmentingRowReduction(cost, source, n, numFree);
+        }
+        for (int f = 0; f < numFree; f++) {
+            Cancellation.check();
+            augment(cost, source, n, free[f]);
+        }
+
+        System.arraycopy(rowSolution, 0, assignment, 0, n);
+    }
+
+    /**
+     * Возвращает массив, в котором лежит строка i: плоскую матрицу cost (строка начинается
+     * с i * n) или буфер row, куда строка прочитана из source (начинается с 0).
+     */
+    private double[] rowValues(double[] cost, CostMatrix source, int i) {
+        if (source == null) {
+            return cost;
+        }
+        source.copyRow(i, row);
+        return row;
+    }
+
+    /**
+     * Редукция столбцов и перенос редукции; возвращает число свободных строк.
+     */
+    private int reduceColumns(double[] cost, CostMatrix source, int n) {
+        // Минимумы столбцов за один проход по строкам; при равенстве остаётся строка с меньшим номером.
+        for (int i = 0; i < n; i++) {
+            double[] values = rowValues(cost, source, i);
+            int base = source == null ? i * n : 0;
+            for (int j = 0; j < n; j++) {
+                double c = values[base + j];
+                if (i == 0 || c < v[j]) {
+                    v[j] = c;
+                    columnMinRow[j] = i;
+                }
+            }
+        }
+
+        for (int j = n - 1; j >= 0; j--) {
+            int iMin = columnMinRow[j];
+            if (++matches[iMin] == 1) {
+                rowSolution[iMin] = j;
+                colSolution[j] = iMin;
+            } else if (v[j] < v[rowSolution[iMin]]) {
+                // Строка iMin уже занята: оставляем за ней столбец с меньшим минимумом.
+                int j1 = rowSolution[iMin];
+                rowSolution[iMin] = j;
+                colSolution[j] = iMin;
+                colSolution[j1] = -1;
+            } else {
+                colSolution[j] = -1;
+            }
+        }
+
+        int numFree = 0;
+        for (int i = 0; i < n; i++) {
+            if (matches[i] == 0) {
+                free[numFree++] = i;
+            } else if (matches[i] == 1) {
+                // Перенос редукции: строке с единственным столбцом достаётся весь запас до второго минимума.
+                int j1 = rowSolution[i];
+                double[] values = rowValues(cost, source, i);
+                int base = source == null ? i * n : 0;
+                double min = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < n; j++) {
+                    if (j != j1) {
+                        double h = values[base + j] - v[j];
+                        if (h < min) {
+                            min = h;
+                        }
+                    }
+                }
+                v[j1] -= min;
+            }
+        }
+        return numFree;
+    }
+
+    /**
+     * Один проход аугментирующей редукции строк; возвращает новое число свободных строк.
+     */
+    private int augmentingRowReduction(double[] cost, CostMatrix source, int n, int previousFree) {
+        int k = 0;
+        int numFree = 0;
+        while (k < previousFree) {
+            int i = free[k++];
+            double[] values = rowValues(cost, source, i);
+            int base = source == null ? i * n : 0;
+
+            // Минимум и второй минимум приведённой стоимости в строке i.
+            double uMin = values[base] - v[0];
+            double uSubMin = Double.POSITIVE_INFINITY;
+            int j1 = 0;
+            int j2 = -1;
+            for (int j = 1; j < n; j++) {
+                double h = values[base + j] - v[j];
+                if (h < uSubMin) {
+                    if (h >= uMin) {
+                        uSubMin = h;
+                        j2 = j;
+                    } else {
+                        uSubMin = uMin;
+                        uMin = h;
+                        j2 = j1;
+                        j1 = j;
+                    }
+                }
+            }
+
+            int i0 = colSolution[j1];
+            boolean strict = uMin < uSubMin;
+            if (strict) {
+                // Снижаем цену столбца j1 так, чтобы он остался лучшим для строки i.
+                v[j1] -= uSubMin - uMin;
+            } else if (i0 >= 0) {
+                // Минимумы равны и j1 занят: берём столбец второго минимума.
+                j1 = j2;
+                i0 = colSolution[j2];
+            }
+
+            rowSolution[i] = j1;
+            colSolution[j1] = i;
+            if (i0 >= 0) {
+                if (strict) {
+                    free[--k] = i0;
+                } else {
+                    free[numFree++] = i0;
+                }
+            }
+        }
+        return numFree;
+    }
+
+    /**
+     * Строит кратчайший аугментирующий путь из свободной строки и перестраивает назначение.
+     */
+    private void augment(double[] cost, CostMatrix source, int n, int freeRow) {
+        double[] freeValues = rowValues(cost, source, freeRow);
+        int freeBase = source == null ? freeRow * n : 0;
+        for (int j = 0; j < n; j++) {
+            d[j] = freeValues[freeBase + j] - v[j];
+            predecessors[j] = freeRow;
+            columns[j] = j;
+        }
+
+        // columns[0..low) — обработанные столбцы, [low..up) — с минимальным d, [up..n) — остальные.
+        int low = 0;
+        int up = 0;
+        int last = 0;
+        int endOfPath = -1;
+        double min = 0.0;
+        while (endOfPath < 0) {
+            if (up == low) {
+                last = low - 1;
+                min = d[columns[up++]];
+                for (int k = up; k < n; k++) {
+                    int j = columns[k];
+                    double h = d[j];
+                    if (h <= min) {
+                        if (h < min) {
+                            up = low;
+                            min = h;
+                        }
+                        columns[k] = columns[up];
+                        columns[up++] = j;
+                    }
+                }
+                for (int k = low; k < up; k++) {
+                    if (colSolution[columns[k]] < 0) {
+                        endOfPath = columns[k];
+                        break;
+                    }
+                }
+            }
+            if (endOfPath >= 0) {
+                break;
+            }
+
+            int j1 = columns[low++];
+            int i = colSolution[j1];
+            double[] values = rowValues(cost, source, i);
+            int base = source == null ? i * n : 0;
+            double h = values[base + j1] - v[j1] - min;
+            for (int k = up; k < n; k++) {
+                int j = columns[k];
+                double v2 = values[base + j] - v[j] - h;
+                if (v2 < d[j]) {
+                    predecessors[j] = i;
+                    if (v2 == min) {
+                        if (colSolution[j] < 0) {
+                            endOfPath = j;
+                            break;
+                        }
+                        columns[k] = columns[up];
+                        columns[up++] = j;
+                    }
+                    d[j] = v2;
+                }
+            }
+        }
+
+        // Обновляем цены обработанных столбцов.
+        for (int k = 0; k <= last; k++) {
+            int j1 = columns[k];
+            v[j1] += d[j1] - min;
+        }
+
+        // Перестраиваем назначение вдоль чередующегося пути.
+        int i;
+        do {
+            i = predecessors[endOfPath];
+            colSolution[endOfPath] = i;
+            int j1 = endOfPath;
+            endOfPath = rowSolution[i];
+            rowSolution[i] = j1;
+        } while (i != freeRow);
+    }
+
+    /**
+     * Расширяет рабочие массивы под задачу размера n (никогда не сжимает).
+     */
+    private void ensureCapacity(int n) {
+        if (rowSolution.length >= n) {
+            return;
+        }
+        v = new double[n];
+        d = new double[n];
+        rowSolution = new int[n];
+        colSolution = new int[n];
+        free = new int[n];
+        matches = new int[n];
+        columns = new int[n];
+        predecessors = new int[n];
+        columnMinRow = new int[n];
+    }
+}
@@ -4,22 +4,80 @@ import aggregation.model.AggregatedRanking;
 import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Решает задачу поиска медианы Кемени через сведение к задаче о назначениях.
  */
 public final class KemenyMedianSolver {
 
+    private final AssignmentSolver assignmentSolver;
+    private final ForkJoinPool pool;
+    private final ResultRetention retention;
+
+    /**
+     * Создаёт солвер с венгерским алгоритмом.
+     */
+    public KemenyMedianSolver() {
+        this(AssignmentAlgorithm.HUNGARIAN);
+    }
+
+    /**
+     * Создаёт солвер с заданным алгоритмом задачи о назначениях.
+     * Рабочее пространство алгоритма переиспользуется между вызовами, поэтому солвер не потокобезопасен.
+     */
+    public KemenyMedianSolver(AssignmentAlgorithm algorithm) {
+        this(algorithm.newSolver());
+    }
+
+    /**
+     * Создаёт солвер с готовым решателем задачи о назначениях (например, с настроенным допуском).
+     */
+    public KemenyMedianSolver(AssignmentSolver assignmentSolver) {
+        this(assignmentSolver, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Создаёт солвер, строящий матрицу профиля в заданном пуле (null — последовательно).
+     */
+    public KemenyMedianSolver(AssignmentSolver assignmentSolver, ForkJoinPool pool) {
+        this(assignmentSolver, pool, ResultRetention.FULL);
+    }
+
+    /**
+     * Создаёт солвер, сохраняющий в результате только указанную часть (см. {@link ResultRetention}).
+     */
+    public KemenyMedianSolver(AssignmentSolver assignmentSolver, ForkJoinPool pool, ResultRetention retention) {
+        this.assignmentSolver = assignmentSolver;
+        this.pool = pool;
+        this.retention = Objects.requireNonNull(retention, "retention");
+    }
+
     /**
      * Возвращает оптимальное ранжирование и минимальное расстояние \(d^*\).
      */
     public KemenyResult solve(PreferenceProfile profile) {
-        DistanceMatrix matrix = DistanceMatrix.fromProfile(profile);
-        double[][] costMatrix = matrix.asArray();
-        int[] assignment = HungarianSolver.solve(costMatrix);
+        return solve(ProfileContext.fromProfile(profile, pool));
+    }
+
+    /**
+     * Решает задачу по общему контексту профиля, переиспользуя его матрицу расстояний.
+     */
+    public KemenyResult solve(ProfileContext context) {
+        DistanceMatrix matrix = context.distanceMatrix();
+        int[] assignment = new int[matrix.size()];
+        // Невзвешенная матрица всегда целая: решаем точно, без вещественных потенциалов,
+        // а за границей 2^53 — в double по строкам.
+        if (matrix.fitsExact()) {
+            assignmentSolver.solve(matrix.exactValues(), matrix.size(), assignment);
+        } else {
+            assignmentSolver.solve(matrix, assignment);
+        }
 
         List<Alternative> alternatives = matrix.alternatives();
         Map<Alternative, Double> ranks = new LinkedHashMap<>();
@@ -33,7 +91,132 @@ public final class KemenyMedianSolver {
         }
 
         AggregatedRanking ranking = new AggregatedRanking(ranks, AggregatedRanking.Order.ASCENDING);
-        return new KemenyResult(ranking, totalDistance, matrix);
+        return new KemenyResult(ranking,
+                retention.keepsObjective() ? totalDistance : Double.NaN,
+                retention.keepsObjective() ? assignmentSolver.optimalityGap() : Double.NaN,
+                retention.keepsDiagnostics() ? matrix : null);
     }
-}
 
+    /**
+     * Решает задачу на матрице вне кучи: d_{ik} строится из гистограммы контекста прямо в
+     * {@link OffHeapCostMatrix} заданной точности, матрица m×m в куче не создаётся, а заданный
+     * решатель назначения читает её по строкам.
+     *
+     * Результат не содержит матрицы (distanceMatrix = null); расстояние считается точно по
+     * гистограмме, в том числе для {@link OffHeapCostMatrix.Precision#FLOAT}.
+     */
+    public KemenyResult solveOffHeap(ProfileContext context, OffHeapCostMatrix.Precision precision) {
+        PositionHistogram histogram = context.histogram();
+        OffHeapCostMatrix matrix = OffHeapCostMatrix.fromHistogram(histogram, precision, pool);
+        int[] assignment = new int[matrix.size()];
+        assignmentSolver.solve(matrix, assignment);
+
+        List<Alternative> alternatives = context.alternatives();
+        long[] distances = assignedDistances(histogram, assignment);
+        Map<Alternative, Double> ranks = new LinkedHashMap<>();
+        double totalDistance = 0.0;
+        for (int i = 0; i < alternatives.size(); i++) {
+            totalDistance += distances[i];
+            ranks.put(alternatives.get(i), (double) (assignment[i] + 1));
+        }
+
+        AggregatedRanking ranking = new AggregatedRanking(ranks, AggregatedRanking.Order.ASCENDING);
+        return new KemenyResult(ranking,
+                retention.keepsObjective() ? totalDistance : Double.NaN,
+                retention.keepsObjective() ? assignmentSolver.optimalityGap() : Double.NaN,
+                null);
+    }
+
+    /**
+     * Точные расстояния d_{i, assignment[i]} по гистограмме, без матрицы m×m.
+     */
+    static long[] assignedDistances(PositionHistogram histogram, int[] assignment) {
+        int m = assignment.length;
+        long[] row = new long[m];
+        long[] distances = new long[m];
+        for (int i = 0; i < m; i++) {
+            histogram.footruleRow(i, row, 0, assignment[i] + 1);
+            distances[i] = row[assignment[i]];
+        }
+        return distances;
+    }
+
+    /**
+     * Находит только первые k мест консенсуса: прямоугольная задача k позиций × m альтернатив
+     * решается венгерским алгоритмом за O(k²·m) (точно в long, за границей 2^53 — в double),
+     * а матрица m×m не строится.
+     */
+    public KemenyTopKResult solveTopK(PreferenceProfile profile, int k) {
+        return solveTopK(ProfileContext.fromProfile(profile, pool), k);
+    }
+
+    /**
+     * Находит первые k мест консенсуса по общему контексту профиля (берётся его гистограмма).
+     */
+    public KemenyTopKResult solveTopK(ProfileContext context, int k) {
+        List<Alternative> alternatives = context.alternatives();
+        int m = alternatives.size();
+        long[] cost = topKCosts(context.histogram(), m, k, pool);
+        int[] assignment = new int[k];
+        HungarianSolver solver = hungarianSolver(assignmentSolver);
+        if (HungarianSolver.fitsExact(cost, cost.length, m)) {
+            solver.solveRectangular(cost, k, m, assignment);
+        } else {
+            double[] converted = new double[cost.length];
+            for (int cell = 0; cell < cost.length; cell++) {
+                converted[cell] = cost[cell];
+            }
+            solver.solveRectangular(converted, k, m, assignment);
+        }
+
+        double[] positionDistances = new double[k];
+        for (int position = 0; position < k; position++) {
+            positionDistances[position] = cost[position * m + assignment[position]];
+        }
+        return toTopKResult(alternatives, assignment, positionDistances);
+    }
+
+    /**
+     * Матрица k×m стоимостей «позиция — альтернатива»: cost[k' * m + i] = d_{i,k'+1}.
+     * Из каждой строки гистограммы берутся только первые k столбцов.
+     */
+    static long[] topKCosts(PositionHistogram histogram, int m, int k, ForkJoinPool pool) {
+        if (k < 1 || k > m) {
+            throw new IllegalArgumentException("k must be in [1, " + m + "], got " + k);
+        }
+        long[] cost = new long[k * m];
+        ParallelCounts.forEachBlock(m, pool, (from, to) -> {
+            long[] row = new long[k];
+            for (int i = from; i < to; i++) {
+                histogram.footruleRow(i, row, 0, k);
+                for (int position = 0; position < k; position++) {
+                    cost[position * m + i] = row[position];
+                }
+            }
+        });
+        return cost;
+    }
+
+    /**
+     * Решатель прямоугольных задач top-K: заданный, если он венгерский, иначе новый венгерский
+     * (LAPJV и аукцион решают только квадратные задачи).
+     */
+    static HungarianSolver hungarianSolver(AssignmentSolver assignmentSolver) {
+        return assignmentSolver instanceof HungarianSolver hungarian ? hungarian : new HungarianSolver();
+    }
+
+    /**
+     * Собирает результат top-K по назначению позиций альтернативам.
+     */
+    static KemenyTopKResult toTopKResult(List<Alternative> alternatives, int[] assignment, double[] positionDistances) {
+        List<Alternative> leaders = new ArrayList<>(assignment.length);
+        List<Double> distances = new ArrayList<>(assignment.length);
+        double totalDistance = 0.0;
+        for (int position = 0; position < assignment.length; position++) {
+            leaders.add(alternatives.get(assignment[position]));
+            distances.add(positionDistances[position]);
+            totalDistance += positionDistances[position];
+        }
+        return new KemenyTopKResult(leaders, distances, totalDistance);
+    }
+}
@@ -4,9 +4,12 @@ import aggregation.model.AggregatedRanking;
 
 /**
  * Результат расчёта медианы Кемени: ранжировка, минимальное расстояние и матрица дистанций.
+ * optimalityGap — оценка разрыва до оптимума, сообщённая алгоритмом назначения (0 для точных).
+ * Поля, не сохранённые по {@link ResultRetention}, равны NaN или null.
  */
 public record KemenyResult(AggregatedRanking ranking,
                            double totalDistance,
+                           double optimalityGap,
                            DistanceMatrix distanceMatrix) {
 }
 
@@ -0,0 +1,29 @@
+package aggregation.kemeny;
+
+import aggregation.model.Alternative;
+
+import java.util.List;
+
+/**
+ * Первые K мест консенсуса: альтернативы на позициях 1..K и точный вклад каждой позиции
+ * в суммарное расстояние (d_{ik} или phi(k)·d_{ik}).
+ *
+ * Назначение минимизирует сумму только по первым K позициям, поэтому может отличаться от начала
+ * полной медианы: там верхние места иногда уступаются ради стоимости нижних.
+ */
+public record KemenyTopKResult(List<Alternative> leaders,
+                               List<Double> positionDistances,
+                               double totalDistance) {
+
+    public KemenyTopKResult {
+        leaders = List.copyOf(leaders);
+        positionDistances = List.copyOf(positionDistances);
+    }
+
+    /**
+     * Возвращает K — число найденных мест.
+     */
+    public int size() {
+        return leaders.size();
+    }
+}
@@ -0,0 +1,28 @@
+package aggregation.kemeny;
+
+/**
+ * Точный метод поиска медианы Кемени — Янга.
+ */
+public enum KemenyYoungAlgorithm {
+
+    /**
+     * Разбиение на компоненты сильной связности графа большинства, затем для каждого блока
+     * динамическое программирование до {@link SubsetKemenyDp#MAX_ALTERNATIVES} альтернатив,
+     * далее ветви и границы. Ограничение на размер действует на блок, а не на весь профиль.
+     * Используется по умолчанию.
+     */
+    AUTOMATIC,
+
+    /**
+     * Динамическое программирование по подмножествам для всего профиля без декомпозиции:
+     * O(2^m · m) времени и 8 · 2^m байт памяти.
+     */
+    SUBSET_DP,
+
+    /**
+     * Ветви и границы для всего профиля без декомпозиции, с начальной границей от медианы footrule
+     * (до 64 альтернатив).
+     * Время зависит от согласованности профиля; на профилях с явным большинством — доли секунды.
+     */
+    BRANCH_AND_BOUND
+}
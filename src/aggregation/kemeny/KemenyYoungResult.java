@@ -0,0 +1,26 @@
+package aggregation.kemeny;
+
+import aggregation.model.AggregatedRanking;
+import aggregation.model.Alternative;
+
+import java.util.List;
+
+/**
+ * Результат точного решения задачи Кемени — Янга: ранжировка, минимальное расстояние Кендалла
+ * до профиля и матрица парных предпочтений. optimalityGap — разрыв до оптимума (0 для точных методов).
+ * components — блоки, решённые независимо (от лучшего к худшему); без декомпозиции блок один.
+ * Без диагностики ({@link ResultRetention}) матрица равна null, а список блоков пуст.
+ */
+public record KemenyYoungResult(AggregatedRanking ranking,
+                                double totalDistance,
+                                double optimalityGap,
+                                PairwiseMatrix pairwiseMatrix,
+                                List<List<Alternative>> components) {
+
+    /**
+     * Возвращает размер наибольшего блока — ту часть задачи, которая решалась переборными методами.
+     */
+    public int largestComponent() {
+        return components.stream().mapToInt(List::size).max().orElse(0);
+    }
+}
@@ -0,0 +1,237 @@
+package aggregation.kemeny;
+
+import aggregation.model.AggregatedRanking;
+import aggregation.model.Alternative;
+import aggregation.model.PreferenceProfile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Точная медиана Кемени — Янга: ранжировка, минимизирующая суммарное расстояние Кендалла до профиля.
+ *
+ * В отличие от {@link KemenyMedianSolver}, который минимизирует footrule Спирмена через задачу
+ * о назначениях, здесь оптимизируется число попарных несогласий. Задача NP-трудна, поэтому
+ * в автоматическом режиме профиль сначала разбивается на компоненты сильной связности графа
+ * большинства ({@link MajorityComponents}); блоки решаются независимо (мелкие — параллельно)
+ * и склеиваются в порядке конденсации. Каждый блок до 25 альтернатив решается динамическим
+ * программированием по подмножествам, до 64 — ветвями и границами с начальной границей
+ * от медианы footrule, которая даёт 2-приближение по Кендаллу.
+ *
+ * Поиск прерываем: если поток решателя (или рабочие потоки пула после shutdownNow) прерван,
+ * решение завершается с {@link java.util.concurrent.CancellationException}.
+ */
+public final class KemenyYoungSolver {
+
+    /**
+     * Блоки не больше этого размера решаются параллельно друг с другом (каждый последовательно),
+     * чтобы одновременно не держать в памяти несколько больших таблиц ДП.
+     */
+    private static final int PARALLEL_COMPONENT_LIMIT = 16;
+
+    private final KemenyYoungAlgorithm algorithm;
+    private final ForkJoinPool pool;
+    private final ResultRetention retention;
+
+    /**
+     * Создаёт солвер с автоматическим выбором метода на общем пуле потоков.
+     */
+    public KemenyYoungSolver() {
+        this(KemenyYoungAlgorithm.AUTOMATIC);
+    }
+
+    /**
+     * Создаёт солвер с заданным методом на общем пуле потоков.
+     */
+    public KemenyYoungSolver(KemenyYoungAlgorithm algorithm) {
+        this(algorithm, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Создаёт солвер с заданным методом и пулом потоков (null — последовательный расчёт).
+     */
+    public KemenyYoungSolver(KemenyYoungAlgorithm algorithm, ForkJoinPool pool) {
+        this(algorithm, pool, ResultRetention.FULL);
+    }
+
+    /**
+     * Создаёт солвер, сохраняющий в результате только указанную часть (см. {@link ResultRetention});
+     * без диагностики результат не держит матрицу парных предпочтений и список блоков.
+     */
+    public KemenyYoungSolver(KemenyYoungAlgorithm algorithm, ForkJoinPool pool, ResultRetention retention) {
+        this.algorithm = algorithm;
+        this.pool = pool;
+        this.retention = Objects.requireNonNull(retention, "retention");
+    }
+
+    /**
+     * Возвращает оптимальное ранжирование и минимальное расстояние Кендалла.
+     */
+    public KemenyYoungResult solve(PreferenceProfile profile) {
+        return solve(ProfileContext.fromProfile(profile, pool));
+    }
+
+    /**
+     * Решает задачу по общему контексту профиля (парная матрица и матрица footrule берутся из него).
+     */
+    public KemenyYoungResult solve(ProfileContext context) {
+        PairwiseMatrix matrix = context.pairwiseMatrix();
+        return solve(matrix, () -> footruleOrder(context, matrix.alternatives()));
+    }
+
+    /**
+     * Решает задачу по готовой матрице парных предпочтений.
+     * Для ветвей и границ начальный порядок берётся по убыванию суммы n_{ij} (правило Борда).
+     */
+    public KemenyYoungResult solve(PairwiseMatrix matrix) {
+        return solve(matrix, () -> bordaOrder(matrix));
+    }
+
+    private KemenyYoungResult solve(PairwiseMatrix matrix, Supplier<int[]> initialOrder) {
+        int m = matrix.size();
+        int[][] components = algorithm == KemenyYoungAlgorithm.AUTOMATIC
+                ? MajorityComponents.decompose(matrix)
+                : new int[][]{identity(m)};
+
+        // Начальный порядок нужен только ветвям и границам; считаем его один раз до параллельной части.
+        int[] globalOrder = null;
+        for (int[] component : components) {
+            if (usesBranchAndBound(component.length)) {
+                globalOrder = initialOrder.get();
+                break;
+            }
+        }
+
+        int[][] localOrders = new int[components.length][];
+        List<ForkJoinTask<?>> smallTasks = new ArrayList<>();
+        for (int c = 0; c < components.length; c++) {
+            int[] component = components[c];
+            int[] start = globalOrder;
+            int slot = c;
+            if (component.length <= PARALLEL_COMPONENT_LIMIT) {
+                smallTasks.add(ForkJoinTask.adapt(() ->
+                        localOrders[slot] = solveComponent(matrix, component, start, null)));
+            } else {
+                // Крупные блоки решаются по очереди, но каждый — с внутренним параллелизмом.
+                localOrders[slot] = solveComponent(matrix, component, start, pool);
+            }
+        }
+        if (pool == null || pool.getParallelism() <= 1 || smallTasks.size() < 2) {
+            smallTasks.forEach(ForkJoinTask::invoke);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(smallTasks)));
+        }
+
+        int[] order = new int[m];
+        List<List<Alternative>> blocks = new ArrayList<>(components.length);
+        List<Alternative> alternatives = matrix.alternatives();
+        int position = 0;
+        for (int c = 0; c < components.length; c++) {
+            List<Alternative> block = new ArrayList<>(components[c].length);
+            for (int local : localOrders[c]) {
+                int global = components[c][local];
+                order[position++] = global;
+                block.add(alternatives.get(global));
+            }
+            blocks.add(List.copyOf(block));
+        }
+
+        Map<Alternative, Double> ranks = new LinkedHashMap<>();
+        for (int p = 0; p < order.length; p++) {
+            ranks.put(alternatives.get(order[p]), (double) (p + 1));
+        }
+
+        AggregatedRanking ranking = new AggregatedRanking(ranks, AggregatedRanking.Order.ASCENDING);
+        if (!retention.keepsDiagnostics()) {
+            return new KemenyYoungResult(ranking,
+                    retention.keepsObjective() ? matrix.kendallDistance(order) : Double.NaN,
+                    retention.keepsObjective() ? 0.0 : Double.NaN,
+                    null, List.of());
+        }
+        return new KemenyYoungResult(ranking, matrix.kendallDistance(order), 0.0, matrix, List.copyOf(blocks));
+    }
+
+    /**
+     * Решает один блок; возвращает порядок в локальных индексах блока.
+     */
+    private int[] solveComponent(PairwiseMatrix matrix, int[] component, int[] globalOrder, ForkJoinPool executor) {
+        if (component.length == 1) {
+            return new int[]{0};
+        }
+        PairwiseMatrix sub = component.length == matrix.size() ? matrix : matrix.restrict(component);
+        if (!usesBranchAndBound(component.length)) {
+            return SubsetKemenyDp.solve(sub, executor);
+        }
+        // Начальный порядок блока — подпоследовательность глобального начального порядка.
+        int[] localIndex = new int[matrix.size()];
+        Arrays.fill(localIndex, -1);
+        for (int local = 0; local < component.length; local++) {
+            localIndex[component[local]] = local;
+        }
+        int[] start = new int[component.length];
+        int next = 0;
+        for (int global : globalOrder) {
+            if (localIndex[global] >= 0) {
+                start[next++] = localIndex[global];
+            }
+        }
+        return BranchAndBoundKemeny.solve(sub, start, executor);
+    }
+
+    private boolean usesBranchAndBound(int size) {
+        return switch (algorithm) {
+            case AUTOMATIC -> size > SubsetKemenyDp.MAX_ALTERNATIVES;
+            case SUBSET_DP -> false;
+            case BRANCH_AND_BOUND -> true;
+        };
+    }
+
+    /**
+     * Медиана footrule: места из задачи о назначениях превращаются в порядок альтернатив.
+     */
+    private static int[] footruleOrder(ProfileContext context, List<Alternative> alternatives) {
+        KemenyResult footrule = new KemenyMedianSolver().solve(context);
+        int[] order = new int[alternatives.size()];
+        for (int i = 0; i < alternatives.size(); i++) {
+            int position = footrule.ranking().scores().get(alternatives.get(i)).intValue();
+            order[position - 1] = i;
+        }
+        return order;
+    }
+
+    private static int[] identity(int m) {
+        int[] indices = new int[m];
+        for (int i = 0; i < m; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Порядок по убыванию числа побеждённых в парах голосов (сумма строки n_{ij}).
+     */
+    private static int[] bordaOrder(PairwiseMatrix matrix) {
+        int m = matrix.size();
+        long[] scores = new long[m];
+        Integer[] indices = new Integer[m];
+        for (int i = 0; i < m; i++) {
+            indices[i] = i;
+            for (int j = 0; j < m; j++) {
+                scores[i] += matrix.preferring(i, j);
+            }
+        }
+        Arrays.sort(indices, (a, b) -> Long.compare(scores[b], scores[a]));
+        int[] order = new int[m];
+        for (int position = 0; position < m; position++) {
+            order[position] = indices[position];
+        }
+        return order;
+    }
+}
@@ -0,0 +1,96 @@
+package aggregation.kemeny;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Разбиение альтернатив на компоненты сильной связности графа слабого большинства.
+ *
+ * Ребро i → j есть, если n_{ij} ≥ n_{ji}. Любая пара соединена хотя бы одним ребром, поэтому
+ * конденсация — линейный порядок, а между разными компонентами все ребра направлены в одну
+ * сторону и отражают строгое большинство. По расширенному критерию Кондорсе каждая оптимальная
+ * по Кемени ранжировка ставит более раннюю компоненту целиком выше более поздней, так что
+ * компоненты можно решать независимо и склеивать.
+ */
+final class MajorityComponents {
+
+    private MajorityComponents() {
+    }
+
+    /**
+     * Возвращает компоненты от лучшей к худшей; индексы внутри компоненты упорядочены по возрастанию.
+     * Алгоритм Тарьяна без рекурсии, O(m²).
+     */
+    static int[][] decompose(PairwiseMatrix matrix) {
+        int m = matrix.size();
+        long[] counts = matrix.flatCounts();
+        int[] index = new int[m];
+        int[] lowLink = new int[m];
+        boolean[] onStack = new boolean[m];
+        int[] stack = new int[m];
+        int[] callStack = new int[m];
+        int[] nextNeighbor = new int[m];
+        Arrays.fill(index, -1);
+
+        List<int[]> components = new ArrayList<>();
+        int counter = 0;
+        int stackSize = 0;
+        for (int root = 0; root < m; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = lowLink[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            nextNeighbor[root] = 0;
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                int w = nextNeighbor[v];
+                while (w < m && (w == v || counts[v * m + w] < counts[w * m + v])) {
+                    w++;
+                }
+                if (w < m) {
+                    nextNeighbor[v] = w + 1;
+                    if (index[w] < 0) {
+                        index[w] = lowLink[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        nextNeighbor[w] = 0;
+                        callStack[depth++] = w;
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+                }
+                if (lowLink[v] == index[v]) {
+                    int start = stackSize;
+                    do {
+                        start--;
+                        onStack[stack[start]] = false;
+                    } while (stack[start] != v);
+                    int[] component = Arrays.copyOfRange(stack, start, stackSize);
+                    Arrays.sort(component);
+                    components.add(component);
+                    stackSize = start;
+                }
+            }
+        }
+
+        // Тарьян выдаёт компоненты в обратном топологическом порядке: первыми — стоки (худшие).
+        int[][] result = new int[components.size()][];
+        for (int c = 0; c < result.length; c++) {
+            result[c] = components.get(result.length - 1 - c);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,237 @@
+package aggregation.kemeny;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Матрица стоимостей вне кучи: плоские прямые буферы ({@link ByteBuffer#allocateDirect}) по строкам.
+ *
+ * Для m в десятки тысяч double[m][m] занимает гигабайты кучи, а цепочка asArray() и копия в решателе
+ * утраивают объём. Здесь матрица строится сразу из гистограммы позиций, строка за строкой, и
+ * {@link AssignmentSolver#solve(CostMatrix, int[])} читает её по строкам без копий: сборщик мусора
+ * этот объём не видит и не переносит. Решатели медианы используют её через
+ * {@link KemenyMedianSolver#solveOffHeap} и {@link PositionWeightedKemenySolver#solveOffHeap}.
+ *
+ * Точность {@link Precision#FLOAT} вдвое уменьшает память. Целые стоимости до 2^24 в float32
+ * точны; большие округляются, и найденное назначение оптимально лишь для округлённой матрицы.
+ *
+ * Один прямой буфер ограничен 2 ГБ, поэтому матрица делится на куски по целым строкам.
+ * Объём прямой памяти ограничен -XX:MaxDirectMemorySize (по умолчанию — размером кучи);
+ * память освобождается, когда матрица становится недостижимой.
+ */
+public final class OffHeapCostMatrix implements CostMatrix {
+
+    /**
+     * Точность хранения элементов.
+     */
+    public enum Precision {
+        DOUBLE(Double.BYTES),
+        FLOAT(Float.BYTES);
+
+        private final int bytes;
+
+        Precision(int bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Размер элемента в байтах.
+         */
+        public int bytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * Наибольший размер одного куска в байтах.
+     */
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+    private final int size;
+    private final Precision precision;
+    private final int rowsPerChunk;
+    private final DoubleBuffer[] doubleChunks;  // для DOUBLE, иначе null
+    private final FloatBuffer[] floatChunks;    // для FLOAT, иначе null
+
+    private OffHeapCostMatrix(int size, Precision precision) {
+        this.size = size;
+        this.precision = precision;
+        long rowBytes = (long) size * precision.bytes();
+        this.rowsPerChunk = (int) Math.max(1, Math.min(size, MAX_CHUNK_BYTES / Math.max(1, rowBytes)));
+        int chunkCount = size == 0 ? 0 : (size + rowsPerChunk - 1) / rowsPerChunk;
+        this.doubleChunks = precision == Precision.DOUBLE ? new DoubleBuffer[chunkCount] : null;
+        this.floatChunks = precision == Precision.FLOAT ? new FloatBuffer[chunkCount] : null;
+        for (int c = 0; c < chunkCount; c++) {
+            int rows = Math.min(rowsPerChunk, size - c * rowsPerChunk);
+            ByteBuffer chunk = ByteBuffer.allocateDirect(Math.toIntExact(rows * rowBytes)).order(ByteOrder.nativeOrder());
+            if (doubleChunks != null) {
+                doubleChunks[c] = chunk.asDoubleBuffer();
+            } else {
+                floatChunks[c] = chunk.asFloatBuffer();
+            }
+        }
+    }
+
+    /**
+     * Выделяет нулевую матрицу n×n.
+     */
+    public static OffHeapCostMatrix allocate(int size, Precision precision) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be non-negative");
+        }
+        return new OffHeapCostMatrix(size, Objects.requireNonNull(precision, "precision"));
+    }
+
+    /**
+     * Строит матрицу медианы Кемени d_{ik} прямо из гистограммы позиций, минуя матрицу в куче.
+     * Блоки строк распределяются по пулу (null — последовательно).
+     */
+    public static OffHeapCostMatrix fromHistogram(PositionHistogram histogram, Precision precision, ForkJoinPool pool) {
+        int m = histogram.alternativeCount();
+        OffHeapCostMatrix matrix = allocate(m, precision);
+        ParallelCounts.forEachBlock(m, pool, (from, to) -> {
+            long[] row = new long[m];
+            for (int i = from; i < to; i++) {
+                histogram.footruleRow(i, row);
+                matrix.setRow(i, row);
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Строит взвешенную матрицу phi(k)·d_{ik} прямо из гистограммы позиций.
+     */
+    public static OffHeapCostMatrix fromHistogram(PositionHistogram histogram, PositionWeightFunction weightFunction,
+                                                  Precision precision, ForkJoinPool pool) {
+        int m = histogram.alternativeCount();
+        double[] weights = new double[m];
+        for (int k = 0; k < m; k++) {
+            weights[k] = weightFunction.weight(k + 1, m);
+        }
+        OffHeapCostMatrix matrix = allocate(m, precision);
+        ParallelCounts.forEachBlock(m, pool, (from, to) -> {
+            long[] row = new long[m];
+            double[] weighted = new double[m];
+            for (int i = from; i < to; i++) {
+                histogram.footruleRow(i, row);
+                for (int k = 0; k < m; k++) {
+                    weighted[k] = weights[k] * row[k];
+                }
+                matrix.setRow(i, weighted);
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Копирует матрицу (например, взвешенную) вне кучи с заданной точностью.
+     */
+    public static OffHeapCostMatrix copyOf(CostMatrix source, Precision precision) {
+        int n = source.size();
+        OffHeapCostMatrix matrix = allocate(n, precision);
+        double[] row = new double[n];
+        for (int i = 0; i < n; i++) {
+            source.copyRow(i, row);
+            matrix.setRow(i, row);
+        }
+        return matrix;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public Precision precision() {
+        return precision;
+    }
+
+    /**
+     * Объём занятой прямой памяти в байтах.
+     */
+    public long byteSize() {
+        return (long) size * size * precision.bytes();
+    }
+
+    @Override
+    public double value(int row, int column) {
+        checkIndex(row, column);
+        int index = (row % rowsPerChunk) * size + column;
+        return doubleChunks != null
+                ? doubleChunks[row / rowsPerChunk].get(index)
+                : floatChunks[row / rowsPerChunk].get(index);
+    }
+
+    /**
+     * Записывает стоимость (для FLOAT — с округлением до float32).
+     */
+    public void set(int row, int column, double value) {
+        checkIndex(row, column);
+        int index = (row % rowsPerChunk) * size + column;
+        if (doubleChunks != null) {
+            doubleChunks[row / rowsPerChunk].put(index, value);
+        } else {
+            floatChunks[row / rowsPerChunk].put(index, (float) value);
+        }
+    }
+
+    @Override
+    public void copyRow(int row, double[] target) {
+        checkIndex(row, 0);
+        int offset = (row % rowsPerChunk) * size;
+        if (doubleChunks != null) {
+            doubleChunks[row / rowsPerChunk].get(offset, target, 0, size);
+        } else {
+            FloatBuffer chunk = floatChunks[row / rowsPerChunk];
+            for (int column = 0; column < size; column++) {
+                target[column] = chunk.get(offset + column);
+            }
+        }
+    }
+
+    /**
+     * Записывает строку целиком.
+     */
+    public void setRow(int row, double[] values) {
+        checkIndex(row, 0);
+        int offset = (row % rowsPerChunk) * size;
+        if (doubleChunks != null) {
+            doubleChunks[row / rowsPerChunk].put(offset, values, 0, size);
+        } else {
+            FloatBuffer chunk = floatChunks[row / rowsPerChunk];
+            for (int column = 0; column < size; column++) {
+                chunk.put(offset + column, (float) values[column]);
+            }
+        }
+    }
+
+    /**
+     * Записывает целочисленную строку (например, из {@link PositionHistogram#footruleRow}).
+     */
+    public void setRow(int row, long[] values) {
+        checkIndex(row, 0);
+        int offset = (row % rowsPerChunk) * size;
+        if (doubleChunks != null) {
+            DoubleBuffer chunk = doubleChunks[row / rowsPerChunk];
+            for (int column = 0; column < size; column++) {
+                chunk.put(offset + column, values[column]);
+            }
+        } else {
+            FloatBuffer chunk = floatChunks[row / rowsPerChunk];
+            for (int column = 0; column < size; column++) {
+                chunk.put(offset + column, values[column]);
+            }
+        }
+    }
+
+    private void checkIndex(int row, int column) {
+        if (row < 0 || row >= size || column < 0 || column >= size) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + column + ") is outside " + size + "x" + size);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package aggregation.kemeny;
+
+import aggregation.model.Alternative;
+import aggregation.model.PreferenceProfile;
+import aggregation.model.RankTable;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Взвешенная матрица парных предпочтений n_{ij}: число голосов, ставящих альтернативу i строго выше j.
+ *
+ * Строится за один проход по таблице рангов. Расстояние Кендалла ранжировки π до профиля равно
+ * Σ n_{ji} по всем парам, где i стоит в π раньше j.
+ */
+public final class PairwiseMatrix {
+    private final List<Alternative> alternatives;
+    private final int size;
+    private final long[] counts; // по строкам: counts[i * m + j]
+
+    private PairwiseMatrix(List<Alternative> alternatives, long[] counts) {
+        this.alternatives = List.copyOf(alternatives);
+        this.size = this.alternatives.size();
+        this.counts = counts;
+    }
+
+    /**
+     * Строит матрицу по профилю предпочтений.
+     */
+    public static PairwiseMatrix fromProfile(PreferenceProfile profile) {
+        return fromTable(profile.alternatives(), profile.rankTable());
+    }
+
+    /**
+     * Строит матрицу по таблице рангов за O(n·m²).
+     */
+    public static PairwiseMatrix fromTable(List<Alternative> alternatives, RankTable table) {
+        return fromTable(alternatives, table, null);
+    }
+
+    /**
+     * Строит матрицу в пуле потоков (null — последовательно) по кускам таблицы с частичными
+     * матрицами, которые складываются в фиксированном порядке; результат не зависит от пула.
+     */
+    public static PairwiseMatrix fromTable(List<Alternative> alternatives, RankTable table, ForkJoinPool pool) {
+        int m = table.alternativeCount();
+        int n = table.entryCount();
+        long[] counts = ParallelCounts.count(n, m, m, (long) n * m * m, pool,
+                (partial, from, to, first, last) -> accumulate(table, partial, from, to, first, last));
+        return new PairwiseMatrix(alternatives, counts);
+    }
+
+    /**
+     * Добавляет в counts голоса записей [from, to) для строк [first, last).
+     */
+    private static void accumulate(RankTable table, long[] counts, int from, int to, int first, int last) {
+        int m = table.alternativeCount();
+        int[] ranks = new int[m];
+        for (int e = from; e < to; e++) {
+            table.copyRanks(e, ranks);
+            int voters = table.voters(e);
+            for (int i = first; i < last; i++) {
+                int rowBase = i * m;
+                int rank = ranks[i];
+                for (int j = 0; j < m; j++) {
+                    // Равные ранги (ничьи) не дают преимущества ни одной из сторон.
+                    if (rank < ranks[j]) {
+                        counts[rowBase + j] += voters;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает список альтернатив, соответствующий строкам и столбцам.
+     */
+    public List<Alternative> alternatives() {
+        return alternatives;
+    }
+
+    /**
+     * Возвращает количество альтернатив m.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает n_{ij}: число голосов, ставящих i выше j.
+     */
+    public long preferring(int i, int j) {
+        return counts[i * size + j];
+    }
+
+    /**
+     * Возвращает перевес i над j: n_{ij} - n_{ji}.
+     */
+    public long margin(int i, int j) {
+        return counts[i * size + j] - counts[j * size + i];
+    }
+
+    /**
+     * Вычисляет расстояние Кендалла порядка (индексы альтернатив от лучшей к худшей) до профиля.
+     */
+    public long kendallDistance(int[] order) {
+        long total = 0;
+        for (int a = 0; a < order.length; a++) {
+            for (int b = a + 1; b < order.length; b++) {
+                // order[a] стоит выше order[b]: несогласны те, кто предпочитает order[b].
+                total += counts[order[b] * size + order[a]];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Возвращает матрицу, ограниченную на подмножество альтернатив (в указанном порядке индексов).
+     */
+    public PairwiseMatrix restrict(int[] indices) {
+        int k = indices.length;
+        long[] sub = new long[k * k];
+        Alternative[] subset = new Alternative[k];
+        for (int a = 0; a < k; a++) {
+            subset[a] = alternatives.get(indices[a]);
+            int rowBase = indices[a] * size;
+            for (int b = 0; b < k; b++) {
+                sub[a * k + b] = counts[rowBase + indices[b]];
+            }
+        }
+        return new PairwiseMatrix(List.of(subset), sub);
+    }
+
+    /**
+     * Возвращает внутренний массив без копирования (только для решателей пакета).
+     */
+    long[] flatCounts() {
+        return counts;
+    }
+}
@@ -0,0 +1,116 @@
+package aggregation.kemeny;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Детерминированное параллельное накопление счётчиков по таблице рангов.
+ *
+ * Записи таблицы делятся на куски, строки результата — на блоки по {@link #BLOCK_ROWS}. Границы
+ * зависят только от размеров задачи, а не от числа потоков: каждый кусок заполняет свою частичную
+ * матрицу (блоки одного куска пишут в разные строки), затем частичные складываются в первую строго
+ * в порядке кусков. Поэтому результат совпадает с последовательным проходом при любом пуле.
+ */
+final class ParallelCounts {
+    /**
+     * Меньше этого объёма работы (ячеек, обновляемых за проход) счёт идёт последовательно.
+     */
+    static final long PARALLEL_WORK_THRESHOLD = 1L << 20;
+
+    /**
+     * Строк результата в одном блоке.
+     */
+    static final int BLOCK_ROWS = 256;
+
+    /**
+     * Наименьший кусок записей таблицы для отдельной частичной матрицы.
+     */
+    private static final int CHUNK_ENTRIES = 1 << 14;
+
+    /**
+     * Предел суммарного размера частичных матриц (в ячейках long).
+     */
+    private static final long PARTIAL_CELLS = 1L << 22;
+
+    /**
+     * Счёт записей [from, to) в строки [firstRow, lastRow) массива counts.
+     */
+    interface Kernel {
+        void count(long[] counts, int from, int to, int firstRow, int lastRow);
+    }
+
+    /**
+     * Заполнение строк [firstRow, lastRow) результата.
+     */
+    interface RowBlock {
+        void fill(int firstRow, int lastRow);
+    }
+
+    private ParallelCounts() {
+    }
+
+    /**
+     * Возвращает счётчики rows × rowWidth по entries записям; work — число обновлений за весь проход.
+     */
+    static long[] count(int entries, int rows, int rowWidth, long work, ForkJoinPool pool, Kernel kernel) {
+        int cells = rows * rowWidth;
+        if (pool == null || pool.getParallelism() <= 1 || work < PARALLEL_WORK_THRESHOLD) {
+            long[] counts = new long[cells];
+            kernel.count(counts, 0, entries, 0, rows);
+            return counts;
+        }
+        int chunks = (int) Math.max(1, Math.min((entries + CHUNK_ENTRIES - 1) / CHUNK_ENTRIES, PARTIAL_CELLS / cells));
+        int blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+
+        long[][] partials = new long[chunks][];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks * blocks);
+        for (int c = 0; c < chunks; c++) {
+            long[] partial = new long[cells];
+            partials[c] = partial;
+            int from = (int) ((long) entries * c / chunks);
+            int to = (int) ((long) entries * (c + 1) / chunks);
+            for (int b = 0; b < blocks; b++) {
+                int first = b * BLOCK_ROWS;
+                int last = Math.min(rows, first + BLOCK_ROWS);
+                tasks.add(ForkJoinTask.adapt(() -> kernel.count(partial, from, to, first, last)));
+            }
+        }
+        invokeAll(pool, tasks);
+
+        long[] counts = partials[0];
+        if (chunks > 1) {
+            forEachBlock(rows, pool, (first, last) -> {
+                for (int c = 1; c < chunks; c++) {
+                    long[] partial = partials[c];
+                    for (int cell = first * rowWidth; cell < last * rowWidth; cell++) {
+                        counts[cell] += partial[cell];
+                    }
+                }
+            });
+        }
+        return counts;
+    }
+
+    /**
+     * Выполняет заполнение строк блоками по {@link #BLOCK_ROWS} в пуле (null — последовательно).
+     */
+    static void forEachBlock(int rows, ForkJoinPool pool, RowBlock block) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int first = 0; first < rows; first += BLOCK_ROWS) {
+            int from = first;
+            int to = Math.min(rows, first + BLOCK_ROWS);
+            tasks.add(ForkJoinTask.adapt(() -> block.fill(from, to)));
+        }
+        invokeAll(pool, tasks);
+    }
+
+    private static void invokeAll(ForkJoinPool pool, List<ForkJoinTask<?>> tasks) {
+        if (pool == null || pool.getParallelism() <= 1 || tasks.size() < 2) {
+            tasks.forEach(ForkJoinTask::invoke);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        }
+    }
+}
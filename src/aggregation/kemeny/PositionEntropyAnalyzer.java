@@ -1,12 +1,6 @@
 package aggregation.kemeny;
 
-import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
-import aggregation.model.RankingEntry;
-
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Анализатор энтропии согласованности экспертов на каждой позиции.
@@ -19,12 +13,12 @@ import java.util.Map;
  */
 public final class PositionEntropyAnalyzer {
 
-    private final PreferenceProfile profile;
+    private final int alternativeCount;     // хранится вместо профиля, чтобы анализ не удерживал его
     private final double[] entropies;
     private final double maxEntropy;
 
-    private PositionEntropyAnalyzer(PreferenceProfile profile, double[] entropies, double maxEntropy) {
-        this.profile = profile;
+    private PositionEntropyAnalyzer(int alternativeCount, double[] entropies, double maxEntropy) {
+        this.alternativeCount = alternativeCount;
         this.entropies = entropies;
         this.maxEntropy = maxEntropy;
     }
@@ -33,45 +27,53 @@ public final class PositionEntropyAnalyzer {
      * Анализирует профиль предпочтений и вычисляет энтропию на каждой позиции.
      */
     public static PositionEntropyAnalyzer analyze(PreferenceProfile profile) {
-        List<Alternative> alternatives = profile.alternatives();
-        int m = alternatives.size();
-        int totalVoters = profile.entries().stream().mapToInt(RankingEntry::voters).sum();
-        
+        return analyze(PositionHistogram.fromProfile(profile));
+    }
+
+    /**
+     * Вычисляет энтропии по готовой гистограмме позиций за O(m²), без прохода по бюллетеням.
+     *
+     * Доля альтернативы i на позиции k — h_i(k), делённое на число голосов в столбце k. Для строгих
+     * ранжировок столбец содержит ровно всех голосующих; альтернативы, разделившие ранг, делят
+     * и позицию, а пустая позиция имеет нулевую энтропию.
+     */
+    public static PositionEntropyAnalyzer analyze(PositionHistogram histogram) {
+        int m = histogram.alternativeCount();
+
         double[] entropies = new double[m];
         double maxEntropy = 0.0;
-        
+
         // Для каждой позиции k (1..m)
         for (int k = 1; k <= m; k++) {
-            // Считаем сколько раз каждая альтернатива встречается на позиции k
-            Map<Alternative, Integer> counts = new HashMap<>();
-            
-            for (RankingEntry entry : profile.entries()) {
-                // Найти альтернативу на позиции k в этой ранжировке
-                for (Alternative alt : alternatives) {
-                    int rank = entry.ranking().getRank(alt);
-                    if (rank == k) {
-                        counts.merge(alt, entry.voters(), Integer::sum);
-                        break;
-                    }
-                }
+            long total = 0;
+            for (int alt = 0; alt < m; alt++) {
+                total += histogram.count(alt, k);
             }
-            
+
             // Вычисляем энтропию Шеннона
             double entropy = 0.0;
-            for (int count : counts.values()) {
+            for (int alt = 0; alt < m; alt++) {
+                long count = histogram.count(alt, k);
                 if (count > 0) {
-                    double p = (double) count / totalVoters;
+                    double p = (double) count / total;
                     entropy -= p * log2(p);
                 }
             }
-            
+
             entropies[k - 1] = entropy;
             if (entropy > maxEntropy) {
                 maxEntropy = entropy;
             }
         }
-        
-        return new PositionEntropyAnalyzer(profile, entropies, maxEntropy);
+
+        return new PositionEntropyAnalyzer(m, entropies, maxEntropy);
+    }
+
+    /**
+     * Возвращает энтропии из общего контекста профиля (вычисляются один раз на контекст).
+     */
+    public static PositionEntropyAnalyzer analyze(ProfileContext context) {
+        return context.entropyAnalyzer();
     }
 
     /**
@@ -102,7 +104,7 @@ public final class PositionEntropyAnalyzer {
      * Возвращает теоретически максимальную энтропию (log2(m)).
      */
     public double getTheoreticalMaxEntropy() {
-        return log2(profile.alternatives().size());
+        return log2(alternativeCount);
     }
 
     /**
@@ -138,7 +140,7 @@ public final class PositionEntropyAnalyzer {
     public void printReport() {
         System.out.println("=== Position Entropy Analysis ===");
         System.out.printf("Theoretical max entropy: %.4f (log2(%d))%n", 
-                getTheoreticalMaxEntropy(), profile.alternatives().size());
+                getTheoreticalMaxEntropy(), alternativeCount);
         System.out.printf("Actual max entropy: %.4f%n", maxEntropy);
         System.out.println();
         System.out.println("Position | Entropy | Normalized | Interpretation");
@@ -0,0 +1,132 @@
+package aggregation.kemeny;
+
+import aggregation.model.PreferenceProfile;
+import aggregation.model.RankTable;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Гистограмма позиций h_i(r): число голосов, поставивших альтернативу i на место r.
+ *
+ * Строится за один проход O(n·m) по таблице рангов. По ней матрица
+ * d_{ik} = Σ_r h_i(r) · |k - r| вычисляется префиксными суммами за O(m²),
+ * так что время построения матрицы больше не зависит от числа ранжировок.
+ *
+ * Параллельное построение ({@link #fromTable(RankTable, ForkJoinPool)}) делит таблицу на куски
+ * с частичными гистограммами и складывает их в фиксированном порядке ({@link ParallelCounts}),
+ * поэтому результат не зависит от числа потоков.
+ */
+public final class PositionHistogram {
+    private final int alternativeCount;
+    private final int rankCount;
+    private final long[] counts;
+
+    private PositionHistogram(int alternativeCount, int rankCount, long[] counts) {
+        this.alternativeCount = alternativeCount;
+        this.rankCount = rankCount;
+        this.counts = counts;
+    }
+
+    /**
+     * Строит гистограмму по профилю предпочтений.
+     */
+    public static PositionHistogram fromProfile(PreferenceProfile profile) {
+        return fromTable(profile.rankTable());
+    }
+
+    /**
+     * Строит гистограмму по таблице рангов за один проход.
+     */
+    public static PositionHistogram fromTable(RankTable table) {
+        return fromTable(table, null);
+    }
+
+    /**
+     * Строит гистограмму в пуле потоков (null — последовательно); результат не зависит от пула.
+     */
+    public static PositionHistogram fromTable(RankTable table, ForkJoinPool pool) {
+        int m = table.alternativeCount();
+        int n = table.entryCount();
+        int rankCount = Math.max(m, table.maxRank());
+        long[] counts = ParallelCounts.count(n, m, rankCount, (long) n * m, pool,
+                (partial, from, to, first, last) -> accumulate(table, partial, rankCount, from, to, first, last));
+        return new PositionHistogram(m, rankCount, counts);
+    }
+
+    /**
+     * Добавляет в counts голоса записей [from, to) для альтернатив [first, last).
+     */
+    private static void accumulate(RankTable table, long[] counts, int rankCount,
+                                   int from, int to, int first, int last) {
+        for (int e = from; e < to; e++) {
+            int voters = table.voters(e);
+            for (int i = first; i < last; i++) {
+                counts[i * rankCount + table.rank(e, i) - 1] += voters;
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество альтернатив.
+     */
+    public int alternativeCount() {
+        return alternativeCount;
+    }
+
+    /**
+     * Возвращает число столбцов гистограммы (не меньше m).
+     */
+    public int rankCount() {
+        return rankCount;
+    }
+
+    /**
+     * Возвращает h_i(r): число голосов, поставивших альтернативу на место rank (1-based).
+     */
+    public long count(int alternative, int rank) {
+        return counts[alternative * rankCount + rank - 1];
+    }
+
+    /**
+     * Заполняет строку d_{i1..im} невзвешенной матрицы расстояний для альтернативы i.
+     *
+     * Для цели k: Σ_{r≤k} h(r)(k - r) + Σ_{r>k} h(r)(r - k)
+     *           = k·W(k) - S(k) + (S - S(k)) - k·(W - W(k)),
+     * где W(k), S(k) — префиксные суммы h(r) и h(r)·r.
+     */
+    public void footruleRow(int alternative, long[] row) {
+        footruleRow(alternative, row, 0);
+    }
+
+    /**
+     * Записывает строку d_{i1..im} в target начиная с offset (строка матрицы по месту).
+     */
+    public void footruleRow(int alternative, long[] target, int offset) {
+        footruleRow(alternative, target, offset, alternativeCount);
+    }
+
+    /**
+     * Записывает первые columns элементов строки d_{i1..i,columns} в target начиная с offset
+     * (для top-K позиций хватает K столбцов).
+     */
+    public void footruleRow(int alternative, long[] target, int offset, int columns) {
+        int base = alternative * rankCount;
+        long totalCount = 0;
+        long totalWeighted = 0;
+        for (int r = 1; r <= rankCount; r++) {
+            long h = counts[base + r - 1];
+            totalCount += h;
+            totalWeighted += h * r;
+        }
+
+        long prefixCount = 0;
+        long prefixWeighted = 0;
+        for (int k = 1; k <= columns; k++) {
+            long h = counts[base + k - 1];
+            prefixCount += h;
+            prefixWeighted += h * k;
+            target[offset + k - 1] = k * prefixCount - prefixWeighted
+                    + (totalWeighted - prefixWeighted) - k * (totalCount - prefixCount);
+        }
+    }
+}
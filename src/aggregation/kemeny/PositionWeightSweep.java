@@ -0,0 +1,99 @@
+package aggregation.kemeny;
+
+import aggregation.model.PreferenceProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Перебор весовых функций phi(k) для одного профиля.
+ *
+ * Базовая матрица d⁰_{ik} строится один раз (через {@link ProfileContext}); взвешенная матрица
+ * для каждой функции — лишь представление с множителями столбцов, и венгерский алгоритм читает
+ * phi(k) · d⁰_{ik} на лету ({@link HungarianSolver#solveScaled}). Функции делятся на блоки
+ * фиксированного размера; внутри блока каждое решение стартует с двойственных потенциалов
+ * предыдущего, а блоки решаются параллельно, каждый со своим решателем.
+ *
+ * Разбиение на блоки не зависит от числа потоков, поэтому результат детерминирован. Значения
+ * целевой функции совпадают с {@link PositionWeightedKemenySolver}; при нескольких оптимальных
+ * назначениях тёплый старт может выбрать другое из них.
+ */
+public final class PositionWeightSweep {
+
+    /**
+     * Число функций, решаемых подряд одним решателем с тёплым стартом.
+     */
+    static final int CHUNK_SIZE = 8;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Создаёт перебор на общем пуле потоков.
+     */
+    public PositionWeightSweep() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Создаёт перебор на заданном пуле потоков (null — последовательный расчёт).
+     */
+    public PositionWeightSweep(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Решает задачу для каждой весовой функции; результаты идут в порядке списка.
+     */
+    public List<PositionWeightedKemenyResult> run(PreferenceProfile profile,
+                                                  List<PositionWeightFunction> weightFunctions) {
+        return run(ProfileContext.fromProfile(profile, pool), weightFunctions);
+    }
+
+    /**
+     * Решает задачу для каждой весовой функции по общему контексту профиля.
+     */
+    public List<PositionWeightedKemenyResult> run(ProfileContext context,
+                                                  List<PositionWeightFunction> weightFunctions) {
+        DistanceMatrix base = context.distanceMatrix();
+        // solveScaled читает плоский double: копия d⁰ строится один раз на перебор и живёт только в нём.
+        double[] baseValues = new double[base.size() * base.size()];
+        long[] exact = base.exactValues();
+        for (int cell = 0; cell < exact.length; cell++) {
+            baseValues[cell] = exact[cell];
+        }
+        PositionWeightedKemenyResult[] results = new PositionWeightedKemenyResult[weightFunctions.size()];
+
+        List<ForkJoinTask<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < weightFunctions.size(); from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(from + CHUNK_SIZE, weightFunctions.size());
+            chunks.add(ForkJoinTask.adapt(() -> solveChunk(base, baseValues, weightFunctions, start, end, results)));
+        }
+        if (pool == null || pool.getParallelism() <= 1 || chunks.size() < 2) {
+            chunks.forEach(ForkJoinTask::invoke);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks)));
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Решает функции [from, to) одним решателем, передавая потенциалы от решения к решению.
+     */
+    private static void solveChunk(DistanceMatrix base, double[] baseValues,
+                                   List<PositionWeightFunction> weightFunctions,
+                                   int from, int to, PositionWeightedKemenyResult[] results) {
+        int m = base.size();
+        HungarianSolver solver = new HungarianSolver(m);
+        for (int f = from; f < to; f++) {
+            PositionWeightFunction weightFunction = weightFunctions.get(f);
+            WeightedDistanceMatrix matrix = WeightedDistanceMatrix.fromDistanceMatrix(base, weightFunction);
+            int[] assignment = new int[m];
+            solver.solveScaled(baseValues, matrix.columnWeights(), m, assignment, f > from);
+            results[f] = PositionWeightedKemenySolver.toResult(matrix, assignment, 0.0, weightFunction,
+                    ResultRetention.FULL);
+        }
+    }
+}
@@ -4,11 +4,14 @@ import aggregation.model.AggregatedRanking;
 
 /**
  * Результат позиционно-взвешенной медианы Кемени.
- * Содержит ранжировку, расстояние, матрицу стоимостей и использованную весовую функцию.
+ * Содержит ранжировку, расстояние, оценку разрыва до оптимума, матрицу стоимостей
+ * и использованную весовую функцию.
+ * Поля, не сохранённые по {@link ResultRetention}, равны NaN или null.
  */
 public record PositionWeightedKemenyResult(
         AggregatedRanking ranking,
         double totalDistance,
+        double optimalityGap,
         WeightedDistanceMatrix distanceMatrix,
         PositionWeightFunction weightFunction
 ) {
@@ -28,9 +31,10 @@ public record PositionWeightedKemenyResult(
      * Проверяет, является ли это классическим Кемени (все веса = 1).
      */
     private boolean isUniform() {
-        double[] weights = distanceMatrix.positionWeights();
-        for (double w : weights) {
-            if (Math.abs(w - 1.0) > 1e-9) {
+        // Веса берутся из функции, а не из матрицы: матрица может быть не сохранена.
+        int m = ranking.scores().size();
+        for (int k = 1; k <= m; k++) {
+            if (Math.abs(weightFunction.weight(k, m) - 1.0) > 1e-9) {
                 return false;
             }
         }
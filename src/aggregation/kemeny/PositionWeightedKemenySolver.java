@@ -7,6 +7,8 @@ import aggregation.model.PreferenceProfile;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Решает задачу поиска позиционно-взвешенной медианы Кемени.
@@ -19,12 +21,49 @@ import java.util.Map;
 public final class PositionWeightedKemenySolver {
 
     private final PositionWeightFunction weightFunction;
+    private final AssignmentSolver assignmentSolver;
+    private final ForkJoinPool pool;
+    private final ResultRetention retention;
 
     /**
      * Создаёт солвер с заданной весовой функцией.
      */
     public PositionWeightedKemenySolver(PositionWeightFunction weightFunction) {
+        this(weightFunction, AssignmentAlgorithm.HUNGARIAN);
+    }
+
+    /**
+     * Создаёт солвер с заданной весовой функцией и алгоритмом задачи о назначениях.
+     * Рабочее пространство алгоритма переиспользуется между вызовами, поэтому солвер не потокобезопасен.
+     */
+    public PositionWeightedKemenySolver(PositionWeightFunction weightFunction, AssignmentAlgorithm algorithm) {
+        this(weightFunction, algorithm.newSolver());
+    }
+
+    /**
+     * Создаёт солвер с заданной весовой функцией и готовым решателем задачи о назначениях.
+     */
+    public PositionWeightedKemenySolver(PositionWeightFunction weightFunction, AssignmentSolver assignmentSolver) {
+        this(weightFunction, assignmentSolver, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Создаёт солвер, строящий матрицу профиля в заданном пуле (null — последовательно).
+     */
+    public PositionWeightedKemenySolver(PositionWeightFunction weightFunction, AssignmentSolver assignmentSolver,
+                                        ForkJoinPool pool) {
+        this(weightFunction, assignmentSolver, pool, ResultRetention.FULL);
+    }
+
+    /**
+     * Создаёт солвер, сохраняющий в результате только указанную часть (см. {@link ResultRetention}).
+     */
+    public PositionWeightedKemenySolver(PositionWeightFunction weightFunction, AssignmentSolver assignmentSolver,
+                                        ForkJoinPool pool, ResultRetention retention) {
         this.weightFunction = weightFunction;
+        this.assignmentSolver = assignmentSolver;
+        this.pool = pool;
+        this.retention = Objects.requireNonNull(retention, "retention");
     }
 
     /**
@@ -38,10 +77,88 @@ public final class PositionWeightedKemenySolver {
      * Возвращает оптимальное ранжирование и минимальное расстояние.
      */
     public PositionWeightedKemenyResult solve(PreferenceProfile profile) {
-        WeightedDistanceMatrix matrix = WeightedDistanceMatrix.fromProfile(profile, weightFunction);
-        double[][] costMatrix = matrix.asArray();
-        int[] assignment = HungarianSolver.solve(costMatrix);
+        return solve(ProfileContext.fromProfile(profile, pool));
+    }
+
+    /**
+     * Решает задачу по общему контексту профиля: взвешенная матрица получается из базовой
+     * масштабированием столбцов, без повторного прохода по ранжировкам.
+     */
+    public PositionWeightedKemenyResult solve(ProfileContext context) {
+        WeightedDistanceMatrix matrix = WeightedDistanceMatrix.fromDistanceMatrix(context.distanceMatrix(), weightFunction);
+        int[] assignment = new int[matrix.size()];
+        matrix.solveAssignment(assignmentSolver, assignment);
+        return toResult(matrix, assignment, assignmentSolver.optimalityGap(), weightFunction, retention);
+    }
+
+    /**
+     * Решает задачу на матрице вне кучи: phi(k)·d_{ik} строится из гистограммы контекста прямо
+     * в {@link OffHeapCostMatrix} заданной точности и решается заданным решателем по строкам
+     * (см. {@link KemenyMedianSolver#solveOffHeap}). Результат не содержит матрицы; расстояние
+     * считается по гистограмме без округления до float.
+     */
+    public PositionWeightedKemenyResult solveOffHeap(ProfileContext context, OffHeapCostMatrix.Precision precision) {
+        PositionHistogram histogram = context.histogram();
+        OffHeapCostMatrix matrix = OffHeapCostMatrix.fromHistogram(histogram, weightFunction, precision, pool);
+        int m = matrix.size();
+        int[] assignment = new int[m];
+        assignmentSolver.solve(matrix, assignment);
+
+        List<Alternative> alternatives = context.alternatives();
+        long[] distances = KemenyMedianSolver.assignedDistances(histogram, assignment);
+        Map<Alternative, Double> ranks = new LinkedHashMap<>();
+        double totalDistance = 0.0;
+        for (int i = 0; i < m; i++) {
+            totalDistance += weightFunction.weight(assignment[i] + 1, m) * distances[i];
+            ranks.put(alternatives.get(i), (double) (assignment[i] + 1));
+        }
+
+        AggregatedRanking ranking = new AggregatedRanking(ranks, AggregatedRanking.Order.ASCENDING);
+        return new PositionWeightedKemenyResult(ranking,
+                retention.keepsObjective() ? totalDistance : Double.NaN,
+                retention.keepsObjective() ? assignmentSolver.optimalityGap() : Double.NaN,
+                null,
+                weightFunction);
+    }
+
+    /**
+     * Находит только первые k мест: стоимость позиции — phi(k)·d_{ik}, прямоугольная задача
+     * k × m решается венгерским алгоритмом за O(k²·m).
+     */
+    public KemenyTopKResult solveTopK(PreferenceProfile profile, int k) {
+        return solveTopK(ProfileContext.fromProfile(profile, pool), k);
+    }
+
+    /**
+     * Находит первые k мест по общему контексту профиля (берётся его гистограмма).
+     */
+    public KemenyTopKResult solveTopK(ProfileContext context, int k) {
+        List<Alternative> alternatives = context.alternatives();
+        int m = alternatives.size();
+        long[] unweighted = KemenyMedianSolver.topKCosts(context.histogram(), m, k, pool);
+        double[] cost = new double[unweighted.length];
+        for (int position = 0; position < k; position++) {
+            double weight = weightFunction.weight(position + 1, m);
+            for (int i = 0; i < m; i++) {
+                cost[position * m + i] = weight * unweighted[position * m + i];
+            }
+        }
+        int[] assignment = new int[k];
+        KemenyMedianSolver.hungarianSolver(assignmentSolver).solveRectangular(cost, k, m, assignment);
 
+        double[] positionDistances = new double[k];
+        for (int position = 0; position < k; position++) {
+            positionDistances[position] = cost[position * m + assignment[position]];
+        }
+        return KemenyMedianSolver.toTopKResult(alternatives, assignment, positionDistances);
+    }
+
+    /**
+     * Собирает результат по назначению строк (альтернатив) столбцам (позициям).
+     */
+    static PositionWeightedKemenyResult toResult(WeightedDistanceMatrix matrix, int[] assignment,
+                                                 double optimalityGap, PositionWeightFunction weightFunction,
+                                                 ResultRetention retention) {
         List<Alternative> alternatives = matrix.alternatives();
         Map<Alternative, Double> ranks = new LinkedHashMap<>();
         double totalDistance = 0.0;
@@ -54,7 +171,11 @@ public final class PositionWeightedKemenySolver {
         }
 
         AggregatedRanking ranking = new AggregatedRanking(ranks, AggregatedRanking.Order.ASCENDING);
-        return new PositionWeightedKemenyResult(ranking, totalDistance, matrix, weightFunction);
+        return new PositionWeightedKemenyResult(ranking,
+                retention.keepsObjective() ? totalDistance : Double.NaN,
+                retention.keepsObjective() ? optimalityGap : Double.NaN,
+                retention.keepsDiagnostics() ? matrix : null,
+                weightFunction);
     }
 
     /**
@@ -0,0 +1,118 @@
+package aggregation.kemeny;
+
+import aggregation.model.Alternative;
+import aggregation.model.PreferenceProfile;
+import aggregation.model.RankTable;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Общие предвычисления по одному профилю для всех агрегаторов и решателей одного запуска.
+ *
+ * Таблица рангов строится вместе с профилем; гистограмма позиций, матрица парных предпочтений,
+ * энтропии позиций и базовая матрица d_{ik} вычисляются лениво при первом обращении и
+ * запоминаются. Отчёт, запускающий несколько методов подряд, проходит по бюллетеням один раз
+ * для гистограммы и один раз для парной матрицы, а не заново для каждого метода.
+ *
+ * Энтропии позиций и матрица d_{ik} получаются из гистограммы за O(m²) без нового прохода.
+ * Парную матрицу из гистограммы не получить (ей нужны ранги обеих альтернатив в одном бюллетене),
+ * и её проход O(n·m²) не совмещён с проходом гистограммы O(n·m): решателям медианы он не нужен.
+ *
+ * Ленивые поля инициализируются под монитором, поэтому контекст можно разделять между потоками.
+ * Гистограмма, парная матрица и матрица d_{ik} строятся в пуле контекста; результат от пула
+ * не зависит (см. {@link PositionHistogram}).
+ */
+public final class ProfileContext {
+    private final PreferenceProfile profile;
+    private final ForkJoinPool pool;
+    private PositionHistogram histogram;
+    private PairwiseMatrix pairwiseMatrix;
+    private PositionEntropyAnalyzer entropyAnalyzer;
+    private DistanceMatrix distanceMatrix;
+
+    private ProfileContext(PreferenceProfile profile, ForkJoinPool pool) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Profile must be provided");
+        }
+        this.profile = profile;
+        this.pool = pool;
+    }
+
+    /**
+     * Создаёт пустой контекст для профиля; ничего не вычисляет заранее.
+     * Матрицы строятся на общем пуле потоков.
+     */
+    public static ProfileContext fromProfile(PreferenceProfile profile) {
+        return fromProfile(profile, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Создаёт контекст, строящий матрицы в заданном пуле (null — последовательно).
+     */
+    public static ProfileContext fromProfile(PreferenceProfile profile, ForkJoinPool pool) {
+        return new ProfileContext(profile, pool);
+    }
+
+    /**
+     * Возвращает исходный профиль.
+     */
+    public PreferenceProfile profile() {
+        return profile;
+    }
+
+    /**
+     * Возвращает альтернативы профиля (порядок индексов во всех предвычисленных структурах).
+     */
+    public List<Alternative> alternatives() {
+        return profile.alternatives();
+    }
+
+    /**
+     * Возвращает плотную таблицу рангов профиля.
+     */
+    public RankTable rankTable() {
+        return profile.rankTable();
+    }
+
+    /**
+     * Возвращает гистограмму позиций h_i(r).
+     */
+    public synchronized PositionHistogram histogram() {
+        if (histogram == null) {
+            histogram = PositionHistogram.fromTable(profile.rankTable(), pool);
+        }
+        return histogram;
+    }
+
+    /**
+     * Возвращает матрицу парных предпочтений n_{ij}.
+     */
+    public synchronized PairwiseMatrix pairwiseMatrix() {
+        if (pairwiseMatrix == null) {
+            pairwiseMatrix = PairwiseMatrix.fromTable(profile.alternatives(), profile.rankTable(), pool);
+        }
+        return pairwiseMatrix;
+    }
+
+    /**
+     * Возвращает энтропии позиций.
+     */
+    public synchronized PositionEntropyAnalyzer entropyAnalyzer() {
+        if (entropyAnalyzer == null) {
+            entropyAnalyzer = PositionEntropyAnalyzer.analyze(histogram());
+        }
+        return entropyAnalyzer;
+    }
+
+    /**
+     * Возвращает базовую (невзвешенную) матрицу d_{ik}; взвешенные матрицы получаются из неё
+     * масштабированием столбцов.
+     */
+    public synchronized DistanceMatrix distanceMatrix() {
+        if (distanceMatrix == null) {
+            distanceMatrix = DistanceMatrix.fromHistogram(profile.alternatives(), histogram(), pool);
+        }
+        return distanceMatrix;
+    }
+}
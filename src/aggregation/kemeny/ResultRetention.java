@@ -0,0 +1,40 @@
+package aggregation.kemeny;
+
+/**
+ * Что решатель сохраняет в результате.
+ *
+ * Полный результат держит матрицу m×m (и для адаптивного метода — анализ энтропии), пока жив
+ * сам результат. Пакетной обработке тысяч профилей обычно нужны лишь ранжировка и значение
+ * целевой функции: урезанный результат не удерживает матрицу, и она освобождается вместе
+ * с контекстом профиля.
+ */
+public enum ResultRetention {
+    /**
+     * Только ранжировка; расстояние и разрыв до оптимума — NaN, матрицы и анализаторы — null.
+     */
+    RANKING,
+
+    /**
+     * Ранжировка, расстояние и разрыв до оптимума; матрицы и анализаторы — null.
+     */
+    OBJECTIVE,
+
+    /**
+     * Всё, включая матрицы и диагностику (поведение по умолчанию).
+     */
+    FULL;
+
+    /**
+     * Сохраняются ли расстояние и разрыв до оптимума.
+     */
+    public boolean keepsObjective() {
+        return this != RANKING;
+    }
+
+    /**
+     * Сохраняются ли матрицы и диагностика.
+     */
+    public boolean keepsDiagnostics() {
+        return this == FULL;
+    }
+}
@@ -0,0 +1,231 @@
+package aggregation.kemeny;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Точное решение задачи Кемени — Янга динамическим программированием по подмножествам.
+ *
+ * dp[S] — минимальное число несогласий среди альтернатив S, если именно они занимают первые |S| мест:
+ * dp[S] = min_{j ∈ S} dp[S \ {j}] + Σ_{t ∈ S \ {j}} n_{jt} (j ставится последним в S).
+ * Сумма по подмножеству берётся из двух таблиц по половинам маски, поэтому переход стоит O(1).
+ *
+ * Подмножества обрабатываются слоями по мощности: слой k зависит только от слоя k - 1,
+ * поэтому внутри слоя маски независимы. Маски слоя перебираются по возрастанию (порядок colex),
+ * и слой делится на куски равной длины по рангу сочетания: начало куска восстанавливается
+ * из ранга через комбинаторную систему счисления, дальше маски идут по Госперу.
+ * Время O(2^m · m), память 8 · 2^m байт.
+ */
+final class SubsetKemenyDp {
+
+    /**
+     * Наибольшее число альтернатив, для которого таблица dp ещё помещается в память (256 МБ).
+     */
+    static final int MAX_ALTERNATIVES = 25;
+
+    private static final int PARALLEL_LAYER_THRESHOLD = 1 << 14;
+
+    /**
+     * Число масок в одной задаче ForkJoin.
+     */
+    private static final int CHUNK_MASKS = 1 << 12;
+
+    private final int size;
+    private final long[] counts;
+    private final int lowBits;
+    private final long[] lowSums;   // lowSums[(j << lowBits) | mask] = Σ_{t ∈ mask} n_{jt}, t < lowBits
+    private final long[] highSums;  // то же для старших lowBits..m-1 бит маски
+    private final int highBits;
+    private final long[][] binomials;   // binomials[n][k] = C(n, k) для n, k ≤ m
+
+    private SubsetKemenyDp(int size, long[] counts) {
+        this.size = size;
+        this.counts = counts;
+        this.lowBits = size / 2;
+        this.highBits = size - lowBits;
+        this.lowSums = buildHalfSums(0, lowBits);
+        this.highSums = buildHalfSums(lowBits, highBits);
+        this.binomials = new long[size + 1][size + 1];
+        for (int n = 0; n <= size; n++) {
+            binomials[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                binomials[n][k] = binomials[n - 1][k - 1] + binomials[n - 1][k];
+            }
+        }
+    }
+
+    /**
+     * Возвращает оптимальный порядок (индексы альтернатив от лучшей к худшей).
+     */
+    static int[] solve(PairwiseMatrix matrix, ForkJoinPool pool) {
+        int m = matrix.size();
+        if (m > MAX_ALTERNATIVES) {
+            throw new IllegalArgumentException("Subset dynamic programming supports at most "
+                    + MAX_ALTERNATIVES + " alternatives, got " + m);
+        }
+        if (m == 0) {
+            return new int[0];
+        }
+        return new SubsetKemenyDp(m, matrix.flatCounts()).run(pool);
+    }
+
+    private int[] run(ForkJoinPool pool) {
+        int full = (1 << size) - 1;
+        long[] dp = new long[full + 1];
+        for (int k = 1; k <= size; k++) {
+            long layerSize = binomials[size][k];
+            if (pool == null || layerSize < PARALLEL_LAYER_THRESHOLD || pool.getParallelism() <= 1) {
+                fillRange(dp, k, 0, layerSize);
+            } else {
+                List<LayerTask> tasks = new ArrayList<>((int) ((layerSize + CHUNK_MASKS - 1) / CHUNK_MASKS));
+                for (long from = 0; from < layerSize; from += CHUNK_MASKS) {
+                    tasks.add(new LayerTask(dp, k, from, Math.min(layerSize, from + CHUNK_MASKS)));
+                }
+                pool.invoke(new LayerBatch(tasks));
+            }
+        }
+        return reconstruct(dp, full);
+    }
+
+    /**
+     * Заполняет dp для масок мощности k с рангами [from, to) в порядке возрастания масок.
+     */
+    private void fillRange(long[] dp, int k, long from, long to) {
+        int mask = unrank(k, from);
+        for (long rank = from; rank < to; rank++) {
+            if (((rank - from) & (CHUNK_MASKS - 1)) == 0) {
+                Cancellation.check();
+            }
+            long best = Long.MAX_VALUE;
+            int bits = mask;
+            while (bits != 0) {
+                int j = Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int rest = mask ^ (1 << j);
+                long value = dp[rest] + placementCost(j, rest);
+                if (value < best) {
+                    best = value;
+                }
+            }
+            dp[mask] = best;
+
+            // Следующее k-элементное подмножество по Госперу.
+            int lowest = mask & -mask;
+            int ripple = mask + lowest;
+            mask = ripple | (((mask ^ ripple) >>> 2) / lowest);
+        }
+    }
+
+    /**
+     * Маска мощности k с данным рангом среди k-подмножеств, упорядоченных по возрастанию:
+     * rank = Σ C(c_i, i) по элементам c_k > ... > c_1.
+     */
+    private int unrank(int k, long rank) {
+        int mask = 0;
+        long rest = rank;
+        int c = size - 1;
+        for (int i = k; i >= 1; i--) {
+            while (binomials[c][i] > rest) {
+                c--;
+            }
+            mask |= 1 << c;
+            rest -= binomials[c][i];
+            c--;
+        }
+        return mask;
+    }
+
+    /**
+     * Восстанавливает порядок с конца: последним ставится наименьший индекс j, реализующий минимум.
+     */
+    private int[] reconstruct(long[] dp, int full) {
+        int[] order = new int[size];
+        int mask = full;
+        for (int position = size - 1; position >= 0; position--) {
+            int bits = mask;
+            int chosen = -1;
+            while (bits != 0) {
+                int j = Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int rest = mask ^ (1 << j);
+                if (dp[rest] + placementCost(j, rest) == dp[mask]) {
+                    chosen = j;
+                    break;
+                }
+            }
+            order[position] = chosen;
+            mask ^= 1 << chosen;
+        }
+        return order;
+    }
+
+    /**
+     * Σ_{t ∈ rest} n_{jt}: число голосов, недовольных тем, что j стоит ниже всех альтернатив rest.
+     */
+    private long placementCost(int j, int rest) {
+        int lowMask = rest & ((1 << lowBits) - 1);
+        int highMask = rest >>> lowBits;
+        return lowSums[(j << lowBits) | lowMask] + highSums[(j << highBits) | highMask];
+    }
+
+    /**
+     * Таблица сумм n_{jt} по всем подмножествам бит [offset, offset + bits) для каждой строки j.
+     */
+    private long[] buildHalfSums(int offset, int bits) {
+        int width = 1 << bits;
+        long[] sums = new long[size * width];
+        for (int j = 0; j < size; j++) {
+            int base = j * width;
+            int rowBase = j * size;
+            for (int mask = 1; mask < width; mask++) {
+                int t = Integer.numberOfTrailingZeros(mask);
+                sums[base + mask] = sums[base + (mask & (mask - 1))] + counts[rowBase + offset + t];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Задача ForkJoin: кусок слоя — маски с рангами [from, to).
+     */
+    private final class LayerTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] dp;
+        private final int k;
+        private final long from;
+        private final long to;
+
+        LayerTask(long[] dp, int k, long from, long to) {
+            this.dp = dp;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            fillRange(dp, k, from, to);
+        }
+    }
+
+    /**
+     * Задача ForkJoin: запускает все группы слоя и дожидается их завершения.
+     */
+    private static final class LayerBatch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<LayerTask> tasks;
+
+        LayerBatch(List<LayerTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+}
@@ -2,25 +2,49 @@ package aggregation.kemeny;
 
 import aggregation.model.Alternative;
 import aggregation.model.PreferenceProfile;
-import aggregation.model.RankingEntry;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Позиционно-взвешенная матрица стоимостей d_{ik} для медианы Кемени.
  * Учитывает функцию весов phi(k) для каждой позиции.
  * 
  * Формула: d_{ik} = Σ g_l · phi(k) · |k - r_{il}|
+ *
+ * Матрица, полученная из невзвешенной ({@link #fromDistanceMatrix}), хранит лишь ссылку на неё
+ * и веса столбцов; значения вычисляются на лету, и плоский массив double не строится: решатели
+ * читают строки через {@link #copyRow}.
+ *
+ * Если все веса phi(k) целые (равномерная функция, top-K), матрица тоже целая: решатели берут
+ * её в long и решают задачу о назначениях точно, без сравнения вещественных потенциалов.
  */
-public final class WeightedDistanceMatrix {
+public final class WeightedDistanceMatrix implements CostMatrix {
+    /**
+     * Отметка «целочисленной матрицы нет» (веса дробные или стоимости слишком велики для точного решения в long).
+     */
+    private static final long[] NOT_INTEGRAL = new long[0];
+
+    /**
+     * Наибольший целый вес, при котором матрица считается целочисленной.
+     */
+    private static final double MAX_INTEGRAL_WEIGHT = 1L << 31;
+
     private final List<Alternative> alternatives;
-    private final double[][] distances;
+    private final int size;
+    private final DistanceMatrix base;      // невзвешенная матрица для представления, иначе null
     private final double[] positionWeights;
+    private final double[] distances;       // по строкам, только у матрицы из гистограммы с дробными весами
+    private volatile long[] integral;       // целочисленная матрица, NOT_INTEGRAL или null (ещё не строилась)
 
-    private WeightedDistanceMatrix(List<Alternative> alternatives, double[][] distances, double[] positionWeights) {
+    private WeightedDistanceMatrix(List<Alternative> alternatives, DistanceMatrix base, double[] distances,
+                                   long[] integral, double[] positionWeights) {
         this.alternatives = List.copyOf(alternatives);
+        this.size = this.alternatives.size();
+        this.base = base;
         this.distances = distances;
+        this.integral = integral;
         this.positionWeights = positionWeights;
     }
 
@@ -32,34 +56,68 @@ public final class WeightedDistanceMatrix {
      */
     public static WeightedDistanceMatrix fromProfile(PreferenceProfile profile, 
                                                       PositionWeightFunction weightFunction) {
-        List<Alternative> alternatives = profile.alternatives();
-        int m = alternatives.size();
-        double[][] matrix = new double[m][m];
-        double[] weights = new double[m];
+        return fromHistogram(profile.alternatives(), PositionHistogram.fromProfile(profile), weightFunction);
+    }
 
-        // Предвычисляем веса для каждой позиции
-        for (int k = 0; k < m; k++) {
-            weights[k] = weightFunction.weight(k + 1, m);
-        }
+    /**
+     * Строит матрицу по профилю в пуле потоков (null — последовательно); значения совпадают
+     * с последовательным построением бит в бит.
+     */
+    public static WeightedDistanceMatrix fromProfile(PreferenceProfile profile,
+                                                      PositionWeightFunction weightFunction,
+                                                      ForkJoinPool pool) {
+        return fromHistogram(profile.alternatives(), PositionHistogram.fromTable(profile.rankTable(), pool),
+                weightFunction, pool);
+    }
 
-        // Строим матрицу стоимостей
-        for (int i = 0; i < m; i++) {
-            Alternative alternative = alternatives.get(i);
-            for (int k = 0; k < m; k++) {
-                double sum = 0.0;
-                int rankTarget = k + 1;
-                double posWeight = weights[k];
-                
-                for (RankingEntry entry : profile.entries()) {
-                    int rank = entry.ranking().getRank(alternative);
-                    // Взвешенное расстояние: phi(k) · |k - r_il|
-                    sum += entry.voters() * posWeight * Math.abs(rankTarget - rank);
-                }
-                matrix[i][k] = sum;
+    /**
+     * Строит матрицу по готовой гистограмме позиций: d_{ik} = phi(k) · Σ_r h_i(r) · |k - r|.
+     */
+    public static WeightedDistanceMatrix fromHistogram(List<Alternative> alternatives,
+                                                        PositionHistogram histogram,
+                                                        PositionWeightFunction weightFunction) {
+        return fromHistogram(alternatives, histogram, weightFunction, null);
+    }
+
+    /**
+     * Строит матрицу по готовой гистограмме, распределяя блоки строк по пулу (null — последовательно).
+     */
+    public static WeightedDistanceMatrix fromHistogram(List<Alternative> alternatives,
+                                                        PositionHistogram histogram,
+                                                        PositionWeightFunction weightFunction,
+                                                        ForkJoinPool pool) {
+        int m = alternatives.size();
+        double[] weights = positionWeights(weightFunction, m);
+        if (isIntegral(weights)) {
+            long[] exact = DistanceMatrix.fromHistogram(alternatives, histogram, pool).exactValues();
+            long[] scaled = scale(exact, weights, m);
+            if (scaled != null) {
+                return new WeightedDistanceMatrix(alternatives, null, null, scaled, weights);
             }
         }
+        double[] matrix = new double[m * m];
+        ParallelCounts.forEachBlock(m, pool, (from, to) -> {
+            long[] row = new long[m];
+            for (int i = from; i < to; i++) {
+                histogram.footruleRow(i, row);
+                for (int k = 0; k < m; k++) {
+                    // Взвешенное расстояние: phi(k) · Σ g_l · |k - r_il|
+                    matrix[i * m + k] = weights[k] * row[k];
+                }
+            }
+        });
+        return new WeightedDistanceMatrix(alternatives, null, matrix, NOT_INTEGRAL, weights);
+    }
 
-        return new WeightedDistanceMatrix(alternatives, matrix, weights);
+    /**
+     * Возвращает представление d_{ik} = phi(k) · d⁰_{ik} поверх готовой невзвешенной матрицы за O(m).
+     * Значения совпадают с {@link #fromHistogram} бит в бит, но ни гистограмма, ни копия матрицы не нужны.
+     */
+    public static WeightedDistanceMatrix fromDistanceMatrix(DistanceMatrix base,
+                                                             PositionWeightFunction weightFunction) {
+        double[] weights = positionWeights(weightFunction, base.size());
+        return new WeightedDistanceMatrix(base.alternatives(), base, null, isIntegral(weights) ? null : NOT_INTEGRAL,
+                weights);
     }
 
     /**
@@ -80,18 +138,93 @@ public final class WeightedDistanceMatrix {
      * Возвращает копию матрицы расстояний.
      */
     public double[][] asArray() {
-        double[][] copy = new double[distances.length][distances.length];
-        for (int i = 0; i < distances.length; i++) {
-            copy[i] = Arrays.copyOf(distances[i], distances[i].length);
+        double[][] copy = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            copyRow(i, copy[i]);
         }
         return copy;
     }
 
+    /**
+     * Возвращает целочисленную матрицу, если все веса целые и значения помещаются в long,
+     * иначе null (только для решателей пакета). При phi(k) = 1 это сама невзвешенная матрица.
+     */
+    long[] integralValues() {
+        long[] values = integral;
+        if (values == null) {
+            values = scale(base.exactValues(), positionWeights, size);
+            if (values == null) {
+                values = NOT_INTEGRAL;
+            }
+            integral = values;
+        }
+        return values == NOT_INTEGRAL ? null : values;
+    }
+
+    /**
+     * Решает задачу о назначениях на этой матрице: целочисленную — в long, иначе — в double
+     * (представление поверх невзвешенной матрицы решатель читает по строкам).
+     */
+    void solveAssignment(AssignmentSolver solver, int[] assignment) {
+        long[] exact = integralValues();
+        if (exact != null) {
+            solver.solve(exact, size, assignment);
+        } else if (distances != null) {
+            solver.solve(distances, size, assignment);
+        } else {
+            solver.solve(this, assignment);
+        }
+    }
+
+    /**
+     * Возвращает веса столбцов без копирования (только для решателей пакета).
+     */
+    double[] columnWeights() {
+        return positionWeights;
+    }
+
+    /**
+     * Возвращает размер матрицы m.
+     */
+    public int size() {
+        return size;
+    }
+
     /**
      * Возвращает расстояние для альтернативы i на позиции k.
      */
     public double value(int alternativeIndex, int rankIndex) {
-        return distances[alternativeIndex][rankIndex];
+        if (distances != null) {
+            return distances[alternativeIndex * size + rankIndex];
+        }
+        long[] exact = integral;
+        if (exact != null && exact != NOT_INTEGRAL) {
+            return exact[alternativeIndex * size + rankIndex];
+        }
+        return positionWeights[rankIndex] * base.exactValue(alternativeIndex, rankIndex);
+    }
+
+    /**
+     * Копирует строку альтернативы в target, не строя плоскую матрицу.
+     */
+    @Override
+    public void copyRow(int row, double[] target) {
+        int rowBase = row * size;
+        if (distances != null) {
+            System.arraycopy(distances, rowBase, target, 0, size);
+            return;
+        }
+        long[] exact = integral;
+        if (exact != null && exact != NOT_INTEGRAL) {
+            for (int k = 0; k < size; k++) {
+                target[k] = exact[rowBase + k];
+            }
+            return;
+        }
+        long[] unweighted = base.exactValues();
+        for (int k = 0; k < size; k++) {
+            target[k] = positionWeights[k] * unweighted[rowBase + k];
+        }
     }
 
     /**
@@ -100,5 +233,58 @@ public final class WeightedDistanceMatrix {
     public double[] positionWeights() {
         return Arrays.copyOf(positionWeights, positionWeights.length);
     }
-}
 
+    /**
+     * Проверяет, что все веса — целые числа не больше {@link #MAX_INTEGRAL_WEIGHT} по модулю.
+     */
+    private static boolean isIntegral(double[] weights) {
+        for (double weight : weights) {
+            if (weight != Math.rint(weight) || Math.abs(weight) > MAX_INTEGRAL_WEIGHT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Умножает столбцы целой матрицы на целые веса; null, если веса дробные или max|c| · m
+     * превышает 2^53 (тогда и потенциалы в long, и перевод в double перестают быть точными,
+     * и задача решается в double). При единичных весах возвращает исходный массив.
+     */
+    private static long[] scale(long[] exact, double[] weights, int m) {
+        if (!isIntegral(weights)) {
+            return null;
+        }
+        boolean unit = true;
+        for (double weight : weights) {
+            unit &= weight == 1.0;
+        }
+        long[] scaled = unit ? exact : new long[exact.length];
+        long maxCost = 0;
+        try {
+            for (int i = 0; i < m; i++) {
+                int rowBase = i * m;
+                for (int k = 0; k < m; k++) {
+                    if (!unit) {
+                        scaled[rowBase + k] = Math.multiplyExact((long) weights[k], exact[rowBase + k]);
+                    }
+                    maxCost = Math.max(maxCost, Math.abs(scaled[rowBase + k]));
+                }
+            }
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+        return HungarianSolver.fitsExact(maxCost, m) ? scaled : null;
+    }
+
+    /**
+     * Предвычисляет веса phi(k) для всех позиций.
+     */
+    private static double[] positionWeights(PositionWeightFunction weightFunction, int m) {
+        double[] weights = new double[m];
+        for (int k = 0; k < m; k++) {
+            weights[k] = weightFunction.weight(k + 1, m);
+        }
+        return weights;
+    }
+}
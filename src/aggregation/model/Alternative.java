@@ -4,20 +4,36 @@ import java.util.Objects;
 
 /**
  * Модель одной альтернативы (кандидата), участвующей в коллективном выборе.
+ *
+ * Хеш имени без учёта регистра вычисляется один раз в конструкторе. Альтернатива, созданная
+ * через {@link AlternativeUniverse}, дополнительно несёт плотный идентификатор в своём реестре.
  */
 public final class Alternative {
     private final String name;
+    private final int hash;
+    private final AlternativeUniverse universe;
+    private final int id;
 
     /**
-     * Создаёт альтернативу и валидирует, что имя не пустое.
+     * Создаёт альтернативу вне реестра и валидирует, что имя не пустое.
      *
      * @param name отображаемое имя альтернативы
      */
     public Alternative(String name) {
+        this(name, null, -1);
+    }
+
+    /**
+     * Создаёт интернированную альтернативу (вызывается только из {@link AlternativeUniverse}).
+     */
+    Alternative(String name, AlternativeUniverse universe, int id) {
         if (name == null || name.isBlank()) {
             throw new IllegalArgumentException("Alternative name must be non-empty");
         }
         this.name = name.trim();
+        this.hash = Objects.hash(this.name.toLowerCase());
+        this.universe = universe;
+        this.id = id;
     }
 
     /**
@@ -27,8 +43,23 @@ public final class Alternative {
         return name;
     }
 
+    /**
+     * Возвращает реестр, в котором интернирована альтернатива, или null.
+     */
+    public AlternativeUniverse universe() {
+        return universe;
+    }
+
+    /**
+     * Возвращает идентификатор в реестре или -1 для альтернативы вне реестра.
+     */
+    public int id() {
+        return id;
+    }
+
     /**
      * Сравнивает альтернативы по имени без учёта регистра.
+     * Две альтернативы одного реестра равны, только если это один и тот же объект.
      */
     @Override
     public boolean equals(Object o) {
@@ -38,7 +69,10 @@ public final class Alternative {
         if (!(o instanceof Alternative that)) {
             return false;
         }
-        return name.equalsIgnoreCase(that.name);
+        if (universe != null && universe == that.universe) {
+            return false;
+        }
+        return hash == that.hash && name.equalsIgnoreCase(that.name);
     }
 
     /**
@@ -46,7 +80,7 @@ public final class Alternative {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(name.toLowerCase());
+        return hash;
     }
 
     /**
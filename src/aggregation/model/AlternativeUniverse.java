@@ -0,0 +1,84 @@
+package aggregation.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реестр альтернатив одного набора данных: каждое имя интернируется один раз и получает
+ * плотный целочисленный идентификатор 0..size-1 в порядке регистрации.
+ *
+ * Альтернативы одного реестра уникальны по имени без учёта регистра, поэтому сравниваются
+ * по ссылке, а {@link Ranking} и {@link PreferenceProfile} ищут их по идентификатору
+ * индексированием массива вместо обращения к хеш-таблице.
+ *
+ * Реестр не потокобезопасен: его заполняют при загрузке данных, до запуска агрегаторов.
+ */
+public final class AlternativeUniverse {
+    private final List<Alternative> alternatives = new ArrayList<>();
+    private final Map<String, Alternative> byFoldedName = new HashMap<>();
+
+    /**
+     * Возвращает альтернативу с указанным именем, создавая её при первом обращении.
+     */
+    public Alternative intern(String name) {
+        String folded = fold(name);
+        Alternative existing = byFoldedName.get(folded);
+        if (existing != null) {
+            return existing;
+        }
+        Alternative alternative = new Alternative(name, this, alternatives.size());
+        alternatives.add(alternative);
+        byFoldedName.put(folded, alternative);
+        return alternative;
+    }
+
+    /**
+     * Регистрирует новую альтернативу; повторное имя (без учёта регистра) считается ошибкой.
+     */
+    public Alternative register(String name) {
+        int before = alternatives.size();
+        Alternative alternative = intern(name);
+        if (alternatives.size() == before) {
+            throw new IllegalArgumentException("Duplicate alternative: " + name);
+        }
+        return alternative;
+    }
+
+    /**
+     * Возвращает альтернативу с указанным именем или null, если она не зарегистрирована.
+     */
+    public Alternative find(String name) {
+        return byFoldedName.get(fold(name));
+    }
+
+    /**
+     * Возвращает альтернативу по идентификатору.
+     */
+    public Alternative get(int id) {
+        return alternatives.get(id);
+    }
+
+    /**
+     * Возвращает количество зарегистрированных альтернатив.
+     */
+    public int size() {
+        return alternatives.size();
+    }
+
+    /**
+     * Возвращает неизменяемое представление альтернатив в порядке идентификаторов.
+     */
+    public List<Alternative> alternatives() {
+        return Collections.unmodifiableList(alternatives);
+    }
+
+    private static String fold(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Alternative name must be non-empty");
+        }
+        return name.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,33 @@
+package aggregation.model;
+
+/**
+ * Итог слияния одинаковых бюллетеней при построении профиля.
+ *
+ * @param ballots число принятых бюллетеней (вызовов добавления)
+ * @param distinctRankings число различных ранжировок, т. е. записей профиля
+ */
+public record DeduplicationReport(long ballots, int distinctRankings) {
+
+    /**
+     * Возвращает число бюллетеней, слитых с уже имевшимися записями.
+     */
+    public long merged() {
+        return ballots - distinctRankings;
+    }
+
+    /**
+     * Возвращает коэффициент сжатия: во сколько раз записей меньше, чем бюллетеней.
+     */
+    public double compressionRatio() {
+        return distinctRankings == 0 ? 1.0 : (double) ballots / distinctRankings;
+    }
+
+    /**
+     * Возвращает краткое описание для вывода в отчётах.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d ballots -> %d distinct rankings (x%.2f)", ballots, distinctRankings,
+                compressionRatio());
+    }
+}
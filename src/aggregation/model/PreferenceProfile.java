@@ -1,18 +1,29 @@
 package aggregation.model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
 
 /**
  * Профиль предпочтений группы: набор ранжировок и числа голосов за каждую из них.
+ *
+ * Профиль неизменяем. Для пошагового построения (по одному бюллетеню) предназначен
+ * {@link Builder}: он пишет ранги сразу в блоки {@link RankTable} и при заморозке
+ * отдаёт их профилю без копирования.
  */
 public final class PreferenceProfile {
     private final List<RankingEntry> entries;
     private final List<Alternative> alternatives;
+    private final RankTable rankTable;
+    private final AlternativeUniverse universe;
 
     /**
      * Создаёт профиль и проверяет, что в нём есть хотя бы одна ранжировка.
@@ -23,12 +34,49 @@ public final class PreferenceProfile {
         }
         this.entries = List.copyOf(entries);
         this.alternatives = validateAndExtractAlternatives(entries);
+        this.universe = commonUniverse(this.entries);
+        this.rankTable = RankTable.build(this.entries, this.alternatives);
+    }
+
+    /**
+     * Профиль поверх готовой таблицы (заморозка {@link Builder}); записи строятся по запросу.
+     */
+    private PreferenceProfile(List<Alternative> alternatives, AlternativeUniverse universe, RankTable rankTable) {
+        this.alternatives = alternatives;
+        this.universe = universe;
+        this.rankTable = rankTable;
+        this.entries = new TableEntries(alternatives, rankTable);
+    }
+
+    /**
+     * Создаёт профиль поверх готовой таблицы рангов (например, отображённой из файла).
+     * Столбцы таблицы соответствуют альтернативам реестра в порядке их идентификаторов;
+     * объекты {@link Ranking} строятся только при обращении к {@link #entries()}.
+     */
+    public static PreferenceProfile fromRankTable(AlternativeUniverse universe, RankTable table) {
+        Objects.requireNonNull(universe, "universe");
+        Objects.requireNonNull(table, "table");
+        if (universe.size() != table.alternativeCount()) {
+            throw new IllegalArgumentException("Rank table columns must match the universe size");
+        }
+        return new PreferenceProfile(List.copyOf(universe.alternatives()), universe, table);
+    }
+
+    /**
+     * Возвращает билдер профиля над альтернативами указанного реестра.
+     */
+    public static Builder builder(AlternativeUniverse universe) {
+        return new Builder(universe);
     }
 
     /**
      * Убеждается, что все ранжировки описывают один и тот же набор альтернатив.
      */
     private List<Alternative> validateAndExtractAlternatives(List<RankingEntry> entries) {
+        AlternativeUniverse universe = commonUniverse(entries);
+        if (universe != null) {
+            return validateByIds(entries, universe);
+        }
         Set<Alternative> reference = new LinkedHashSet<>(entries.get(0).ranking().alternatives());
         for (RankingEntry entry : entries) {
             Set<Alternative> current = entry.ranking().alternatives();
@@ -39,6 +87,46 @@ public final class PreferenceProfile {
         return List.copyOf(reference);
     }
 
+    /**
+     * Возвращает реестр, общий для всех ранжировок, или null.
+     */
+    private static AlternativeUniverse commonUniverse(List<RankingEntry> entries) {
+        AlternativeUniverse universe = entries.get(0).ranking().universe();
+        for (RankingEntry entry : entries) {
+            if (entry.ranking().universe() != universe) {
+                return null;
+            }
+        }
+        return universe;
+    }
+
+    /**
+     * То же по идентификаторам общего реестра: O(m) на запись без хеширования.
+     */
+    private List<Alternative> validateByIds(List<RankingEntry> entries, AlternativeUniverse universe) {
+        int[] reference = entries.get(0).ranking().ids();
+        boolean[] present = new boolean[universe.size()];
+        for (int id : reference) {
+            present[id] = true;
+        }
+        for (RankingEntry entry : entries) {
+            int[] current = entry.ranking().ids();
+            if (current.length != reference.length) {
+                throw new IllegalArgumentException("All rankings must contain the same set of alternatives");
+            }
+            for (int id : current) {
+                if (id >= present.length || !present[id]) {
+                    throw new IllegalArgumentException("All rankings must contain the same set of alternatives");
+                }
+            }
+        }
+        List<Alternative> alternatives = new ArrayList<>(reference.length);
+        for (int id : reference) {
+            alternatives.add(universe.get(id));
+        }
+        return List.copyOf(alternatives);
+    }
+
     /**
      * Возвращает список записей профиля.
      */
@@ -53,15 +141,30 @@ public final class PreferenceProfile {
         return alternatives;
     }
 
+    /**
+     * Возвращает реестр альтернатив профиля или null, если альтернативы не интернированы.
+     */
+    public AlternativeUniverse universe() {
+        return universe;
+    }
+
+    /**
+     * Возвращает плотную таблицу рангов, построенную при создании профиля.
+     */
+    public RankTable rankTable() {
+        return rankTable;
+    }
+
     /**
      * Подсчитывает общее количество голосов в профиле.
      */
     public int totalVoters() {
-        return entries.stream().mapToInt(RankingEntry::voters).sum();
+        return Math.toIntExact(rankTable.totalVoters());
     }
 
     /**
      * Возвращает новый профиль, дополненный ещё одной записью.
+     * Копирует все записи; для построения профиля по одному бюллетеню используйте {@link Builder}.
      */
     public PreferenceProfile withEntry(RankingEntry entry) {
         Objects.requireNonNull(entry, "entry");
@@ -83,5 +186,491 @@ public final class PreferenceProfile {
     public List<RankingEntry> asUnmodifiableList() {
         return Collections.unmodifiableList(entries);
     }
-}
 
+    /**
+     * Ленивое представление записей замороженного профиля: {@link RankingEntry} восстанавливается
+     * из таблицы рангов при первом обращении и запоминается.
+     */
+    private static final class TableEntries extends AbstractList<RankingEntry> implements RandomAccess {
+        private final List<Alternative> alternatives;
+        private final RankTable table;
+        private RankingEntry[] cache;
+
+        TableEntries(List<Alternative> alternatives, RankTable table) {
+            this.alternatives = alternatives;
+            this.table = table;
+        }
+
+        @Override
+        public RankingEntry get(int index) {
+            Objects.checkIndex(index, table.entryCount());
+            if (cache == null) {
+                cache = new RankingEntry[table.entryCount()];
+            }
+            RankingEntry entry = cache[index];
+            if (entry == null) {
+                entry = new RankingEntry(restore(index), table.voters(index));
+                cache[index] = entry;
+            }
+            return entry;
+        }
+
+        @Override
+        public int size() {
+            return table.entryCount();
+        }
+
+        private Ranking restore(int index) {
+            int m = alternatives.size();
+            List<Alternative> order = new ArrayList<>(m);
+            for (int position = 1; position <= m; position++) {
+                int alternative = table.alternativeAt(index, position);
+                if (alternative < 0) {
+                    break;
+                }
+                order.add(alternatives.get(alternative));
+            }
+            if (order.size() == m) {
+                return Ranking.fromOrder(order);
+            }
+            // Ранжировка с совпадающими или пропущенными рангами — восстанавливаем по столбцам.
+            Map<Alternative, Integer> ranks = new LinkedHashMap<>();
+            for (int i = 0; i < m; i++) {
+                ranks.put(alternatives.get(i), table.rank(index, i));
+            }
+            return new Ranking(ranks);
+        }
+    }
+
+    /**
+     * Изменяемый билдер профиля с амортизированным O(1) добавлением бюллетеня.
+     *
+     * Набор и порядок альтернатив, как и в конструкторе профиля, задаёт первая ранжировка;
+     * каждая следующая проверяется за O(m) по идентификаторам реестра. Ранги пишутся
+     * в блоки таблицы: текущий блок растёт удвоением до полного размера, заполненные блоки
+     * больше не копируются. {@link #build()} замораживает билдер и передаёт блоки профилю.
+     *
+     * В режиме {@link #deduplicate()} одинаковые ранжировки сливаются в одну запись с суммой голосов.
+     * Ключ строгой ранжировки при m ≤ 20 — её код Лемера (номер перестановки, помещается в long),
+     * иначе — 128-битный хеш строки рангов; при совпадении ключей строки дополнительно сравниваются,
+     * так что слияние точное. Запись остаётся на месте первого вхождения.
+     */
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 16;
+        private static final int LEHMER_MAX_ALTERNATIVES = 20;
+
+        private final AlternativeUniverse universe;
+        private List<Alternative> alternatives;
+        private int[] columnOf;          // columnOf[id] — столбец альтернативы или -1
+        private int alternativeCount;
+        private int chunkShift;
+        private int[] seen;              // seen[column] == stamp — столбец уже встречен в бюллетене
+        private int stamp;
+        private int[] idBuffer;
+        private int[] rankBuffer;
+
+        private final List<int[]> rankChunks = new ArrayList<>();
+        private final List<int[]> orderChunks = new ArrayList<>();
+        private final List<int[]> voterChunks = new ArrayList<>();
+        private int[] ranks;
+        private int[] order;
+        private int[] voters;
+        private int count;
+        private int maxRank;
+        private long totalVoters;
+        private boolean frozen;
+
+        private boolean deduplicate;
+        private long ballots;
+        private long[] keyHigh;          // открытая адресация: ключ ранжировки из двух слов
+        private long[] keyLow;
+        private int[] slotEntry;         // номер записи + 1, 0 — пустая ячейка
+
+        private Builder(AlternativeUniverse universe) {
+            this.universe = Objects.requireNonNull(universe, "universe");
+        }
+
+        /**
+         * Включает слияние одинаковых ранжировок; вызывается до первого бюллетеня.
+         */
+        public Builder deduplicate() {
+            checkOpen();
+            if (ballots > 0) {
+                throw new IllegalStateException("Deduplication must be enabled before the first ballot");
+            }
+            deduplicate = true;
+            return this;
+        }
+
+        /**
+         * Добавляет строгую ранжировку, заданную идентификаторами альтернатив от лучшей к худшей.
+         */
+        public Builder addOrder(int[] ids, int voters) {
+            Objects.requireNonNull(ids, "ids");
+            checkOpen();
+            checkVoters(voters);
+            if (alternatives == null) {
+                initColumns(ids);
+            }
+            int m = alternativeCount;
+            if (ids.length != m) {
+                throw new IllegalArgumentException("All rankings must contain the same set of alternatives");
+            }
+            nextStamp();
+            for (int id : ids) {
+                markColumn(id);
+            }
+
+            int local = reserve();
+            int base = local * m;
+            for (int k = 0; k < m; k++) {
+                int column = columnOf[ids[k]];
+                ranks[base + column] = k + 1;
+                order[base + k] = column;
+            }
+            maxRank = Math.max(maxRank, m);
+            commit(local, voters);
+            return this;
+        }
+
+        /**
+         * Добавляет строгую ранжировку по списку альтернатив реестра от лучшей к худшей.
+         */
+        public Builder addOrder(List<Alternative> orderList, int voters) {
+            Objects.requireNonNull(orderList, "order");
+            if (idBuffer == null || idBuffer.length != orderList.size()) {
+                idBuffer = new int[orderList.size()];
+            }
+            for (int k = 0; k < idBuffer.length; k++) {
+                Alternative alternative = orderList.get(k);
+                if (alternative.universe() != universe) {
+                    throw new IllegalArgumentException("Alternative " + alternative
+                            + " does not belong to the profile universe");
+                }
+                idBuffer[k] = alternative.id();
+            }
+            return addOrder(idBuffer, voters);
+        }
+
+        /**
+         * Добавляет произвольную ранжировку (допускаются совпадающие ранги) с числом голосов.
+         */
+        public Builder add(Ranking ranking, int voters) {
+            Objects.requireNonNull(ranking, "ranking");
+            if (ranking.universe() != universe) {
+                throw new IllegalArgumentException("Ranking alternatives must belong to the profile universe");
+            }
+            int[] ids = ranking.ids();
+            if (rankBuffer == null || rankBuffer.length != ids.length) {
+                rankBuffer = new int[ids.length];
+            }
+            for (int k = 0; k < ids.length; k++) {
+                rankBuffer[k] = ranking.rankOfId(ids[k]);
+            }
+            return addRanked(ids, rankBuffer, voters);
+        }
+
+        /**
+         * Добавляет ранжировку, в которой альтернатива ids[k] получает ранг ranks[k]
+         * (ранги положительны и могут совпадать — так задаются группы равноценных альтернатив).
+         */
+        public Builder addRanked(int[] ids, int[] rankValues, int voters) {
+            Objects.requireNonNull(ids, "ids");
+            Objects.requireNonNull(rankValues, "ranks");
+            checkOpen();
+            checkVoters(voters);
+            if (ids.length != rankValues.length) {
+                throw new IllegalArgumentException("Each alternative must have exactly one rank");
+            }
+            if (alternatives == null) {
+                initColumns(ids);
+            }
+            int m = alternativeCount;
+            if (ids.length != m) {
+                throw new IllegalArgumentException("All rankings must contain the same set of alternatives");
+            }
+            nextStamp();
+            for (int k = 0; k < m; k++) {
+                markColumn(ids[k]);
+                if (rankValues[k] <= 0) {
+                    throw new IllegalArgumentException("Rank values must be positive integers");
+                }
+            }
+
+            int local = reserve();
+            int base = local * m;
+            for (int k = 0; k < m; k++) {
+                int rank = rankValues[k];
+                ranks[base + columnOf[ids[k]]] = rank;
+                maxRank = Math.max(maxRank, rank);
+            }
+            Arrays.fill(order, base, base + m, -1);
+            // При совпадающих рангах позицию занимает первая по списку альтернатива (как в RankTable).
+            for (int i = 0; i < m; i++) {
+                int rank = ranks[base + i];
+                if (rank <= m && order[base + rank - 1] < 0) {
+                    order[base + rank - 1] = i;
+                }
+            }
+            commit(local, voters);
+            return this;
+        }
+
+        /**
+         * Добавляет запись профиля.
+         */
+        public Builder add(RankingEntry entry) {
+            Objects.requireNonNull(entry, "entry");
+            return add(entry.ranking(), entry.voters());
+        }
+
+        /**
+         * Возвращает число записей (различных ранжировок в режиме слияния).
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Возвращает число принятых бюллетеней и различных ранжировок среди них.
+         */
+        public DeduplicationReport report() {
+            return new DeduplicationReport(ballots, count);
+        }
+
+        AlternativeUniverse universe() {
+            return universe;
+        }
+
+        /**
+         * Замораживает билдер и возвращает профиль; блоки рангов передаются без копирования.
+         */
+        public PreferenceProfile build() {
+            checkOpen();
+            if (count == 0) {
+                throw new IllegalArgumentException("Preference profile must have at least one ranking entry");
+            }
+            frozen = true;
+            RankTable table = new RankTable(alternativeCount, count,
+                    rankChunks.toArray(new int[0][]), orderChunks.toArray(new int[0][]),
+                    voterChunks.toArray(new int[0][]), maxRank, totalVoters);
+            return new PreferenceProfile(alternatives, universe, table);
+        }
+
+        /**
+         * Фиксирует набор и порядок альтернатив по первой ранжировке.
+         */
+        private void initColumns(int[] ids) {
+            int m = ids.length;
+            if (m == 0) {
+                throw new IllegalArgumentException("Ranking must contain at least one alternative");
+            }
+            int[] columns = new int[universe.size()];
+            Arrays.fill(columns, -1);
+            List<Alternative> list = new ArrayList<>(m);
+            for (int k = 0; k < m; k++) {
+                int id = ids[k];
+                if (id < 0 || id >= columns.length) {
+                    throw new IllegalArgumentException("Unknown alternative id: " + id);
+                }
+                if (columns[id] >= 0) {
+                    throw new IllegalArgumentException("Duplicate alternative in ranking: " + universe.get(id));
+                }
+                columns[id] = k;
+                list.add(universe.get(id));
+            }
+            this.columnOf = columns;
+            this.alternatives = List.copyOf(list);
+            this.alternativeCount = m;
+            this.chunkShift = RankTable.chunkShift(m);
+            this.seen = new int[m];
+        }
+
+        private void nextStamp() {
+            if (++stamp == 0) {
+                Arrays.fill(seen, 0);
+                stamp = 1;
+            }
+        }
+
+        /**
+         * Проверяет, что альтернатива входит в профиль и ещё не встречалась в текущем бюллетене.
+         */
+        private void markColumn(int id) {
+            int column = id >= 0 && id < columnOf.length ? columnOf[id] : -1;
+            if (column < 0) {
+                throw new IllegalArgumentException("All rankings must contain the same set of alternatives");
+            }
+            if (seen[column] == stamp) {
+                throw new IllegalArgumentException("Duplicate alternative in ranking: " + universe.get(id));
+            }
+            seen[column] = stamp;
+        }
+
+        /**
+         * Возвращает номер следующей записи в текущем блоке, выделяя или расширяя блок при необходимости.
+         */
+        private int reserve() {
+            int m = alternativeCount;
+            int chunk = count >>> chunkShift;
+            int local = count & ((1 << chunkShift) - 1);
+            if (chunk == voterChunks.size()) {
+                int capacity = Math.min(1 << chunkShift, INITIAL_CAPACITY);
+                ranks = new int[capacity * m];
+                order = new int[capacity * m];
+                voters = new int[capacity];
+                rankChunks.add(ranks);
+                orderChunks.add(order);
+                voterChunks.add(voters);
+            } else if (local == voters.length) {
+                int capacity = Math.min(1 << chunkShift, local * 2);
+                ranks = Arrays.copyOf(ranks, capacity * m);
+                order = Arrays.copyOf(order, capacity * m);
+                voters = Arrays.copyOf(voters, capacity);
+                rankChunks.set(chunk, ranks);
+                orderChunks.set(chunk, order);
+                voterChunks.set(chunk, voters);
+            }
+            return local;
+        }
+
+        /**
+         * Фиксирует записанную в блок строку local либо прибавляет голоса к такой же записи.
+         */
+        private void commit(int local, int entryVoters) {
+            ballots++;
+            totalVoters += entryVoters;
+            if (deduplicate) {
+                int existing = findOrInsert(local);
+                if (existing >= 0) {
+                    int[] chunk = voterChunks.get(existing >>> chunkShift);
+                    int index = existing & ((1 << chunkShift) - 1);
+                    chunk[index] = Math.addExact(chunk[index], entryVoters);
+                    return;
+                }
+            }
+            voters[local] = entryVoters;
+            count++;
+        }
+
+        /**
+         * Ищет запись с такой же строкой рангов; если её нет, регистрирует строку local
+         * как запись с номером count и возвращает -1.
+         */
+        private int findOrInsert(int local) {
+            int m = alternativeCount;
+            int base = local * m;
+            long high;
+            long low;
+            if (m <= LEHMER_MAX_ALTERNATIVES && isPermutation(base)) {
+                high = lehmerCode(base);
+                low = 0L;
+            } else {
+                long h1 = 0x9E3779B97F4A7C15L;
+                long h2 = 0xC2B2AE3D27D4EB4FL ^ m;
+                for (int i = 0; i < m; i++) {
+                    int rank = ranks[base + i];
+                    h1 = Long.rotateLeft(h1 ^ rank, 23) * 0xBF58476D1CE4E5B9L;
+                    h2 = (h2 + rank) * 0x94D049BB133111EBL;
+                    h2 ^= h2 >>> 29;
+                }
+                high = mix(h1);
+                low = mix(h2) | 1L;
+            }
+            if (slotEntry == null || (count + 1) * 2 > slotEntry.length) {
+                growKeys();
+            }
+            int mask = slotEntry.length - 1;
+            int slot = (int) mix(high + low * 0x9E3779B97F4A7C15L) & mask;
+            while (slotEntry[slot] != 0) {
+                int entry = slotEntry[slot] - 1;
+                if (keyHigh[slot] == high && keyLow[slot] == low && sameRanks(entry, base)) {
+                    return entry;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slotEntry[slot] = count + 1;
+            keyHigh[slot] = high;
+            keyLow[slot] = low;
+            return -1;
+        }
+
+        private boolean isPermutation(int base) {
+            for (int k = 0; k < alternativeCount; k++) {
+                if (order[base + k] < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Код Лемера перестановки order: Σ d_k · (m-1-k)!, где d_k — число ещё не встреченных
+         * столбцов меньше order[k]. Для m ≤ 20 значение меньше 20! < 2^63.
+         */
+        private long lehmerCode(int base) {
+            int m = alternativeCount;
+            long code = 0L;
+            int used = 0;
+            for (int k = 0; k < m; k++) {
+                int column = order[base + k];
+                code = code * (m - k) + Integer.bitCount(~used & ((1 << column) - 1));
+                used |= 1 << column;
+            }
+            return code;
+        }
+
+        private boolean sameRanks(int entry, int base) {
+            int m = alternativeCount;
+            int from = (entry & ((1 << chunkShift) - 1)) * m;
+            return Arrays.equals(rankChunks.get(entry >>> chunkShift), from, from + m, ranks, base, base + m);
+        }
+
+        private void growKeys() {
+            int capacity = slotEntry == null ? 64 : slotEntry.length * 2;
+            long[] high = new long[capacity];
+            long[] low = new long[capacity];
+            int[] entries = new int[capacity];
+            int mask = capacity - 1;
+            if (slotEntry != null) {
+                for (int old = 0; old < slotEntry.length; old++) {
+                    if (slotEntry[old] == 0) {
+                        continue;
+                    }
+                    int slot = (int) mix(keyHigh[old] + keyLow[old] * 0x9E3779B97F4A7C15L) & mask;
+                    while (entries[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    entries[slot] = slotEntry[old];
+                    high[slot] = keyHigh[old];
+                    low[slot] = keyLow[old];
+                }
+            }
+            keyHigh = high;
+            keyLow = low;
+            slotEntry = entries;
+        }
+
+        /**
+         * Финальное перемешивание splitmix64.
+         */
+        private static long mix(long value) {
+            long z = value;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        private void checkOpen() {
+            if (frozen) {
+                throw new IllegalStateException("Profile builder has already been built");
+            }
+        }
+
+        private static void checkVoters(int voters) {
+            if (voters <= 0) {
+                throw new IllegalArgumentException("Number of voters must be positive");
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package aggregation.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Генератор синтетических профилей прямо в JVM — аналог ranking_generator.py без промежуточного JSON.
+ *
+ * Параметры те же, что у скрипта: уровень консенсуса, где сосредоточено согласие (верх, низ или
+ * равномерно), число кластеров мнений, доля первого кластера и seed. Центры кластеров строятся
+ * как в скрипте: первый — случайная перестановка, второй — обратный ей порядок, остальные —
+ * первый центр после m/2 случайных обменов. Эксперты делятся между кластерами по тем же правилам.
+ *
+ * Бюллетень кластера выбирается по обобщённой модели Маллоуза методом повторных вставок (RIM):
+ * альтернативы центра вставляются по одной, и альтернатива на позиции i встаёт на d мест выше
+ * своего места с вероятностью ∝ φ_i^d. Разброс φ_i = (1 - consensus)·w_i, где w_i — вес позиции
+ * из скрипта (1 при равномерном согласии, от 0.2 на согласованном конце до 1 на противоположном).
+ * При согласии на верху вставка идёт снизу вверх, чтобы верх центра размещался последним и не
+ * сдвигался. В отличие от случайных обменов скрипта, крайние случаи точны: consensus = 1 даёт
+ * центр, consensus = 0 при равномерном согласии — равновероятные перестановки.
+ *
+ * Бюллетени пишутся сразу в {@link PreferenceProfile.Builder}, кластер за кластером; при слиянии
+ * одинаковых ранжировок память определяется числом различных бюллетеней, а не экспертов.
+ * Результат детерминирован для seed. Генератор не потокобезопасен.
+ */
+public final class ProfileGenerator {
+
+    /**
+     * Где эксперты согласны сильнее (consensus_position скрипта).
+     */
+    public enum ConsensusPosition {
+        UNIFORM,
+        TOP,
+        BOTTOM
+    }
+
+    private final AlternativeUniverse universe;
+    private final double consensus;
+    private final ConsensusPosition position;
+    private final int clusterCount;
+    private final double clusterBalance;
+    private final long seed;
+    private final List<int[]> centers;
+    private final SplittableRandom random;
+
+    // Параметры этапов вставки (в порядке вставки): P(d = 0), 1 - φ^(i+1) и ln φ.
+    private final double[] stay;
+    private final double[] mass;
+    private final double[] logPhi;
+    private final int[] work;
+    private final int[] ballot;
+
+    private ProfileGenerator(Builder builder) {
+        int m = builder.names.size();
+        this.universe = new AlternativeUniverse();
+        for (String name : builder.names) {
+            universe.register(name);
+        }
+        this.consensus = builder.consensus;
+        this.position = builder.position;
+        this.clusterCount = builder.clusterCount;
+        this.clusterBalance = builder.clusterBalance;
+        this.seed = builder.seed != null ? builder.seed : ThreadLocalRandom.current().nextLong();
+        this.random = new SplittableRandom(seed);
+        this.centers = buildCenters(m);
+
+        stay = new double[m];
+        mass = new double[m];
+        logPhi = new double[m];
+        for (int i = 0; i < m; i++) {
+            // При согласии на верху этап i вставляет альтернативу центра m-1-i.
+            int centerPosition = position == ConsensusPosition.TOP ? m - 1 - i : i;
+            double phi = Math.min(1.0, (1.0 - consensus) * positionWeight(centerPosition, m));
+            if (phi <= 0.0) {
+                stay[i] = 1.0;
+            } else if (phi >= 1.0) {
+                stay[i] = 1.0 / (i + 1);
+                mass[i] = 1.0;
+            } else {
+                mass[i] = 1.0 - Math.pow(phi, i + 1);
+                stay[i] = (1.0 - phi) / mass[i];
+                logPhi[i] = Math.log(phi);
+            }
+        }
+        work = new int[m];
+        ballot = new int[m];
+    }
+
+    /**
+     * Начинает настройку генератора для m альтернатив с именами A1..Am.
+     */
+    public static Builder builder(int alternativeCount) {
+        return new Builder(alternativeCount);
+    }
+
+    /**
+     * Реестр альтернатив генератора; билдер для {@link #generate(long, PreferenceProfile.Builder)}
+     * создаётся над ним.
+     */
+    public AlternativeUniverse universe() {
+        return universe;
+    }
+
+    /**
+     * Центры кластеров: идентификаторы альтернатив от лучшей к худшей.
+     */
+    public List<int[]> clusterCenters() {
+        List<int[]> copies = new ArrayList<>(centers.size());
+        for (int[] center : centers) {
+            copies.add(center.clone());
+        }
+        return copies;
+    }
+
+    /**
+     * Seed генератора (заданный или выбранный случайно).
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Генерирует профиль из ballots бюллетеней с одним голосом; одинаковые ранжировки сливаются.
+     */
+    public PreferenceProfile generate(long ballots) {
+        PreferenceProfile.Builder builder = PreferenceProfile.builder(universe).deduplicate();
+        generate(ballots, builder);
+        return builder.build();
+    }
+
+    /**
+     * Дописывает ballots бюллетеней в билдер, созданный над {@link #universe()}.
+     * Повторный вызов продолжает ту же случайную последовательность.
+     */
+    public void generate(long ballots, PreferenceProfile.Builder target) {
+        Objects.requireNonNull(target, "target");
+        if (ballots <= 0) {
+            throw new IllegalArgumentException("ballots must be a positive number");
+        }
+        if (target.universe() != universe) {
+            throw new IllegalArgumentException("Target builder must be created over the generator universe");
+        }
+        long[] sizes = clusterSizes(ballots);
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            int[] center = centers.get(cluster);
+            for (long b = 0; b < sizes[cluster]; b++) {
+                target.addOrder(sample(center), 1);
+            }
+        }
+    }
+
+    /**
+     * Одна ранжировка около центра (буфер переиспользуется).
+     */
+    private int[] sample(int[] center) {
+        int m = center.length;
+        boolean top = position == ConsensusPosition.TOP;
+        for (int i = 0; i < m; i++) {
+            int at = i - displacement(i);
+            System.arraycopy(work, at, work, at + 1, i - at);
+            work[at] = top ? center[m - 1 - i] : center[i];
+        }
+        if (top) {
+            // Вставка шла снизу вверх: work хранит ранжировку от худшей к лучшей.
+            for (int k = 0; k < m; k++) {
+                ballot[k] = work[m - 1 - k];
+            }
+            return ballot;
+        }
+        return work;
+    }
+
+    /**
+     * Сдвиг d ∈ [0, i] на этапе i: усечённое геометрическое распределение с параметром φ_i.
+     */
+    private int displacement(int i) {
+        if (stay[i] >= 1.0) {
+            return 0;
+        }
+        double u = random.nextDouble();
+        if (u < stay[i]) {
+            return 0;
+        }
+        if (logPhi[i] == 0.0) {
+            return (int) (u * (i + 1));
+        }
+        int d = (int) (Math.log1p(-u * mass[i]) / logPhi[i]);
+        return Math.min(d, i);
+    }
+
+    /**
+     * Вес позиции из скрипта: чем он больше, тем сильнее разброс на позиции.
+     */
+    private double positionWeight(int centerPosition, int m) {
+        double normalized = m > 1 ? (double) centerPosition / (m - 1) : 0.0;
+        return switch (position) {
+            case UNIFORM -> 1.0;
+            case TOP -> 0.2 + 0.8 * normalized;
+            case BOTTOM -> 1.0 - 0.8 * normalized;
+        };
+    }
+
+    private List<int[]> buildCenters(int m) {
+        List<int[]> result = new ArrayList<>(clusterCount);
+        int[] base = new int[m];
+        for (int i = 0; i < m; i++) {
+            base[i] = i;
+        }
+        for (int i = m - 1; i > 0; i--) {
+            swap(base, i, random.nextInt(i + 1));
+        }
+        result.add(base);
+        for (int c = 1; c < clusterCount; c++) {
+            int[] center = new int[m];
+            if (c == 1) {
+                for (int i = 0; i < m; i++) {
+                    center[i] = base[m - 1 - i];
+                }
+            } else {
+                System.arraycopy(base, 0, center, 0, m);
+                for (int s = 0; s < m / 2; s++) {
+                    int first = random.nextInt(m);
+                    int second = random.nextInt(m - 1);
+                    swap(center, first, second >= first ? second + 1 : second);
+                }
+            }
+            result.add(center);
+        }
+        return result;
+    }
+
+    /**
+     * Размеры кластеров как в скрипте: первый — доля balance, следующие делят остаток поровну,
+     * последний забирает остаток.
+     */
+    private long[] clusterSizes(long ballots) {
+        long[] sizes = new long[clusterCount];
+        long remaining = ballots;
+        for (int c = 0; c < clusterCount - 1; c++) {
+            sizes[c] = c == 0 ? (long) (ballots * clusterBalance) : remaining / (clusterCount - c);
+            remaining -= sizes[c];
+        }
+        sizes[clusterCount - 1] = remaining;
+        return sizes;
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int t = array[i];
+        array[i] = array[j];
+        array[j] = t;
+    }
+
+    /**
+     * Настройка генератора; значения по умолчанию совпадают со скриптом.
+     */
+    public static final class Builder {
+        private List<String> names;
+        private double consensus = 0.5;
+        private ConsensusPosition position = ConsensusPosition.UNIFORM;
+        private int clusterCount = 1;
+        private double clusterBalance = 0.5;
+        private Long seed;
+
+        private Builder(int alternativeCount) {
+            if (alternativeCount <= 0) {
+                throw new IllegalArgumentException("alternativeCount must be a positive number");
+            }
+            names = new ArrayList<>(alternativeCount);
+            for (int i = 1; i <= alternativeCount; i++) {
+                names.add("A" + i);
+            }
+        }
+
+        /**
+         * Задаёт имена альтернатив вместо A1..Am.
+         */
+        public Builder names(List<String> alternativeNames) {
+            Objects.requireNonNull(alternativeNames, "alternativeNames");
+            if (alternativeNames.size() != names.size()) {
+                throw new IllegalArgumentException("Expected " + names.size() + " alternative names");
+            }
+            names = List.copyOf(alternativeNames);
+            return this;
+        }
+
+        /**
+         * Уровень согласия: 0 — хаос, 1 — все бюллетени совпадают с центром кластера.
+         */
+        public Builder consensus(double level) {
+            if (!(level >= 0.0 && level <= 1.0)) {
+                throw new IllegalArgumentException("consensus must be in [0, 1]");
+            }
+            consensus = level;
+            return this;
+        }
+
+        public Builder position(ConsensusPosition consensusPosition) {
+            position = Objects.requireNonNull(consensusPosition, "consensusPosition");
+            return this;
+        }
+
+        /**
+         * Число кластеров мнений и доля экспертов первого кластера.
+         */
+        public Builder clusters(int count, double balance) {
+            if (count < 1) {
+                throw new IllegalArgumentException("cluster count must be at least 1");
+            }
+            if (!(balance >= 0.0 && balance <= 1.0)) {
+                throw new IllegalArgumentException("cluster balance must be in [0, 1]");
+            }
+            clusterCount = count;
+            clusterBalance = balance;
+            return this;
+        }
+
+        public Builder seed(long value) {
+            seed = value;
+            return this;
+        }
+
+        public ProfileGenerator build() {
+            return new ProfileGenerator(this);
+        }
+    }
+}
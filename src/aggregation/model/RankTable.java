@@ -0,0 +1,243 @@
+package aggregation.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Плотная таблица рангов профиля: альтернативы пронумерованы индексами 0..m-1
+ * (в порядке {@link PreferenceProfile#alternatives()}), ранги хранятся в примитивных массивах.
+ *
+ * Строится один раз при создании профиля и позволяет горячим циклам агрегаторов
+ * обходиться без обращений к {@link Ranking#getRank(Alternative)} и хеш-таблицам.
+ *
+ * ranks[e * m + i]  — ранг (1-based) альтернативы i в ранжировке e;
+ * order[e * m + k]  — индекс альтернативы на позиции k + 1 в ранжировке e (обратная перестановка),
+ *                     либо -1, если позиция никем не занята.
+ *
+ * Записи хранятся блоками по 2^chunkShift штук (блок — около {@value #CHUNK_INTS} целых), чтобы
+ * {@link PreferenceProfile.Builder} мог дописывать ранжировки без перекопирования уже заполненных
+ * блоков и отдавать их таблице при заморозке как есть.
+ *
+ * Таблица может также лежать вне кучи — в буферах отображённого в память файла
+ * (см. {@link #mapped}): те же строки ranks/order хранятся там числами шириной 1, 2 или 4 байта,
+ * а методы доступа читают их прямо из буфера без копирования в массивы.
+ */
+public final class RankTable {
+    /**
+     * Ориентировочный размер блока в элементах int.
+     */
+    static final int CHUNK_INTS = 1 << 16;
+
+    private final int alternativeCount;
+    private final int entryCount;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final int[][] ranks;
+    private final int[][] order;
+    private final int[][] voters;
+    private final int maxRank;
+    private final long totalVoters;
+
+    // Внешнее хранение (ranks == null): строки подряд, элемент шириной 1 << widthShift байт.
+    private final ByteBuffer mappedRanks;
+    private final ByteBuffer mappedOrder;
+    private final ByteBuffer mappedVoters;
+    private final int widthShift;
+
+    RankTable(int alternativeCount, int entryCount, int[][] ranks, int[][] order,
+              int[][] voters, int maxRank, long totalVoters) {
+        this.alternativeCount = alternativeCount;
+        this.entryCount = entryCount;
+        this.chunkShift = chunkShift(alternativeCount);
+        this.chunkMask = (1 << chunkShift) - 1;
+        this.ranks = ranks;
+        this.order = order;
+        this.voters = voters;
+        this.maxRank = maxRank;
+        this.totalVoters = totalVoters;
+        this.mappedRanks = null;
+        this.mappedOrder = null;
+        this.mappedVoters = null;
+        this.widthShift = 0;
+    }
+
+    private RankTable(int alternativeCount, int entryCount, int widthShift, ByteBuffer ranks,
+                      ByteBuffer order, ByteBuffer voters, int maxRank, long totalVoters) {
+        this.alternativeCount = alternativeCount;
+        this.entryCount = entryCount;
+        this.chunkShift = 0;
+        this.chunkMask = 0;
+        this.ranks = null;
+        this.order = null;
+        this.voters = null;
+        this.maxRank = maxRank;
+        this.totalVoters = totalVoters;
+        this.mappedRanks = ranks;
+        this.mappedOrder = order;
+        this.mappedVoters = voters;
+        this.widthShift = widthShift;
+    }
+
+    /**
+     * Создаёт таблицу поверх внешних буферов без копирования.
+     *
+     * ranks и order содержат по entryCount * m знаковых чисел шириной width байт (1, 2 или 4)
+     * в раскладке ranks[e * m + i] / order[e * m + k], voters — entryCount чисел int.
+     * Значения читаются абсолютными методами get в порядке байтов, заданном у самих буферов;
+     * содержимое не проверяется — за корректность строк отвечает тот, кто их записал.
+     */
+    public static RankTable mapped(int alternativeCount, int entryCount, int width,
+                                   ByteBuffer ranks, ByteBuffer order, ByteBuffer voters,
+                                   int maxRank, long totalVoters) {
+        if (alternativeCount <= 0 || entryCount <= 0) {
+            throw new IllegalArgumentException("Rank table must have at least one alternative and one entry");
+        }
+        if (width != 1 && width != 2 && width != 4) {
+            throw new IllegalArgumentException("Rank width must be 1, 2 or 4 bytes: " + width);
+        }
+        long cells = (long) entryCount * alternativeCount * width;
+        if (ranks.capacity() < cells || order.capacity() < cells
+                || voters.capacity() < (long) entryCount * Integer.BYTES) {
+            throw new IllegalArgumentException("Rank table buffers are smaller than the declared size");
+        }
+        return new RankTable(alternativeCount, entryCount, Integer.numberOfTrailingZeros(width),
+                ranks, order, voters, maxRank, totalVoters);
+    }
+
+    /**
+     * Возвращает log2 числа записей в блоке для m альтернатив.
+     */
+    static int chunkShift(int alternativeCount) {
+        int perChunk = Math.max(1, CHUNK_INTS / Math.max(1, alternativeCount));
+        return Integer.numberOfTrailingZeros(Integer.highestOneBit(perChunk));
+    }
+
+    /**
+     * Строит таблицу по записям профиля; порядок столбцов задаётся списком альтернатив.
+     */
+    static RankTable build(List<RankingEntry> entries, List<Alternative> alternatives) {
+        int m = alternatives.size();
+        int n = entries.size();
+        int shift = chunkShift(m);
+        int perChunk = 1 << shift;
+        int chunkCount = (n + perChunk - 1) >>> shift;
+        int[][] ranks = new int[chunkCount][];
+        int[][] order = new int[chunkCount][];
+        int[][] voters = new int[chunkCount][];
+        int maxRank = 0;
+        long totalVoters = 0;
+
+        for (int c = 0; c < chunkCount; c++) {
+            int from = c << shift;
+            int count = Math.min(perChunk, n - from);
+            int[] chunkRanks = new int[count * m];
+            int[] chunkOrder = new int[count * m];
+            int[] chunkVoters = new int[count];
+            Arrays.fill(chunkOrder, -1);
+            for (int local = 0; local < count; local++) {
+                RankingEntry entry = entries.get(from + local);
+                chunkVoters[local] = entry.voters();
+                totalVoters += entry.voters();
+                int base = local * m;
+                for (int i = 0; i < m; i++) {
+                    int rank = entry.ranking().getRank(alternatives.get(i));
+                    chunkRanks[base + i] = rank;
+                    maxRank = Math.max(maxRank, rank);
+                    // При совпадающих рангах позицию занимает первая по списку альтернатива.
+                    if (rank <= m && chunkOrder[base + rank - 1] < 0) {
+                        chunkOrder[base + rank - 1] = i;
+                    }
+                }
+            }
+            ranks[c] = chunkRanks;
+            order[c] = chunkOrder;
+            voters[c] = chunkVoters;
+        }
+        return new RankTable(m, n, ranks, order, voters, maxRank, totalVoters);
+    }
+
+    /**
+     * Возвращает количество альтернатив m.
+     */
+    public int alternativeCount() {
+        return alternativeCount;
+    }
+
+    /**
+     * Возвращает количество записей (различных ранжировок) n.
+     */
+    public int entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Возвращает ранг (1-based) альтернативы с индексом alternative в ранжировке entry.
+     */
+    public int rank(int entry, int alternative) {
+        if (ranks == null) {
+            return read(mappedRanks, entry * alternativeCount + alternative);
+        }
+        return ranks[entry >>> chunkShift][(entry & chunkMask) * alternativeCount + alternative];
+    }
+
+    /**
+     * Возвращает индекс альтернативы на позиции position (1-based) в ранжировке entry или -1.
+     */
+    public int alternativeAt(int entry, int position) {
+        if (order == null) {
+            return read(mappedOrder, entry * alternativeCount + position - 1);
+        }
+        return order[entry >>> chunkShift][(entry & chunkMask) * alternativeCount + position - 1];
+    }
+
+    /**
+     * Возвращает число голосов за ранжировку entry.
+     */
+    public int voters(int entry) {
+        if (voters == null) {
+            return mappedVoters.getInt(entry << 2);
+        }
+        return voters[entry >>> chunkShift][entry & chunkMask];
+    }
+
+    /**
+     * Возвращает суммарное число голосов.
+     */
+    public long totalVoters() {
+        return totalVoters;
+    }
+
+    /**
+     * Возвращает наибольший встречающийся ранг (для строгих ранжировок равен m).
+     */
+    public int maxRank() {
+        return maxRank;
+    }
+
+    /**
+     * Копирует ранги ранжировки entry в буфер target (длиной не меньше m).
+     */
+    public void copyRanks(int entry, int[] target) {
+        if (ranks == null) {
+            int base = entry * alternativeCount;
+            for (int i = 0; i < alternativeCount; i++) {
+                target[i] = read(mappedRanks, base + i);
+            }
+            return;
+        }
+        System.arraycopy(ranks[entry >>> chunkShift], (entry & chunkMask) * alternativeCount,
+                target, 0, alternativeCount);
+    }
+
+    /**
+     * Читает элемент index внешнего буфера с учётом ширины хранения.
+     */
+    private int read(ByteBuffer buffer, int index) {
+        return switch (widthShift) {
+            case 0 -> buffer.get(index);
+            case 1 -> buffer.getShort(index << 1);
+            default -> buffer.getInt(index << 2);
+        };
+    }
+}
@@ -9,9 +9,16 @@ import java.util.Set;
 
 /**
  * Строгое ранжирование альтернатив (меньший номер ранга соответствует лучшему месту).
+ *
+ * Если все альтернативы интернированы в одном {@link AlternativeUniverse}, ранги дополнительно
+ * раскладываются в массив по идентификаторам, и {@link #getRank(Alternative)} сводится
+ * к индексированию массива.
  */
 public final class Ranking {
     private final Map<Alternative, Integer> ranks;
+    private final AlternativeUniverse universe;
+    private final int[] ranksById;      // ranksById[id] — ранг или 0, если альтернативы нет
+    private final int[] ids;            // идентификаторы в порядке обхода ranks
 
     /**
      * Создаёт ранжирование на основе заранее подготовленной мапы рангов.
@@ -24,6 +31,20 @@ public final class Ranking {
         }
         validateRanks(ranks);
         this.ranks = Collections.unmodifiableMap(new LinkedHashMap<>(ranks));
+        this.universe = commonUniverse(this.ranks.keySet());
+        if (universe == null) {
+            this.ranksById = null;
+            this.ids = null;
+        } else {
+            this.ranksById = new int[universe.size()];
+            this.ids = new int[this.ranks.size()];
+            int next = 0;
+            for (Map.Entry<Alternative, Integer> entry : this.ranks.entrySet()) {
+                int id = entry.getKey().id();
+                ranksById[id] = entry.getValue();
+                ids[next++] = id;
+            }
+        }
     }
 
     /**
@@ -57,6 +78,21 @@ public final class Ranking {
         }
     }
 
+    /**
+     * Возвращает общий реестр всех альтернатив или null, если его нет.
+     */
+    private static AlternativeUniverse commonUniverse(Set<Alternative> alternatives) {
+        AlternativeUniverse common = null;
+        for (Alternative alternative : alternatives) {
+            AlternativeUniverse current = alternative.universe();
+            if (current == null || (common != null && current != common)) {
+                return null;
+            }
+            common = current;
+        }
+        return common;
+    }
+
     /**
      * Возвращает множество альтернатив, присутствующих в ранжировании.
      */
@@ -77,6 +113,13 @@ public final class Ranking {
      * @throws IllegalArgumentException если альтернативы нет в ранжировании
      */
     public int getRank(Alternative alternative) {
+        if (universe != null && alternative.universe() == universe) {
+            int rank = rankOfId(alternative.id());
+            if (rank == 0) {
+                throw new IllegalArgumentException("Alternative " + alternative + " is not present in ranking");
+            }
+            return rank;
+        }
         Integer value = ranks.get(alternative);
         if (value == null) {
             throw new IllegalArgumentException("Alternative " + alternative + " is not present in ranking");
@@ -90,5 +133,25 @@ public final class Ranking {
     public Map<Alternative, Integer> asMap() {
         return ranks;
     }
-}
 
+    /**
+     * Возвращает реестр альтернатив ранжирования или null, если альтернативы не интернированы.
+     */
+    AlternativeUniverse universe() {
+        return universe;
+    }
+
+    /**
+     * Возвращает ранг альтернативы с идентификатором id или 0, если её нет (только при общем реестре).
+     */
+    int rankOfId(int id) {
+        return id < ranksById.length ? ranksById[id] : 0;
+    }
+
+    /**
+     * Возвращает идентификаторы альтернатив без копирования (только при общем реестре).
+     */
+    int[] ids() {
+        return ids;
+    }
+}
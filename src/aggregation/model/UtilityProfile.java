@@ -104,5 +104,30 @@ public final class UtilityProfile {
         }
         return new UtilityProfile(vectors, weights);
     }
-}
 
+    /**
+     * Строит профиль по плотной матрице полезностей values[s * m + i] (строка на эксперта,
+     * столбец на альтернативу в порядке alternatives) без промежуточных списков по альтернативам.
+     */
+    public static UtilityProfile fromMatrix(List<Alternative> alternatives, double[] values, List<Double> weights) {
+        Objects.requireNonNull(alternatives, "alternatives");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(weights, "weights");
+        if (alternatives.isEmpty()) {
+            throw new IllegalArgumentException("Alternatives list must not be empty");
+        }
+        int m = alternatives.size();
+        if (values.length != weights.size() * m) {
+            throw new IllegalArgumentException("Utility matrix must have one row per weight");
+        }
+        List<UtilityVector> vectors = new ArrayList<>(weights.size());
+        for (int s = 0; s < weights.size(); s++) {
+            Map<Alternative, Double> utilities = new java.util.LinkedHashMap<>();
+            for (int i = 0; i < m; i++) {
+                utilities.put(alternatives.get(i), values[s * m + i]);
+            }
+            vectors.add(new UtilityVector(utilities));
+        }
+        return new UtilityProfile(vectors, weights);
+    }
+}
@@ -1,6 +1,8 @@
 package aggregation.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,15 +11,22 @@ import java.util.Set;
 
 /**
  * Матрица весов w_{si}, задающая значимость позиции альтернативы в конкретной ранжировке.
+ *
+ * Хранится плотно: строка на запись профиля, столбец на альтернативу в порядке
+ * {@link PreferenceProfile#alternatives()}.
  */
 public final class WeightMatrix {
-    private final List<Map<Alternative, Double>> rows;
+    private final List<Alternative> alternatives;
+    private final int rows;
+    private final double[] values;   // values[s * m + i]
 
     /**
-     * Внутренний конструктор: принимает уже провалидированные строки.
+     * Внутренний конструктор: принимает уже провалидированные значения.
      */
-    private WeightMatrix(List<Map<Alternative, Double>> rows) {
-        this.rows = List.copyOf(rows);
+    private WeightMatrix(List<Alternative> alternatives, int rows, double[] values) {
+        this.alternatives = alternatives;
+        this.rows = rows;
+        this.values = values;
     }
 
     /**
@@ -27,15 +36,28 @@ public final class WeightMatrix {
         if (weight <= 0) {
             throw new IllegalArgumentException("Weight must be positive");
         }
-        List<Map<Alternative, Double>> rows = new ArrayList<>();
-        for (int i = 0; i < profile.entries().size(); i++) {
-            Map<Alternative, Double> row = new LinkedHashMap<>();
-            for (Alternative alternative : profile.alternatives()) {
-                row.put(alternative, weight);
+        int rows = profile.rankTable().entryCount();
+        double[] values = new double[rows * profile.alternatives().size()];
+        Arrays.fill(values, weight);
+        return new WeightMatrix(profile.alternatives(), rows, values);
+    }
+
+    /**
+     * Создаёт матрицу по плотному массиву values[s * m + i] (столбцы — в порядке альтернатив профиля).
+     * Массив не копируется.
+     */
+    public static WeightMatrix fromDense(PreferenceProfile profile, double[] values) {
+        Objects.requireNonNull(values, "values");
+        int rows = profile.rankTable().entryCount();
+        if (values.length != rows * profile.alternatives().size()) {
+            throw new IllegalArgumentException("Weight matrix must match number of ranking entries");
+        }
+        for (double value : values) {
+            if (!(value > 0)) {
+                throw new IllegalArgumentException("Weights must be positive numbers");
             }
-            rows.add(row);
         }
-        return new WeightMatrix(rows);
+        return new WeightMatrix(profile.alternatives(), rows, values);
     }
 
     /**
@@ -49,25 +71,40 @@ public final class WeightMatrix {
      * Возвращает строку весов для указанной ранжировки.
      */
     public Map<Alternative, Double> row(int index) {
-        return rows.get(index);
+        Objects.checkIndex(index, rows);
+        Map<Alternative, Double> row = new LinkedHashMap<>();
+        int base = index * alternatives.size();
+        for (int i = 0; i < alternatives.size(); i++) {
+            row.put(alternatives.get(i), values[base + i]);
+        }
+        return Collections.unmodifiableMap(row);
+    }
+
+    /**
+     * Возвращает вес альтернативы с индексом column (в порядке альтернатив профиля) в строке row.
+     */
+    public double weight(int row, int column) {
+        return values[row * alternatives.size() + column];
     }
 
     /**
      * Возвращает количество строк (равно числу ранжировок в профиле).
      */
     public int rows() {
-        return rows.size();
+        return rows;
     }
 
     public static final class Builder {
         private final PreferenceProfile profile;
-        private final List<Map<Alternative, Double>> rows = new ArrayList<>();
+        private final Set<Alternative> expected;
+        private final List<double[]> rows = new ArrayList<>();
 
         /**
          * Создаёт билдер, привязанный к конкретному профилю (для контроля числа строк).
          */
         private Builder(PreferenceProfile profile) {
             this.profile = Objects.requireNonNull(profile, "profile");
+            this.expected = Set.copyOf(profile.alternatives());
         }
 
         /**
@@ -75,13 +112,18 @@ public final class WeightMatrix {
           */
         public Builder addRow(Map<Alternative, Double> weights) {
             Objects.requireNonNull(weights, "weights");
-            if (!weights.keySet().equals(Set.copyOf(profile.alternatives()))) {
+            if (!weights.keySet().equals(expected)) {
                 throw new IllegalArgumentException("Weight row must contain all alternatives from profile");
             }
             if (weights.values().stream().anyMatch(value -> value == null || value <= 0)) {
                 throw new IllegalArgumentException("Weights must be positive numbers");
             }
-            rows.add(Map.copyOf(weights));
+            List<Alternative> alternatives = profile.alternatives();
+            double[] row = new double[alternatives.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = weights.get(alternatives.get(i));
+            }
+            rows.add(row);
             return this;
         }
 
@@ -89,11 +131,15 @@ public final class WeightMatrix {
          * Финализирует матрицу, убеждаясь, что строк столько же, сколько ранжировок.
          */
         public WeightMatrix build() {
-            if (rows.size() != profile.entries().size()) {
+            if (rows.size() != profile.rankTable().entryCount()) {
                 throw new IllegalStateException("Weight matrix must match number of ranking entries");
             }
-            return new WeightMatrix(rows);
+            int m = profile.alternatives().size();
+            double[] values = new double[rows.size() * m];
+            for (int s = 0; s < rows.size(); s++) {
+                System.arraycopy(rows.get(s), 0, values, s * m, m);
+            }
+            return new WeightMatrix(profile.alternatives(), rows.size(), values);
         }
     }
 }
-